@@ -4,93 +4,144 @@ import org.example.phase3.Evaluation.Graph;
 import org.example.phase3.Evaluation.GraphType;
 import org.example.phase3.DefaultGraphCases.DSATUR;
 import org.example.phase3.phase1algo.ObtainChromaticNumber;
+import org.example.phase3.phase1algo.PortfolioSolver;
+import org.example.phase3.phase1algo.algorithms.TimerCheck;
 import org.example.phase3.SpecialGraphCases.*;
 import org.example.phase3.GUI.components.GraphPainter;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AlgorithmSelector {
+    /**
+     * Selects and executes the appropriate coloring algorithm based on graph type, then displays the result.
+     */
+    public static void selectAndExecute(Graph graph, GraphType type) {
+        try {
+            display(graph, select(graph, type));
+        } catch (Exception e) {
+            System.err.println("Error during graph coloring: " + e.getMessage());
+        }
+    }
+
     /**
      * Selects and executes the appropriate coloring algorithm based on graph type.
      * Each algorithm returns a Map<Integer, Integer> of vertex-to-color assignments.
+     *
+     * @return The coloring result of the selected algorithm
+     * @throws RuntimeException If the algorithm returned no result
      */
-    public static void selectAndExecute(Graph graph, GraphType type) {
+    public static ColoringResult select(Graph graph, GraphType type) {
+        return select(graph, type, null);
+    }
+
+    /**
+     * Selects and executes the appropriate coloring algorithm based on graph type, starting the general engines
+     * from a result found earlier for the same graph.
+     *
+     * @param known Earlier result for the graph, e.g. from the {@link ResultCache}; may be null
+     * @return The coloring result of the selected algorithm
+     * @throws RuntimeException If the algorithm returned no result
+     */
+    public static ColoringResult select(Graph graph, GraphType type, ColoringResult known) {
+        return select(graph, type, known, null, null);
+    }
+
+    /**
+     * Selects and executes the appropriate coloring algorithm based on graph type, for a graph that is part of a
+     * larger one: the general engines stop once they reach the target and share a deadline with the other parts.
+     * The special cases are solved directly and ignore both.
+     *
+     * @param known    Earlier result for the graph, e.g. from the {@link ResultCache}; may be null
+     * @param target   Number of colors that is good enough, e.g. the colors another component needs; may be null
+     * @param deadline Started token whose expiry stops the general engines; may be null
+     * @return The coloring result of the selected algorithm
+     * @throws RuntimeException If the algorithm returned no result
+     */
+    public static ColoringResult select(Graph graph, GraphType type, ColoringResult known, AtomicInteger target,
+                                        TimerCheck deadline) {
+        int knownLowerBound = known != null ? known.getLowerBound() : 0;
+        int[] knownColoring = known != null ? known.toColorArray(graph.getVertexCount()) : null;
         System.out.println("Starting coloring algorithm for graph type: " + type);
-        Map<Integer, Integer> colorMap;
-        int chromaticNumber;
-        String algorithmName;
         ColoringResult result;
 
-        try {
-            // Select algorithm based on graph type
-            switch (type) {
-                case TREE:
-                    result = TreeGraphColouring.colour(graph);
-                    break;
-                case BIPARTITE:
-                    result = BipartiteGraphColouring.colour(graph);
-                    break;
-                case CYCLE:
-                    result = CycleGraphColouring.colour(graph);
-                    break;
-                case COMPLETE:
-                    result = CompleteGraphColouring.colour(graph);
-                    break;
-                case STAR:
-                    result = StarGraphColouring.colour(graph);
-                    break;
-                case WHEEL:
-                    result = WheelGraphSolver.colour(graph);
-                    break;
-                case FOREST:
-                    result = ForestGraphColouring.colour(graph);
-                    break;
-                case CHORDAL:
-                    result = ChordalGraphColouring.colour(graph);
-                    break;
-                case SPLIT:
-                    result = SplitGraphAlgorithm.colour(graph);
-                    if (result == null) {
-                        // If not a split graph, fall back to Phase 1 Algorithm
-                        ObtainChromaticNumber phase1 = new ObtainChromaticNumber();
-                        result = phase1.findColoring(graph);
-                    }
-                    break;
-                case PLANAR:
-                    result = PlanarGraphSolver.colour(graph);
-                    break;
-                default:
-                    // Use Phase 1 Algorithm
-                    ObtainChromaticNumber phase1 = new ObtainChromaticNumber();
+        // Select algorithm based on graph type
+        switch (type) {
+            case TREE:
+                result = TreeGraphColouring.colour(graph);
+                break;
+            case BIPARTITE:
+                result = BipartiteGraphColouring.colour(graph);
+                break;
+            case CYCLE:
+                result = CycleGraphColouring.colour(graph);
+                break;
+            case COMPLETE:
+                result = CompleteGraphColouring.colour(graph);
+                break;
+            case STAR:
+                result = StarGraphColouring.colour(graph);
+                break;
+            case WHEEL:
+                result = WheelGraphSolver.colour(graph);
+                break;
+            case FOREST:
+                result = ForestGraphColouring.colour(graph);
+                break;
+            case CHORDAL:
+                result = ChordalGraphColouring.colour(graph);
+                break;
+            case SPLIT:
+                result = SplitGraphAlgorithm.colour(graph);
+                if (result == null) {
+                    // If not a split graph, fall back to Phase 1 Algorithm
+                    ObtainChromaticNumber phase1 = new ObtainChromaticNumber(ObtainChromaticNumber.ProvingEngine.AUTO,
+                        deadline != null ? deadline.child() : new TimerCheck());
+                    phase1.setWarmStart(knownLowerBound, knownColoring);
+                    phase1.setTarget(target);
                     result = phase1.findColoring(graph);
-                    break;
-            }
+                }
+                break;
+            case PLANAR:
+                result = PlanarGraphSolver.colour(graph);
+                break;
+            default:
+                // No special structure: race the general engines and keep whichever does best
+                PortfolioSolver portfolio = new PortfolioSolver();
+                portfolio.setWarmStart(knownLowerBound, knownColoring);
+                portfolio.setTarget(target);
+                portfolio.setDeadline(deadline);
+                result = portfolio.findColoring(graph);
+                break;
+        }
 
-            if (result == null) {
-                throw new RuntimeException("Failed to color graph - algorithm returned null result");
-            }
+        if (result == null) {
+            throw new RuntimeException("Failed to color graph - algorithm returned null result");
+        }
+        return result;
+    }
 
-            colorMap = result.getColorAssignments();
-            chromaticNumber = result.getChromaticNumber();
-            algorithmName = result.getAlgorithmName();
+    /**
+     * Prints a coloring result and displays it using GraphPainter.
+     */
+    public static void display(Graph graph, ColoringResult result) {
+        Map<Integer, Integer> colorMap = result.getColorAssignments();
+        int chromaticNumber = result.getChromaticNumber();
+        String algorithmName = result.getAlgorithmName();
 
-            // Convert the result to format needed by GraphPainter
-            int[] colorArray = new int[graph.getVertexCount()];
-            for (int i = 0; i < colorArray.length; i++) {
-                colorArray[i] = colorMap.getOrDefault(i + 1, 0);
-            }
+        // Convert the result to format needed by GraphPainter
+        int[] colorArray = new int[graph.getVertexCount()];
+        for (int i = 0; i < colorArray.length; i++) {
+            colorArray[i] = colorMap.getOrDefault(i + 1, 0);
+        }
 
-            System.out.println("Algorithm used: " + algorithmName);
-            System.out.println("Chromatic number: " + chromaticNumber);
-            System.out.println("Number of vertices colored: " + graph.getVertexCount());
+        System.out.println("Algorithm used: " + algorithmName);
+        System.out.println("Chromatic number: " + chromaticNumber);
+        System.out.println("Number of vertices colored: " + graph.getVertexCount());
 
-            // Display the result using GraphPainter
-            GraphPainter.graphPainter(colorArray, chromaticNumber, 
-                "Algorithm(s) used: " + algorithmName);
-        } catch (Exception e) {
-            System.err.println("Error during graph coloring: " + e.getMessage());
-        }
+        // Display the result using GraphPainter
+        GraphPainter.graphPainter(colorArray, chromaticNumber,
+            "Algorithm(s) used: " + algorithmName);
     }
-}
\ No newline at end of file
+}
@@ -6,23 +6,39 @@ import java.util.Map;
  * Common result class for all graph coloring algorithms.
  * Stores the results of a graph coloring operation including color assignments,
  * chromatic number, and the name of the algorithm used.
+ * The chromatic number is the number of colors of the coloring; the lower bound tells whether it is proven optimal.
  */
 public class ColoringResult {
     private final Map<Integer, Integer> colorAssignments;
     private final int chromaticNumber;
     private final String algorithmName;
+    private final int lowerBound;
 
     /**
-     * Constructs a new ColoringResult with the specified parameters.
+     * Constructs a new ColoringResult with the specified parameters and no known lower bound.
      *
      * @param colorAssignments Map of vertex IDs to their assigned colors
      * @param chromaticNumber The chromatic number found for the graph
      * @param algorithmName The name of the algorithm that produced this result
      */
     public ColoringResult(Map<Integer, Integer> colorAssignments, int chromaticNumber, String algorithmName) {
+        this(colorAssignments, chromaticNumber, algorithmName, 0);
+    }
+
+    /**
+     * Constructs a new ColoringResult with the specified parameters.
+     *
+     * @param colorAssignments Map of vertex IDs to their assigned colors
+     * @param chromaticNumber The chromatic number found for the graph
+     * @param algorithmName The name of the algorithm that produced this result
+     * @param lowerBound Proven lower bound on the chromatic number, 0 if none is known
+     */
+    public ColoringResult(Map<Integer, Integer> colorAssignments, int chromaticNumber, String algorithmName,
+                          int lowerBound) {
         this.colorAssignments = colorAssignments;
         this.chromaticNumber = chromaticNumber;
         this.algorithmName = algorithmName;
+        this.lowerBound = lowerBound;
     }
 
     /**
@@ -45,4 +61,30 @@ public class ColoringResult {
     public String getAlgorithmName() {
         return algorithmName;
     }
+
+    /**
+     * @return Proven lower bound on the chromatic number, 0 if none is known
+     */
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * @return True if the lower bound proves the coloring optimal
+     */
+    public boolean isExact() {
+        return lowerBound >= chromaticNumber;
+    }
+
+    /**
+     * @param vertexCount Number of vertices of the colored graph
+     * @return The coloring with 0-based vertices and colors; vertices without an assignment get color 0
+     */
+    public int[] toColorArray(int vertexCount) {
+        int[] coloring = new int[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            coloring[v] = colorAssignments.getOrDefault(v + 1, 1) - 1;
+        }
+        return coloring;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,488 @@
+package org.example.phase3.Algorithms;
+
+import org.example.phase3.Evaluation.CanonicalLabeling;
+import org.example.phase3.Evaluation.Graph;
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Remembers coloring results across runs, so reloading a graph that was solved before returns its result at once and
+ * a graph that was only partly solved starts from the bounds found last time.
+ * Graphs are looked up by a fingerprint that does not depend on the vertex labels, built from the degree sequence and
+ * a Weisfeiler-Lehman color refinement hash. A fingerprint match is confirmed by comparing the edge sets under the
+ * canonical labeling of {@link CanonicalLabeling}, and colorings are stored in canonical vertex order, so a relabeled
+ * copy of a solved graph is recognized and gets the cached coloring mapped onto its own labels.
+ * The most recently used results are kept in memory. Every new or improved result is also appended to a file, which
+ * is indexed when the cache is opened and read from on a miss in memory.
+ */
+public class ResultCache {
+    /**
+     * Number of results kept in memory
+     */
+    private static final int MEMORY_CAPACITY = 32;
+
+    /**
+     * Marks the start of every record in the file. A record is the magic, the payload length, the payload and a
+     * CRC32C of the payload.
+     */
+    private static final int RECORD_MAGIC = 0x52435232;
+
+    /**
+     * Most rounds of color refinement in the fingerprint. Equal fingerprints are confirmed on the canonical edges
+     * anyway, so more rounds would only split buckets further, at a cost of up to n rounds on long paths.
+     */
+    private static final int MAX_REFINEMENT_ROUNDS = 8;
+
+    private static ResultCache defaultCache;
+
+    /**
+     * Append-only result file, null if it could not be opened and the cache only lives in memory
+     */
+    private Path file;
+
+    /**
+     * File offsets of the records of every fingerprint, oldest first
+     */
+    private final Map<Long, List<Long>> index = new HashMap<>();
+
+    /**
+     * Least recently used results, evicted from memory only; the file keeps them
+     */
+    private final LinkedHashMap<Long, Entry> memory = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > MEMORY_CAPACITY;
+        }
+    };
+
+    /**
+     * Key of the graph looked up or stored last, so a solve that looks a graph up and then stores its result pays for
+     * the fingerprint and the canonical labeling once
+     */
+    private Key lastKey;
+
+    /**
+     * @return The cache shared by the application, stored in the user's home directory
+     */
+    public static synchronized ResultCache getDefault() {
+        if (defaultCache == null) {
+            defaultCache = new ResultCache(Paths.get(System.getProperty("user.home"), ".chromatic-number", "results.bin"));
+        }
+        return defaultCache;
+    }
+
+    /**
+     * Opens a cache stored in the given file, creating it if needed. If the file cannot be used the cache still works,
+     * but only in memory.
+     *
+     * @param file Append-only file holding the results
+     */
+    public ResultCache(Path file) {
+        this.file = file;
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            if (Files.exists(file)) {
+                loadIndex();
+            }
+        } catch (IOException e) {
+            System.err.println("Result cache unavailable, keeping results in memory only: " + e.getMessage());
+            this.file = null;
+        }
+    }
+
+    /**
+     * Looks up the best result known for a graph.
+     *
+     * @param graph The graph to look up
+     * @return The cached result, or null if the graph was never solved; exact if {@link ColoringResult#isExact()}
+     */
+    public synchronized ColoringResult lookup(Graph graph) {
+        Key key = key(graph.getAdjacency());
+        Entry entry = find(key.fingerprint, graph.getVertexCount(), key.labeling.edges);
+        return entry == null ? null : entry.toResult(key.labeling.index);
+    }
+
+    /**
+     * Merges a new result for a graph into the cache: the higher lower bound and the coloring with fewer colors are
+     * kept. Only a result that improves on the cached one is written to the file.
+     *
+     * @param graph  The solved graph
+     * @param result Result of the solve
+     * @return The merged result, which is the given one unless the cache already knew a better coloring
+     */
+    public synchronized ColoringResult store(Graph graph, ColoringResult result) {
+        int n = graph.getVertexCount();
+        Key key = key(graph.getAdjacency());
+        Labeling labeling = key.labeling;
+        long[] edges = labeling.edges;
+        long fingerprint = key.fingerprint;
+        Entry known = find(fingerprint, n, edges);
+
+        boolean keepKnown = known != null && known.upperBound <= result.getChromaticNumber();
+        int lowerBound = Math.max(known == null ? 0 : known.lowerBound, result.getLowerBound());
+        Entry merged = keepKnown
+            ? new Entry(fingerprint, n, edges, lowerBound, known.upperBound, known.coloring, known.algorithm)
+            : new Entry(fingerprint, n, edges, lowerBound, result.getChromaticNumber(),
+                labeling.toStoredOrder(result.toColorArray(n)), result.getAlgorithmName());
+        if (known == null || merged.lowerBound > known.lowerBound || merged.upperBound < known.upperBound) {
+            memory.put(fingerprint, merged);
+            append(merged);
+        }
+
+        if (keepKnown && known.upperBound < result.getChromaticNumber()) {
+            return merged.toResult(labeling.index);
+        }
+        return lowerBound == result.getLowerBound() ? result : new ColoringResult(result.getColorAssignments(),
+            result.getChromaticNumber(), result.getAlgorithmName(), lowerBound);
+    }
+
+    /**
+     * Label-invariant fingerprint of a graph, so relabeled copies fall into the same bucket.
+     * It combines the vertex and edge counts, the sorted degree sequence and the multiset of vertex colors after
+     * Weisfeiler-Lehman color refinement. The refinement starts from the degrees and recolors every vertex by its color
+     * and the multiset of its neighbours' colors until the number of color classes stops growing, for at most
+     * {@value #MAX_REFINEMENT_ROUNDS} rounds.
+     *
+     * @param graph The graph's adjacency
+     * @return 64-bit fingerprint
+     */
+    public static long fingerprint(CsrGraph graph) {
+        int n = graph.getOrder();
+        int[] offsets = graph.getOffsets();
+        int[] neighbours = graph.getNeighbours();
+
+        long[] color = new long[n];
+        for (int v = 0; v < n; v++) {
+            color[v] = offsets[v + 1] - offsets[v];
+        }
+        long hash = mix(n * 31L + graph.getEdgeCount());
+        hash = combineSorted(hash, color);
+
+        long[] next = new long[n];
+        int classes = countClasses(color);
+        for (int round = 0; round < Math.min(n, MAX_REFINEMENT_ROUNDS); round++) {
+            for (int v = 0; v < n; v++) {
+                // A sum of mixed colors hashes the neighbours' multiset regardless of their order
+                long sum = 0;
+                for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                    sum += mix(color[neighbours[k]]);
+                }
+                next[v] = mix(color[v] * 0x9E3779B97F4A7C15L + sum);
+            }
+            long[] swap = color;
+            color = next;
+            next = swap;
+            int refined = countClasses(color);
+            if (refined == classes) {
+                break;
+            }
+            classes = refined;
+        }
+        return combineSorted(hash, color);
+    }
+
+    private static long combineSorted(long hash, long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (long value : sorted) {
+            hash = mix(hash * 31 + value);
+        }
+        return hash;
+    }
+
+    private static int countClasses(long[] color) {
+        long[] sorted = color.clone();
+        Arrays.sort(sorted);
+        int classes = sorted.length > 0 ? 1 : 0;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[i - 1]) {
+                classes++;
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * SplitMix64 finalizer, spreading every input bit over the whole result
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return Every edge as (smaller endpoint << 32 | larger endpoint), 0-based, in increasing order
+     */
+    private static long[] edgeKeys(CsrGraph graph) {
+        int[] offsets = graph.getOffsets();
+        int[] neighbours = graph.getNeighbours();
+        long[] edges = new long[graph.getEdgeCount()];
+        int count = 0;
+        for (int v = 0; v < graph.getOrder(); v++) {
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                if (v < neighbours[k]) {
+                    edges[count++] = (long) v << 32 | neighbours[k];
+                }
+            }
+        }
+        Arrays.sort(edges, 0, count);
+        return count == edges.length ? edges : Arrays.copyOf(edges, count);
+    }
+
+    /**
+     * @return The key of the graph, reused if the graph is the one of the previous call
+     */
+    private Key key(CsrGraph graph) {
+        if (lastKey == null || lastKey.graph != graph) {
+            lastKey = new Key(graph, fingerprint(graph), new Labeling(graph));
+        }
+        return lastKey;
+    }
+
+    /**
+     * Fingerprint and stored order of a graph
+     */
+    private static class Key {
+        private final CsrGraph graph;
+        private final long fingerprint;
+        private final Labeling labeling;
+
+        Key(CsrGraph graph, long fingerprint, Labeling labeling) {
+            this.graph = graph;
+            this.fingerprint = fingerprint;
+            this.labeling = labeling;
+        }
+    }
+
+    /**
+     * Vertex order a graph is stored in: the canonical labeling, or the graph's own labels if the canonical search
+     * ran out of budget. Records written with either order stay valid, since equal edge lists under any two orders
+     * mean the orders map one graph isomorphically onto the other.
+     */
+    private static class Labeling {
+        /**
+         * index[v] = position of vertex v in the stored order, 0-based
+         */
+        private final int[] index;
+        private final long[] edges;
+
+        Labeling(CsrGraph graph) {
+            CanonicalLabeling canonical = CanonicalLabeling.of(graph);
+            if (canonical != null) {
+                index = canonical.getLabeling();
+                edges = canonical.getCanonicalEdges();
+            } else {
+                index = new int[graph.getOrder()];
+                for (int v = 0; v < index.length; v++) {
+                    index[v] = v;
+                }
+                edges = edgeKeys(graph);
+            }
+        }
+
+        int[] toStoredOrder(int[] coloring) {
+            int[] stored = new int[coloring.length];
+            for (int v = 0; v < coloring.length; v++) {
+                stored[index[v]] = coloring[v];
+            }
+            return stored;
+        }
+    }
+
+    /**
+     * Finds the cached entry of a graph in memory or, failing that, in the file. Newer records of a graph are never
+     * worse than older ones, so the newest matching record is used.
+     */
+    private Entry find(long fingerprint, int n, long[] edges) {
+        Entry entry = memory.get(fingerprint);
+        if (entry != null && entry.sameGraph(n, edges)) {
+            return entry;
+        }
+        List<Long> offsets = index.get(fingerprint);
+        if (offsets == null || file == null) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = offsets.size() - 1; i >= 0; i--) {
+                Entry record = readRecord(channel, offsets.get(i));
+                if (record.sameGraph(n, edges)) {
+                    memory.put(fingerprint, record);
+                    return record;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read the result cache: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Reads the fingerprint of every record into the index. The first record that is cut short, e.g. by a crash while
+     * appending, or damaged, so that its magic or checksum is wrong, is cut off the file with everything after it, so
+     * that new records follow the last intact one.
+     */
+    private void loadIndex() throws IOException {
+        long position = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long size = Files.size(file);
+            while (position + 20 <= size) {
+                if (in.readInt() != RECORD_MAGIC) {
+                    break;
+                }
+                int length = in.readInt();
+                if (length < 8 || position + 12 + length > size) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                if (in.readInt() != checksum(payload)) {
+                    break;
+                }
+                long fingerprint = ByteBuffer.wrap(payload).getLong();
+                index.computeIfAbsent(fingerprint, key -> new ArrayList<>()).add(position);
+                position += 12 + length;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            if (channel.size() > position) {
+                System.err.println("Result cache: discarding " + (channel.size() - position) + " damaged bytes");
+                channel.truncate(position);
+            }
+        }
+    }
+
+    private static Entry readRecord(FileChannel channel, long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(8);
+        readFully(channel, header, position);
+        header.flip();
+        if (header.getInt() != RECORD_MAGIC) {
+            throw new IOException("Corrupt record at offset " + position);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(header.getInt() + 4);
+        readFully(channel, payload, position + 8);
+        if (payload.getInt(payload.capacity() - 4) != checksum(Arrays.copyOf(payload.array(), payload.capacity() - 4))) {
+            throw new IOException("Checksum mismatch in record at offset " + position);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array(), 0, payload.capacity() - 4));
+        long fingerprint = in.readLong();
+        int n = in.readInt();
+        long[] edges = new long[in.readInt()];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = in.readLong();
+        }
+        int lowerBound = in.readInt();
+        int upperBound = in.readInt();
+        int[] coloring = new int[n];
+        for (int v = 0; v < n; v++) {
+            coloring[v] = in.readInt();
+        }
+        return new Entry(fingerprint, n, edges, lowerBound, upperBound, coloring, in.readUTF());
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Record cut short at offset " + position);
+            }
+        }
+    }
+
+    /**
+     * Appends a record to the file and indexes it. Records are never rewritten, so a crash can at most lose the
+     * record being written.
+     */
+    private void append(Entry entry) {
+        if (file == null) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(entry.fingerprint);
+            out.writeInt(entry.vertexCount);
+            out.writeInt(entry.edges.length);
+            for (long edge : entry.edges) {
+                out.writeLong(edge);
+            }
+            out.writeInt(entry.lowerBound);
+            out.writeInt(entry.upperBound);
+            for (int color : entry.coloring) {
+                out.writeInt(color);
+            }
+            out.writeUTF(entry.algorithm.length() > 1000 ? entry.algorithm.substring(0, 1000) : entry.algorithm);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        byte[] payload = bytes.toByteArray();
+        ByteBuffer record = ByteBuffer.allocate(12 + payload.length);
+        record.putInt(RECORD_MAGIC).putInt(payload.length).put(payload).putInt(checksum(payload)).flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            long position = channel.size();
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            index.computeIfAbsent(entry.fingerprint, key -> new ArrayList<>()).add(position);
+        } catch (IOException e) {
+            System.err.println("Could not write the result cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Best known result of one graph
+     */
+    private static class Entry {
+        private final long fingerprint;
+        private final int vertexCount;
+        private final long[] edges;
+        private final int lowerBound;
+        private final int upperBound;
+        /**
+         * 0-based color of every vertex, in stored order
+         */
+        private final int[] coloring;
+        private final String algorithm;
+
+        Entry(long fingerprint, int vertexCount, long[] edges, int lowerBound, int upperBound, int[] coloring,
+              String algorithm) {
+            this.fingerprint = fingerprint;
+            this.vertexCount = vertexCount;
+            this.edges = edges;
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.coloring = coloring;
+            this.algorithm = algorithm;
+        }
+
+        boolean sameGraph(int n, long[] otherEdges) {
+            return vertexCount == n && Arrays.equals(edges, otherEdges);
+        }
+
+        /**
+         * @param index Stored position of every vertex of the graph that was looked up
+         */
+        ColoringResult toResult(int[] index) {
+            Map<Integer, Integer> colorMap = new HashMap<>();
+            for (int i = 0; i < coloring.length; i++) {
+                colorMap.put(i + 1, coloring[index[i]] + 1);  // Convert back to 1-based indexing
+            }
+            String info = lowerBound >= upperBound
+                ? String.format("Result cache, %s", algorithm)
+                : String.format("Result cache (LB: %d, UB: %d), %s", lowerBound, upperBound, algorithm);
+            return new ColoringResult(colorMap, upperBound, info, lowerBound);
+        }
+    }
+}
@@ -0,0 +1,724 @@
+package org.example.phase3.Evaluation;
+
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import java.util.*;
+
+/**
+ * Canonical labeling of a graph by individualization-refinement, in the style of nauty and bliss.
+ * Isomorphic graphs, such as the relabeled copies made by the edge scrambler, get identical canonical edge lists,
+ * so comparing those decides isomorphism.
+ * <p>
+ * The vertices are kept in an ordered partition that is refined until it is equitable: every vertex of a cell has
+ * the same number of neighbours in every other cell. While the partition is not discrete, a search tree individualizes
+ * each vertex of a target cell in turn and refines again. Every leaf orders all vertices and so labels the graph;
+ * the canonical labeling is the leaf with the smallest refinement trace, ties broken by the relabeled edge list.
+ * Two leaves that relabel the graph identically differ by an automorphism, which is recorded as a generator, and
+ * the search returns to the node where their paths split, as the rest of that subtree is an image of one already
+ * searched. Subtrees are also pruned when their trace is already worse than the best leaf, or when an automorphism
+ * fixing the path so far maps them onto a subtree that was already searched.
+ * <p>
+ * Twins, vertices with the same neighbours apart from each other, are swapped by an automorphism that the search
+ * would only find one full path at a time, so their transpositions are added as generators before the search.
+ * <p>
+ * The search walks the tree with an explicit stack over a single partition, undoing the changes of a child from a
+ * trail instead of copying the partition per level, so a path as deep as the graph is large costs neither a Java
+ * stack frame nor a copy of the partition per vertex on it.
+ * <p>
+ * Known limit: disjoint unions of many identical components are not labeled. Nothing splits the components apart
+ * but the search, and only automorphisms within a component or twins are known up front, so the swaps of whole
+ * components are found one leaf at a time and the tree outgrows {@link #NODE_BUDGET}: {@link #of(CsrGraph)} returns
+ * null for 100 copies of C5 or 50 copies of the Petersen graph, while 20 copies of either are labeled.
+ */
+public class CanonicalLabeling {
+    /**
+     * Search tree nodes after which the search gives up; highly regular graphs can need very large trees
+     */
+    private static final int NODE_BUDGET = 20000;
+
+    /**
+     * Trail entries of the current path after which the search gives up, bounding its memory on deep paths
+     */
+    private static final int TRAIL_BUDGET = 1 << 24;
+
+    private final CsrGraph graph;
+    private final int n;
+    private final int[] offsets;
+    private final int[] neighbours;
+
+    /**
+     * Generators in sparse form: the vertices each one moves, and their images, so orbits cost the size of the
+     * supports instead of n per generator
+     */
+    private final List<int[]> supports = new ArrayList<>();
+    private final List<int[]> images = new ArrayList<>();
+
+    /**
+     * Smallest vertex with the same open, respectively closed, neighbourhood as each vertex. Any two twins are swapped
+     * by an automorphism that moves nothing else, so twins off the path are equivalent without computing orbits.
+     */
+    private final int[] openTwin;
+    private final int[] closedTwin;
+    private long[] bestTrace;
+    private long[] bestEdges;
+    private int[] bestLabeling;
+    private int[] bestPath;
+    private long[] firstEdges;
+    private int[] firstLabeling;
+    private int[] firstPath;
+    private int nodes;
+
+    /**
+     * Depth the search returns to after finding an automorphism, -1 if none
+     */
+    private int jumpTo = -1;
+
+    /**
+     * Stabilizer orbits of the node they were last computed for, and the number of generators they include
+     */
+    private int[] orbit;
+    private int orbitNode = -1;
+    private int orbitGenerators;
+
+    // Refinement scratch space
+    private final int[] count;
+    private final int[] touched;
+    private final boolean[] cellMarked;
+    private final int[] markedCells;
+    private final long[] sortKeys;
+    private final int[] touchedStart;
+    private final boolean[] queued;
+
+    private CanonicalLabeling(CsrGraph graph) {
+        this.graph = graph;
+        this.n = graph.getOrder();
+        this.offsets = graph.getOffsets();
+        this.neighbours = graph.getNeighbours();
+        this.count = new int[n];
+        this.touched = new int[n];
+        this.cellMarked = new boolean[n];
+        this.markedCells = new int[n];
+        this.sortKeys = new long[n];
+        this.touchedStart = new int[n];
+        this.openTwin = new int[n];
+        this.closedTwin = new int[n];
+        this.queued = new boolean[n];
+    }
+
+    /**
+     * Computes the canonical labeling of a graph.
+     *
+     * @param graph The graph's adjacency
+     * @return The canonical labeling, or null if the search exceeded its budget or ran out of memory
+     */
+    public static CanonicalLabeling of(CsrGraph graph) {
+        try {
+            CanonicalLabeling labeling = new CanonicalLabeling(graph);
+            labeling.addTwinTranspositions(graph.getOffsets(), graph.getNeighbours(), false);
+            labeling.addTwinTranspositions(graph.getOffsets(), graph.getNeighbours(), true);
+            Partition root = new Partition(labeling.n);
+            long trace = labeling.refine(root, root.allCells());
+            root.clearTrail();
+            return labeling.search(root, trace) ? labeling : null;
+        } catch (OutOfMemoryError e) {
+            // The labeling is an optimization for its callers, which all work without it
+            return null;
+        }
+    }
+
+    /**
+     * @return labeling[v] = canonical index of vertex v, both 0-based
+     */
+    public int[] getLabeling() {
+        return bestLabeling.clone();
+    }
+
+    /**
+     * @return Every edge of the canonically relabeled graph as (smaller index << 32 | larger index), in increasing order
+     */
+    public long[] getCanonicalEdges() {
+        return bestEdges.clone();
+    }
+
+    /**
+     * @return Automorphisms found by the search, each mapping vertex v to gamma[v]; they generate a subgroup of the
+     * automorphism group, usually all of it. The arrays of n entries are built on every access, so callers should
+     * copy the few they use.
+     */
+    public List<int[]> getGenerators() {
+        return new AbstractList<>() {
+            @Override
+            public int[] get(int g) {
+                int[] gamma = new int[n];
+                for (int v = 0; v < n; v++) {
+                    gamma[v] = v;
+                }
+                int[] support = supports.get(g);
+                int[] image = images.get(g);
+                for (int i = 0; i < support.length; i++) {
+                    gamma[support[i]] = image[i];
+                }
+                return gamma;
+            }
+
+            @Override
+            public int size() {
+                return supports.size();
+            }
+        };
+    }
+
+    /**
+     * Searches the tree depth first. The node at depth d is the root partition with path[0..d-1] individualized, and
+     * frame d holds the target cell of that node and the next position of it to individualize.
+     *
+     * @param partition Equitable partition of the root, changed along the search and restored when it returns
+     * @param rootTrace Refinement trace of the root
+     * @return False if a budget ran out
+     */
+    private boolean search(Partition partition, long rootTrace) {
+        long[] trace = new long[n + 1];
+        int[] path = new int[n];
+        int[] frameNode = new int[n + 1];
+        int[] frameEnd = new int[n + 1];
+        int[] framePosition = new int[n + 1];
+        int[] frameExplored = new int[n + 1];
+        int[] frameTrail = new int[n + 1];
+        // Children explored so far by every frame on the stack, in stack order
+        int[] explored = new int[n];
+        int exploredCount = 0;
+
+        trace[0] = rootTrace;
+        int depth = 0;
+        boolean entering = true;
+        while (true) {
+            if (entering) {
+                entering = false;
+                if (++nodes > NODE_BUDGET || partition.trailSize > TRAIL_BUDGET) {
+                    return false;
+                }
+                frameExplored[depth] = exploredCount;
+                frameNode[depth] = nodes;
+                framePosition[depth] = -1;
+                // Below a trace already worse than the best leaf every leaf is worse, so the node has no children then
+                if (bestTrace == null || compare(trace, depth + 1, bestTrace) <= 0) {
+                    int target = partition.targetCell();
+                    if (target == -1) {
+                        leaf(partition, Arrays.copyOf(trace, depth + 1), Arrays.copyOf(path, depth));
+                    } else {
+                        framePosition[depth] = target;
+                        frameEnd[depth] = partition.cellEnd[target];
+                    }
+                }
+            }
+
+            // Individualize the next vertex of the target cell that no automorphism fixing the path maps onto an
+            // explored child
+            int child = -1;
+            while (child == -1 && framePosition[depth] != -1 && framePosition[depth] < frameEnd[depth]) {
+                int v = partition.order[framePosition[depth]++];
+                boolean equivalent = false;
+                for (int i = frameExplored[depth]; i < exploredCount && !equivalent; i++) {
+                    equivalent = openTwin[explored[i]] == openTwin[v] || closedTwin[explored[i]] == closedTwin[v];
+                }
+                if (!equivalent && exploredCount > frameExplored[depth]) {
+                    int[] orbits = stabilizerOrbits(path, depth, frameNode[depth]);
+                    for (int i = frameExplored[depth]; i < exploredCount && !equivalent; i++) {
+                        equivalent = orbits[explored[i]] == orbits[v];
+                    }
+                }
+                if (!equivalent) {
+                    child = v;
+                }
+            }
+            if (child != -1) {
+                explored[exploredCount++] = child;
+                frameTrail[depth] = partition.trailSize;
+                int singleton = partition.individualize(child);
+                trace[depth + 1] = refine(partition, new int[]{singleton}) * 31 + singleton;
+                path[depth] = child;
+                depth++;
+                entering = true;
+                continue;
+            }
+
+            // The subtree of the node is done: return to its parent, and further up after an automorphism
+            exploredCount = frameExplored[depth];
+            if (depth == 0) {
+                return true;
+            }
+            depth--;
+            partition.undo(frameTrail[depth]);
+            if (jumpTo != -1) {
+                if (jumpTo < depth) {
+                    framePosition[depth] = -1;
+                } else {
+                    jumpTo = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares the labeling of a discrete partition with the first and the best leaf.
+     */
+    private void leaf(Partition partition, long[] trace, int[] path) {
+        int[] labeling = partition.position.clone();
+        long[] edges = relabeledEdges(labeling);
+        if (firstLabeling == null) {
+            firstEdges = edges;
+            firstLabeling = labeling;
+            firstPath = path;
+        } else if (Arrays.equals(edges, firstEdges)) {
+            addAutomorphism(firstLabeling, labeling);
+            jumpTo = Arrays.mismatch(path, firstPath);
+            return;
+        }
+        if (bestLabeling == null) {
+            bestTrace = trace;
+            bestEdges = edges;
+            bestLabeling = labeling;
+            bestPath = path;
+            return;
+        }
+        int cmp = compare(trace, bestTrace, Math.max(trace.length, bestTrace.length));
+        if (cmp == 0) {
+            cmp = Arrays.compare(edges, bestEdges);
+        }
+        if (cmp == 0) {
+            addAutomorphism(bestLabeling, labeling);
+            jumpTo = Arrays.mismatch(path, bestPath);
+        } else if (cmp < 0) {
+            bestTrace = trace;
+            bestEdges = edges;
+            bestLabeling = labeling;
+            bestPath = path;
+        }
+    }
+
+    /**
+     * Records the automorphism mapping v to the vertex that the first labeling puts where the second one puts v.
+     */
+    private void addAutomorphism(int[] first, int[] second) {
+        int[] inverse = new int[n];
+        for (int v = 0; v < n; v++) {
+            inverse[first[v]] = v;
+        }
+        int[] gamma = new int[n];
+        for (int v = 0; v < n; v++) {
+            gamma[v] = inverse[second[v]];
+        }
+        addGenerator(gamma);
+    }
+
+    private void addGenerator(int[] gamma) {
+        int moved = 0;
+        for (int v = 0; v < n; v++) {
+            if (gamma[v] != v) {
+                moved++;
+            }
+        }
+        if (moved == 0) {
+            return;
+        }
+        int[] support = new int[moved];
+        int[] image = new int[moved];
+        for (int v = 0, i = 0; v < n; v++) {
+            if (gamma[v] != v) {
+                support[i] = v;
+                image[i++] = gamma[v];
+            }
+        }
+        supports.add(support);
+        images.add(image);
+    }
+
+    /**
+     * Adds a transposition for every pair of consecutive twins and records the classes of twins.
+     *
+     * @param adjacent True for twins that are adjacent, with equal closed neighbourhoods;
+     *                 false for twins with equal open neighbourhoods
+     */
+    private void addTwinTranspositions(int[] offsets, int[] neighbours, boolean adjacent) {
+        int[][] rows = new int[n][];
+        for (int v = 0; v < n; v++) {
+            int[] row = Arrays.copyOfRange(neighbours, offsets[v], offsets[v + 1] + (adjacent ? 1 : 0));
+            if (adjacent) {
+                row[row.length - 1] = v;
+                Arrays.sort(row);
+            }
+            rows[v] = row;
+        }
+        Integer[] byRow = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            byRow[v] = v;
+        }
+        Arrays.sort(byRow, (a, b) -> Arrays.compare(rows[a], rows[b]));
+        int[] twin = adjacent ? closedTwin : openTwin;
+        for (int i = 0; i < n; i++) {
+            twin[byRow[i]] = byRow[i];
+            if (i > 0 && Arrays.equals(rows[byRow[i - 1]], rows[byRow[i]])) {
+                int a = byRow[i - 1];
+                int b = byRow[i];
+                twin[b] = twin[a];
+                supports.add(new int[]{a, b});
+                images.add(new int[]{b, a});
+            }
+        }
+    }
+
+    /**
+     * @param node Number of the search node the path leads to; the orbits are kept until another node asks
+     * @return Orbits of the generators that fix every vertex of path[0..depth-1]
+     */
+    private int[] stabilizerOrbits(int[] path, int depth, int node) {
+        if (node == orbitNode && supports.size() == orbitGenerators) {
+            return orbit;
+        }
+        boolean[] onPath = new boolean[n];
+        for (int i = 0; i < depth; i++) {
+            onPath[path[i]] = true;
+        }
+        List<Integer> stabilizer = new ArrayList<>();
+        for (int g = 0; g < supports.size(); g++) {
+            boolean fixes = true;
+            for (int v : supports.get(g)) {
+                fixes &= !onPath[v];
+            }
+            if (fixes) {
+                stabilizer.add(g);
+            }
+        }
+        orbit = orbits(stabilizer);
+        orbitNode = node;
+        orbitGenerators = supports.size();
+        return orbit;
+    }
+
+    /**
+     * @param group Indices of the generators to take the orbits of
+     */
+    private int[] orbits(List<Integer> group) {
+        int[] parent = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+        }
+        for (int g : group) {
+            int[] support = supports.get(g);
+            int[] image = images.get(g);
+            for (int i = 0; i < support.length; i++) {
+                int a = find(parent, support[i]);
+                int b = find(parent, image[i]);
+                if (a != b) {
+                    parent[Math.max(a, b)] = Math.min(a, b);
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            parent[v] = find(parent, v);
+        }
+        return parent;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    private long[] relabeledEdges(int[] labeling) {
+        long[] edges = new long[graph.getEdgeCount()];
+        int e = 0;
+        for (int v = 0; v < n; v++) {
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int u = neighbours[k];
+                if (v < u) {
+                    int a = Math.min(labeling[v], labeling[u]);
+                    int b = Math.max(labeling[v], labeling[u]);
+                    edges[e++] = (long) a << 32 | b;
+                }
+            }
+        }
+        Arrays.sort(edges, 0, e);
+        return e == edges.length ? edges : Arrays.copyOf(edges, e);
+    }
+
+    /**
+     * Compares the first length entries of a with the same entries of b; a running past the end of b is larger.
+     */
+    private static int compare(long[] a, int length, long[] b) {
+        for (int i = 0; i < length; i++) {
+            if (i >= b.length) {
+                return 1;
+            }
+            if (a[i] != b[i]) {
+                return Long.compare(a[i], b[i]);
+            }
+        }
+        return 0;
+    }
+
+    private static int compare(long[] a, long[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (i >= a.length || i >= b.length) {
+                return Integer.compare(a.length, b.length);
+            }
+            if (a[i] != b[i]) {
+                return Long.compare(a[i], b[i]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Refines a partition until it is equitable, splitting cells by their number of neighbours in each splitter cell.
+     * Splitters are processed first in, first out; a split cell that is not queued queues all its fragments but the
+     * largest. Only the vertices with a neighbour in the splitter are moved, so a split costs the number of those
+     * rather than the size of the cell. Everything the trace depends on is read from cell positions and counts, never
+     * from vertex numbers, so isomorphic inputs give identical traces.
+     *
+     * @param splitters Start positions of the cells to split with first
+     * @return Hash of the refinement
+     */
+    private long refine(Partition partition, int[] splitters) {
+        int[] order = partition.order;
+        int[] cellStart = partition.cellStart;
+        int[] cellEnd = partition.cellEnd;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int s : splitters) {
+            queue.add(s);
+            queued[s] = true;
+        }
+
+        long trace = 17;
+        while (!queue.isEmpty()) {
+            int splitter = queue.poll();
+            queued[splitter] = false;
+
+            // Count the neighbours of every vertex in the splitter cell
+            int touchedCount = 0;
+            for (int p = splitter; p < cellEnd[splitter]; p++) {
+                int x = order[p];
+                for (int k = offsets[x]; k < offsets[x + 1]; k++) {
+                    int u = neighbours[k];
+                    if (count[u]++ == 0) {
+                        touched[touchedCount++] = u;
+                    }
+                }
+            }
+
+            // Move the touched vertices of every cell to its end, so only they are sorted and moved; the untouched
+            // ones, with count 0, stay in place as the first fragment
+            int cellCount = 0;
+            for (int i = 0; i < touchedCount; i++) {
+                int u = touched[i];
+                int c = cellStart[partition.position[u]];
+                if (!cellMarked[c]) {
+                    cellMarked[c] = true;
+                    markedCells[cellCount++] = c;
+                    touchedStart[c] = cellEnd[c];
+                }
+                int p = --touchedStart[c];
+                int w = order[p];
+                partition.place(partition.position[u], w);
+                partition.place(p, u);
+            }
+            Arrays.sort(markedCells, 0, cellCount);
+            trace = mix(trace * 31 + splitter);
+
+            for (int i = 0; i < cellCount; i++) {
+                int c = markedCells[i];
+                cellMarked[c] = false;
+                int start = touchedStart[c];
+                int end = cellEnd[c];
+                for (int p = start; p < end; p++) {
+                    sortKeys[p - start] = (long) count[order[p]] << 32 | order[p];
+                }
+                Arrays.sort(sortKeys, 0, end - start);
+                if (start == c && (sortKeys[0] >>> 32) == (sortKeys[end - c - 1] >>> 32)) {
+                    trace = mix(trace * 31 + c) + (sortKeys[0] >>> 32);
+                    continue;
+                }
+
+                // Split into fragments of equal count, in increasing count order
+                int largest = c;
+                int largestSize = 0;
+                int fragmentStart = c;
+                if (start > c) {
+                    cellEnd[c] = start;
+                    trace = mix(trace * 31 + c);
+                    largestSize = start - c;
+                    fragmentStart = start;
+                }
+                for (int p = start; p < end; p++) {
+                    partition.place(p, (int) sortKeys[p - start]);
+                    if (p + 1 == end || (sortKeys[p + 1 - start] >>> 32) != (sortKeys[p - start] >>> 32)) {
+                        if (fragmentStart != c) {
+                            partition.split(fragmentStart, p + 1);
+                        } else {
+                            cellEnd[c] = p + 1;
+                        }
+                        trace = mix(trace * 31 + fragmentStart) + (sortKeys[p - start] >>> 32);
+                        if (p + 1 - fragmentStart > largestSize) {
+                            largestSize = p + 1 - fragmentStart;
+                            largest = fragmentStart;
+                        }
+                        fragmentStart = p + 1;
+                    }
+                }
+
+                boolean wasQueued = queued[c];
+                for (int f = c; f < end; f = cellEnd[f]) {
+                    if ((wasQueued || f != largest) && !queued[f]) {
+                        queue.add(f);
+                        queued[f] = true;
+                    }
+                }
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                count[touched[i]] = 0;
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * SplitMix64 finalizer
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Ordered partition of the vertices: cells are ranges of the order array, identified by their start position.
+     * Every change to the order and every new cell is logged on a trail, so the partition of a search node is
+     * restored by undoing the trail back to the length it had there.
+     */
+    private static class Partition {
+        final int[] order;
+        final int[] position;
+        final int[] cellStart;
+        final int[] cellEnd;
+        int cells;
+
+        /**
+         * Pairs (position, previous vertex) for a write to the order and (~start, 0) for a new cell
+         */
+        private int[] trail = new int[64];
+        int trailSize;
+
+        Partition(int n) {
+            order = new int[n];
+            position = new int[n];
+            cellStart = new int[n];
+            cellEnd = new int[n];
+            for (int v = 0; v < n; v++) {
+                order[v] = v;
+                position[v] = v;
+            }
+            if (n > 0) {
+                cellEnd[0] = n;
+                cells = 1;
+            }
+        }
+
+        int[] allCells() {
+            return cells == 0 ? new int[0] : new int[]{0};
+        }
+
+        /**
+         * @return Start of the first smallest cell with more than one vertex, or -1 if the partition is discrete
+         */
+        int targetCell() {
+            int best = -1;
+            for (int c = 0; c < order.length; c = cellEnd[c]) {
+                int size = cellEnd[c] - c;
+                if (size > 1 && (best == -1 || size < cellEnd[best] - best)) {
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Moves a vertex to the front of its cell as a cell of its own.
+         *
+         * @return Start of the new singleton cell
+         */
+        int individualize(int v) {
+            int c = cellStart[position[v]];
+            int end = cellEnd[c];
+            int first = order[c];
+            place(position[v], first);
+            place(c, v);
+            cellEnd[c] = c + 1;
+            split(c + 1, end);
+            return c;
+        }
+
+        /**
+         * Puts a vertex at a position; the vertex that was there must be placed elsewhere too.
+         */
+        void place(int p, int v) {
+            if (order[p] != v) {
+                log(p, order[p]);
+                order[p] = v;
+            }
+            position[v] = p;
+        }
+
+        /**
+         * Makes the positions start..end-1 a cell of their own, cut off the end of the cell they were in.
+         */
+        void split(int start, int end) {
+            for (int p = start; p < end; p++) {
+                cellStart[p] = start;
+            }
+            cellEnd[start] = end;
+            cells++;
+            log(~start, 0);
+        }
+
+        /**
+         * Undoes the changes logged after the trail had the given length.
+         */
+        void undo(int length) {
+            while (trailSize > length) {
+                trailSize -= 2;
+                int at = trail[trailSize];
+                if (at >= 0) {
+                    int v = trail[trailSize + 1];
+                    order[at] = v;
+                    position[v] = at;
+                } else {
+                    int start = ~at;
+                    int end = cellEnd[start];
+                    int merged = cellStart[start - 1];
+                    for (int p = start; p < end; p++) {
+                        cellStart[p] = merged;
+                    }
+                    cellEnd[merged] = end;
+                    cells--;
+                }
+            }
+        }
+
+        /**
+         * Forgets the changes logged so far; they are never undone.
+         */
+        void clearTrail() {
+            trailSize = 0;
+        }
+
+        private void log(int at, int value) {
+            if (trailSize + 2 > trail.length) {
+                trail = Arrays.copyOf(trail, 2 * trail.length);
+            }
+            trail[trailSize++] = at;
+            trail[trailSize++] = value;
+        }
+    }
+}
@@ -1,21 +1,37 @@
 package org.example.phase3.Evaluation;
 
 import org.example.phase3.Generation.ColEdge;
+import org.example.phase3.phase1algo.structures.CsrGraph;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * A simple Graph class that:
  *  - Stores a list of edges.
  *  - Computes 'vertexCount' by finding the maximum-labeled vertex.
+ *  - Builds the CSR adjacency once, which every tester and coloring algorithm reads instead of rebuilding its own.
  */
 public class Graph {
     private List<ColEdge> edges;
     private int vertexCount;  // The highest-labeled vertex in the edge list
+    private final CsrGraph adjacency;  // Vertex label u is stored as CSR vertex u - 1
 
     public Graph(List<ColEdge> edges) {
         this.edges = edges;
         this.vertexCount = findMaxVertex(edges);
+        this.adjacency = buildAdjacency(edges, vertexCount);
+    }
+
+    /**
+     * Wraps an adjacency that is already built, e.g. loaded from a binary graph file. The edge list is only
+     * built if it is asked for.
+     *
+     * @param adjacency CSR adjacency; vertex label u is CSR vertex u - 1
+     */
+    public Graph(CsrGraph adjacency) {
+        this.vertexCount = adjacency.getOrder();
+        this.adjacency = adjacency;
     }
 
     private int findMaxVertex(List<ColEdge> edgeList) {
@@ -27,7 +43,24 @@ public class Graph {
         return max;
     }
 
+    private static CsrGraph buildAdjacency(List<ColEdge> edgeList, int vertexCount) {
+        int[] pairs = new int[edgeList.size() * 2];
+        int idx = 0;
+        for (ColEdge e : edgeList) {
+            pairs[idx++] = e.u - 1;  // Convert to 0-based indexing
+            pairs[idx++] = e.v - 1;
+        }
+        return CsrGraph.fromEdgeList(vertexCount, pairs);
+    }
+
     public List<ColEdge> getEdges() {
+        if (edges == null) {
+            int[] pairs = adjacency.toEdgeList();
+            edges = new ArrayList<>(pairs.length / 2);
+            for (int i = 0; i < pairs.length; i += 2) {
+                edges.add(new ColEdge(pairs[i] + 1, pairs[i + 1] + 1));  // Convert back to 1-based labels
+            }
+        }
         return edges;
     }
 
@@ -35,5 +68,10 @@ public class Graph {
         return vertexCount;
     }
 
-    
-}
\ No newline at end of file
+    /**
+     * @return The sorted, deduplicated CSR adjacency of the graph, with vertex label u at index u - 1.
+     */
+    public CsrGraph getAdjacency() {
+        return adjacency;
+    }
+}
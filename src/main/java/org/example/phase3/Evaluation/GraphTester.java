@@ -1,6 +1,6 @@
 package org.example.phase3.Evaluation;
 
-import org.example.phase3.Generation.ColEdge;
+import org.example.phase3.phase1algo.structures.CsrGraph;
 
 import java.util.*;
 
@@ -8,7 +8,7 @@ public class GraphTester {
 
     public static String classifyGraph(Graph graph) {
         int V = graph.getVertexCount();
-        int E = graph.getEdges().size();
+        int E = graph.getAdjacency().getEdgeCount();
 
         // 1. Check connectivity
         if (!isConnected(graph)) {
@@ -71,73 +71,70 @@ public class GraphTester {
 
     public static boolean isConnected(Graph graph) {
         int V = graph.getVertexCount();
-        List<ColEdge> edges = graph.getEdges();
         if (V <= 1) return true;
-        if (edges.isEmpty()) return false;
+        if (graph.getAdjacency().getEdgeCount() == 0) return false;
 
-        List<List<Integer>> adj = buildAdjList(graph);
-        boolean[] visited = new boolean[V + 1];
-        dfs(1, adj, visited);
-
-        for (int i = 1; i <= V; i++) {
-            if (!visited[i]) return false;
-        }
-        return true;
+        return countComponents(graph.getAdjacency()) == 1;
     }
 
-    private static void dfs(int node, List<List<Integer>> adj, boolean[] visited) {
-        visited[node] = true;
-        for (int neighbor : adj.get(node)) {
-            if (!visited[neighbor]) {
-                dfs(neighbor, adj, visited);
+    /**
+     * Counts connected components with an iterative breadth-first search over the CSR adjacency.
+     */
+    private static int countComponents(CsrGraph adj) {
+        int n = adj.getOrder();
+        int[] offsets = adj.getOffsets();
+        int[] neighbours = adj.getNeighbours();
+        boolean[] visited = new boolean[n];
+        int[] queue = new int[n];
+        int components = 0;
+
+        for (int start = 0; start < n; start++) {
+            if (visited[start]) continue;
+            components++;
+            int head = 0, tail = 0;
+            queue[tail++] = start;
+            visited[start] = true;
+            while (head < tail) {
+                int node = queue[head++];
+                for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                    if (!visited[neighbours[i]]) {
+                        visited[neighbours[i]] = true;
+                        queue[tail++] = neighbours[i];
+                    }
+                }
             }
         }
+        return components;
     }
 
     public static boolean hasNoCycles(Graph graph) {
-        int V = graph.getVertexCount();
-        List<List<Integer>> adj = buildAdjList(graph);
-        boolean[] visited = new boolean[V + 1];
-        for (int v = 1; v <= V; v++) {
-            if (!visited[v] && dfsCycleDetect(v, -1, adj, visited)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private static boolean dfsCycleDetect(int curr, int parent, List<List<Integer>> adj, boolean[] visited) {
-        visited[curr] = true;
-        for (int neighbor : adj.get(curr)) {
-            if (!visited[neighbor]) {
-                if (dfsCycleDetect(neighbor, curr, adj, visited)) {
-                    return true;
-                }
-            } else if (neighbor != parent) {
-                return true;
-            }
-        }
-        return false;
+        // A simple graph is acyclic exactly when every component is a tree, i.e. E = V - components
+        CsrGraph adj = graph.getAdjacency();
+        return adj.getEdgeCount() == adj.getOrder() - countComponents(adj);
     }
 
     public static boolean isBipartite(Graph graph) {
-        int V = graph.getVertexCount();
-        List<List<Integer>> adj = buildAdjList(graph);
-        int[] colors = new int[V + 1];
+        CsrGraph adj = graph.getAdjacency();
+        int V = adj.getOrder();
+        int[] offsets = adj.getOffsets();
+        int[] neighbours = adj.getNeighbours();
+        int[] colors = new int[V];
         Arrays.fill(colors, -1);
+        int[] queue = new int[V];
 
-        for (int start = 1; start <= V; start++) {
+        for (int start = 0; start < V; start++) {
             if (colors[start] == -1) {
-                Queue<Integer> queue = new LinkedList<>();
-                queue.add(start);
+                int head = 0, tail = 0;
+                queue[tail++] = start;
                 colors[start] = 1;
 
-                while (!queue.isEmpty()) {
-                    int node = queue.poll();
-                    for (int neighbor : adj.get(node)) {
+                while (head < tail) {
+                    int node = queue[head++];
+                    for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                        int neighbor = neighbours[i];
                         if (colors[neighbor] == -1) {
                             colors[neighbor] = 1 - colors[node];
-                            queue.add(neighbor);
+                            queue[tail++] = neighbor;
                         } else if (colors[neighbor] == colors[node]) {
                             return false;
                         }
@@ -193,7 +190,7 @@ public class GraphTester {
 
     public static boolean isOuterplanar(Graph graph) {
         int V = graph.getVertexCount();
-        int E = graph.getEdges().size();
+        int E = graph.getAdjacency().getEdgeCount();
 
         return E <= 2 * V - 3 && !containsK4(graph) && !containsK23(graph);
     }
@@ -207,7 +204,7 @@ public class GraphTester {
         if (V < 5) return true;
         
         // If edges > 3V - 6, graph cannot be planar (Euler's formula)
-        int E = graph.getEdges().size();
+        int E = graph.getAdjacency().getEdgeCount();
         if (E > 3*V - 6) return false;
         
         // TODO: Full Kuratowski subgraph check if needed
@@ -224,7 +221,7 @@ public class GraphTester {
 
     public static boolean isDense(Graph graph) {
         int V = graph.getVertexCount();
-        int E = graph.getEdges().size();
+        int E = graph.getAdjacency().getEdgeCount();
         double maxEdges = (double) V * (V - 1) / 2;
 
         return (E / maxEdges) >= 0.9;
@@ -234,27 +231,19 @@ public class GraphTester {
         return false; // Replace with proper logic.
     }
 
+    /**
+     * @return Degrees indexed by vertex label, so index 0 is unused and stays 0.
+     */
     private static int[] getVertexDegrees(Graph graph) {
+        CsrGraph adj = graph.getAdjacency();
         int V = graph.getVertexCount();
         int[] degree = new int[V + 1];
-        for (ColEdge edge : graph.getEdges()) {
-            degree[edge.u]++;
-            degree[edge.v]++;
+        for (int v = 0; v < V; v++) {
+            degree[v + 1] = adj.degree(v);
         }
         return degree;
     }
 
-    private static List<List<Integer>> buildAdjList(Graph graph) {
-        int V = graph.getVertexCount();
-        List<List<Integer>> adj = new ArrayList<>();
-        for (int i = 0; i <= V; i++) adj.add(new ArrayList<>());
-        for (ColEdge edge : graph.getEdges()) {
-            adj.get(edge.u).add(edge.v);
-            adj.get(edge.v).add(edge.u);
-        }
-        return adj;
-    }
-
     private static boolean containsK4(Graph graph) {
         return false; // Placeholder.
     }
@@ -1,8 +1,6 @@
 package org.example.phase3.GUI.components;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -25,6 +23,9 @@ import org.example.phase3.Evaluation.Graph;
 import org.example.phase3.Evaluation.GraphType;  
 import org.example.phase3.Generation.ColEdge;
 import org.example.phase3.Generation.RandomGraphGenerator;
+import org.example.phase3.phase1algo.data.BinaryGraphFile;
+import org.example.phase3.phase1algo.data.DimacsGraph;
+import org.example.phase3.phase1algo.data.ReadGraph;
 
 /**
  * This class provides UI components and functionality 
@@ -45,6 +46,7 @@ public class graphControls extends VBox {
 
     private Consumer<List<ColEdge>> onGraphGenerated;
     private List<ColEdge> currentEdges;
+    private Graph currentGraph;
 
     public graphControls(Consumer<List<ColEdge>> onGraphGenerated) {
         this.onGraphGenerated = onGraphGenerated;
@@ -112,6 +114,7 @@ public class graphControls extends VBox {
             GraphScorer scorer = new GraphScorer();
             // Convert edges to a Graph object (assuming your Graph constructor takes these edges)
             Graph g = new Graph(edges);
+            currentGraph = g;
             scorer.setCurrentGraph(g);
 
             System.out.println("\n[DEBUG] --- Generated Random Graph ---");
@@ -133,7 +136,9 @@ public class graphControls extends VBox {
 
         if (file != null) {
             try {
-                List<ColEdge> edges = loadEdgesFromFile(file);
+                Graph g = loadGraphFromFile(file);
+                List<ColEdge> edges = g.getEdges();
+                currentGraph = g;
                 currentEdges = edges;
                 isFileLoaded = true;
                 fileVertexCount = determineVertexCount(edges);
@@ -145,7 +150,6 @@ public class graphControls extends VBox {
 
                 // (B) DEBUG: Score this graph immediately
                 GraphScorer scorer = new GraphScorer();
-                Graph g = new Graph(edges);
                 scorer.setCurrentGraph(g);
 
                 System.out.println("\n[DEBUG] --- Loaded Graph From File: " + file.getName() + " ---");
@@ -159,59 +163,24 @@ public class graphControls extends VBox {
     }
 
     /**
-     * Loads graph edges from a specified file.
+     * Loads a graph from a specified file, parsed in one pass over the memory-mapped file.
+     * Binary graph files are recognized by their header and DIMACS instances by their comment or problem line;
+     * both are loaded straight into the CSR adjacency the solvers use, which is kept instead of being rebuilt.
      */
-    public List<ColEdge> loadEdgesFromFile(File file) throws IOException {
-        List<ColEdge> edges = new ArrayList<>();
-        BufferedReader br = new BufferedReader(new FileReader(file));
-        String line;
-        boolean foundEdgeSection = false;
-
-        while ((line = br.readLine()) != null) {
-            line = line.trim();
-            if (line.isEmpty() || line.startsWith("#")) {
-                continue;
-            }
-            if (line.equalsIgnoreCase("edges:")) {
-                foundEdgeSection = true;
-                continue;
-            }
-            if (foundEdgeSection) {
-                String[] parts = line.split("\\s+");
-                if (parts.length >= 2) {
-                    try {
-                        int u = Integer.parseInt(parts[0]);
-                        int v = Integer.parseInt(parts[1]);
-                        edges.add(new ColEdge(u, v));
-                    } catch (NumberFormatException e) {
-                     
-                    }
-                }
-            }
+    public Graph loadGraphFromFile(File file) throws IOException {
+        if (BinaryGraphFile.isBinaryGraphFile(file.toPath())) {
+            return new Graph(BinaryGraphFile.read(file.toPath()));
         }
-        br.close();
-
-        // If no "edges:" section found or no edges read, try reading the file line by line as an edge list
-        if (edges.isEmpty()) {
-            br = new BufferedReader(new FileReader(file));
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (!line.isEmpty() && !line.startsWith("#")) {
-                    String[] parts = line.split("\\s+");
-                    if (parts.length >= 2) {
-                        try {
-                            int u = Integer.parseInt(parts[0]);
-                            int v = Integer.parseInt(parts[1]);
-                            edges.add(new ColEdge(u, v));
-                        } catch (NumberFormatException e) {
-                            // skip
-                        }
-                    }
-                }
-            }
-            br.close();
+        if (DimacsGraph.isDimacsFile(file.toPath())) {
+            return new Graph(DimacsGraph.read(file.toPath()));
         }
-        return edges;
+        ReadGraph.EdgeList edgeList = ReadGraph.read(file.toPath());
+        int[] pairs = edgeList.getEdges();
+        List<ColEdge> edges = new ArrayList<>(edgeList.getEdgeCount());
+        for (int i = 0; i < edgeList.getEdgeCount(); i++) {
+            edges.add(new ColEdge(pairs[2 * i], pairs[2 * i + 1]));
+        }
+        return new Graph(edges);
     }
 
     /**
@@ -259,6 +228,13 @@ public class graphControls extends VBox {
         return currentEdges;
     }
 
+    /**
+     * @return The graph of the current edges, built when they were generated or loaded
+     */
+    public Graph getCurrentGraph() {
+        return currentGraph;
+    }
+
     public int getVertexCount() {
         return isFileLoaded ? getFileVertexCount() : getNumberOfVertices();
     }
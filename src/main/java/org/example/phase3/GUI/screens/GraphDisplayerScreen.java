@@ -145,7 +145,7 @@ public class GraphDisplayerScreen extends GameScreen {
         // Algorithms that find the chromatic number need to be started by pressing this button.
         // Please go to ChromaticNumberSolver.java. Do not edit this button unless you know 100%
         // what you are changing.
-        colorGraph.setOnAction(e -> ChromaticNumberSolver.solveChromaticNumber(controls.getCurrentEdges()));
+        colorGraph.setOnAction(e -> ChromaticNumberSolver.solveChromaticNumber(controls.getCurrentGraph()));
 
         // Make all controls in graphControls the same width
         controls.setPrefWidth(200);
@@ -310,7 +310,7 @@ public class GraphDisplayerScreen extends GameScreen {
         // Set up the color graph button action
         colorGraph.setOnAction(e -> {
             if (controls.getCurrentEdges() != null && !controls.getCurrentEdges().isEmpty()) {
-                ChromaticNumberSolver.solveChromaticNumber(controls.getCurrentEdges());
+                ChromaticNumberSolver.solveChromaticNumber(controls.getCurrentGraph());
             } else {
                 showAlert("Error", "No graph to color. Please generate or load a graph first.");
             }
@@ -1,16 +1,34 @@
 package org.example.phase3.Generation;
 
 import org.example.phase3.Algorithms.AlgorithmSelector;
+import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.Algorithms.ResultCache;
 import org.example.phase3.Evaluation.Graph;
 import org.example.phase3.Evaluation.GraphScorer;
+import org.example.phase3.Evaluation.GraphTester;
 import org.example.phase3.Evaluation.GraphType;
-import java.util.List;
+import org.example.phase3.phase1algo.algorithms.ChromaticNumber;
+import org.example.phase3.phase1algo.algorithms.TimerCheck;
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import org.example.phase3.phase1algo.utils.HelpFunctions;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Handles the process of solving the chromatic number for a given graph.
  * Acts as a coordinator between graph creation, type evaluation, and algorithm selection.
+ * A disconnected graph is split into its connected components, which are solved independently since
+ * the chromatic number of a graph is the largest chromatic number among its components.
+ * Results are kept in the {@link ResultCache}: a graph solved exactly before is not solved again, and a graph solved
+ * only partly starts from the bounds found last time.
  */
 public class ChromaticNumberSolver {
+    /**
+     * Time budget shared by all components of a disconnected graph, in milliseconds
+     */
+    private static final long COMPONENTS_TIME = 120000;
+
     /**
      * Solves the chromatic number for a given set of edges.
      * Creates a graph, evaluates its type, and executes the appropriate coloring algorithm.
@@ -19,14 +37,257 @@ public class ChromaticNumberSolver {
      */
     public static void solveChromaticNumber(List<ColEdge> edges) {
         // Create Graph object from edges
-        Graph graph = new Graph(edges);
-        
+        solveChromaticNumber(new Graph(edges));
+    }
+
+    /**
+     * Solves the chromatic number for a graph that is already built, e.g. loaded from a file, and displays it.
+     *
+     * @param graph The graph to color
+     */
+    public static void solveChromaticNumber(Graph graph) {
+        try {
+            AlgorithmSelector.display(graph, solve(graph));
+        } catch (Exception e) {
+            System.err.println("Error during graph coloring: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Colors a graph without displaying the result: answers from the result cache if it knows the chromatic number,
+     * otherwise runs the algorithm for the graph's type, or colors its components separately, and remembers the result.
+     *
+     * @param graph The graph to color
+     * @return The best coloring known for the graph
+     * @throws InterruptedException If interrupted while solving components
+     * @throws ExecutionException   If solving a component failed
+     */
+    public static ColoringResult solve(Graph graph) throws InterruptedException, ExecutionException {
+        ResultCache cache = ResultCache.getDefault();
+        ColoringResult known = cache.lookup(graph);
+        if (known != null && known.isExact()) {
+            System.out.println("Result cache hit: chromatic number " + known.getChromaticNumber());
+            return known;
+        }
+        if (known != null) {
+            System.out.println("Result cache: starting from LB " + known.getLowerBound()
+                + ", UB " + known.getChromaticNumber());
+        }
+
+        // Use AlgorithmSelector to execute the appropriate algorithm, then remember the result
+        ColoringResult result = GraphTester.isConnected(graph)
+            ? AlgorithmSelector.select(graph, classify(graph), known)
+            : solveComponents(graph, known);
+        return cache.store(graph, result);
+    }
+
+    /**
+     * Colors every connected component of the graph and merges the colorings.
+     * Components of a special type are solved first, on a thread pool, since each is solved directly on one thread.
+     * The general components are solved one after another, largest first, as each already runs a portfolio of
+     * engines that keeps every core busy. The largest chromatic number found so far is shared between them: a
+     * component that DSATUR already colors with no more colors than that cannot change the result, so no exact search
+     * is spent on it, and the engines of the other components stop as soon as they reach it.
+     * All components share one deadline instead of each getting the full time of a graph.
+     *
+     * @param graph The analyzed Graph object
+     * @return The merged coloring, whose chromatic number is the largest among the components
+     * @throws InterruptedException If interrupted while waiting for the components
+     * @throws ExecutionException   If solving a component failed
+     */
+    public static ColoringResult solveComponents(Graph graph) throws InterruptedException, ExecutionException {
+        return solveComponents(graph, null);
+    }
+
+    /**
+     * Colors every connected component of the graph, starting from a result found earlier for the whole graph.
+     * The colorings of the components cannot be taken from a coloring of the whole graph without knowing which
+     * component needs the most colors, but its lower bound holds for the largest chromatic number among them, so it
+     * starts the shared maximum: a component colored with that many colors is already good enough.
+     *
+     * @param graph The analyzed Graph object
+     * @param known Earlier result for the graph, e.g. from the {@link ResultCache}; may be null
+     * @return The merged coloring, whose chromatic number is the largest among the components
+     * @throws InterruptedException If interrupted while waiting for the components
+     * @throws ExecutionException   If solving a component failed
+     */
+    public static ColoringResult solveComponents(Graph graph, ColoringResult known)
+        throws InterruptedException, ExecutionException {
+        List<int[]> components = findComponents(graph.getAdjacency());
+        System.out.println("Graph has " + components.size() + " connected components");
+
+        // The largest lower bound among the components is one for the whole graph, and so is a known one
+        int lowerBound = known != null ? known.getLowerBound() : 0;
+        AtomicInteger globalMax = new AtomicInteger(Math.max(lowerBound, graph.getVertexCount() > 0 ? 1 : 0));
+        List<Component> special = new ArrayList<>();
+        List<Component> general = new ArrayList<>();
+        // Index of every vertex within its component
+        int[] local = new int[graph.getVertexCount()];
+        for (int[] vertices : components) {
+            for (int i = 0; i < vertices.length; i++) {
+                local[vertices[i]] = i;
+            }
+        }
+        for (int[] vertices : components) {
+            // Isolated vertices are not part of any edge and simply take the first color
+            if (vertices.length == 1) {
+                continue;
+            }
+            Component component = new Component(vertices, inducedGraph(graph, vertices, local));
+            if (component.type == GraphType.UNKNOWN || component.type == GraphType.SPLIT) {
+                general.add(component);
+            } else {
+                special.add(component);
+            }
+        }
+        // Larger components first, so that the shared bound is high by the time the small ones are reached
+        general.sort((a, b) -> Integer.compare(b.vertices.length, a.vertices.length));
+
+        Map<Integer, Integer> colorMap = new HashMap<>();
+        for (int v = 1; v <= graph.getVertexCount(); v++) {
+            colorMap.put(v, 1);
+        }
+        Set<String> algorithms = new TreeSet<>();
+        int chromaticNumber = graph.getVertexCount() > 0 ? 1 : 0;
+
+        TimerCheck deadline = new TimerCheck(COMPONENTS_TIME);
+        deadline.start();
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<ColoringResult>> futures = new ArrayList<>();
+            for (Component component : special) {
+                futures.add(executor.submit(() -> component.solve(globalMax, deadline)));
+            }
+            List<ColoringResult> results = new ArrayList<>();
+            for (Future<ColoringResult> future : futures) {
+                results.add(future.get());
+            }
+            for (Component component : general) {
+                results.add(component.solve(globalMax, deadline));
+            }
+
+            List<Component> solved = new ArrayList<>(special);
+            solved.addAll(general);
+            for (int i = 0; i < solved.size(); i++) {
+                ColoringResult result = results.get(i);
+                int[] vertices = solved.get(i).vertices;
+                for (Map.Entry<Integer, Integer> entry : result.getColorAssignments().entrySet()) {
+                    colorMap.put(vertices[entry.getKey() - 1] + 1, entry.getValue());
+                }
+                algorithms.add(result.getAlgorithmName());
+                chromaticNumber = Math.max(chromaticNumber, result.getChromaticNumber());
+                lowerBound = Math.max(lowerBound, result.getLowerBound());
+            }
+        } finally {
+            deadline.cancel();
+            executor.shutdownNow();
+        }
+
+        return new ColoringResult(colorMap, chromaticNumber,
+            "Components (" + components.size() + "): " + String.join(", ", algorithms), lowerBound);
+    }
+
+    private static GraphType classify(Graph graph) {
         // Use GraphScorer to determine graph type
         GraphScorer scorer = new GraphScorer();
         scorer.setCurrentGraph(graph);
-        GraphType type = scorer.evaluateGraphType();
-        
-        // Use AlgorithmSelector to execute the appropriate algorithm and display results
-        AlgorithmSelector.selectAndExecute(graph, type);
+        return scorer.evaluateGraphType();
+    }
+
+    /**
+     * Lists the connected components with an iterative breadth-first search.
+     *
+     * @return The 0-based vertices of every component, each in increasing order
+     */
+    private static List<int[]> findComponents(CsrGraph adjacency) {
+        int n = adjacency.getOrder();
+        int[] offsets = adjacency.getOffsets();
+        int[] neighbours = adjacency.getNeighbours();
+        boolean[] visited = new boolean[n];
+        int[] queue = new int[n];
+        List<int[]> components = new ArrayList<>();
+
+        for (int start = 0; start < n; start++) {
+            if (visited[start]) continue;
+            int head = 0, tail = 0;
+            queue[tail++] = start;
+            visited[start] = true;
+            while (head < tail) {
+                int node = queue[head++];
+                for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                    if (!visited[neighbours[i]]) {
+                        visited[neighbours[i]] = true;
+                        queue[tail++] = neighbours[i];
+                    }
+                }
+            }
+            int[] component = Arrays.copyOf(queue, tail);
+            Arrays.sort(component);
+            components.add(component);
+        }
+        return components;
+    }
+
+    /**
+     * Builds the subgraph induced by a component straight in CSR form, with its vertices relabeled 1, 2, ... in the
+     * given order. A component holds every neighbour of its vertices, so each row is the row in the graph relabeled,
+     * and it stays sorted since the labels increase with the vertices.
+     *
+     * @param vertices The component's vertices in increasing order
+     * @param local    Index of every vertex within its component
+     */
+    private static Graph inducedGraph(Graph graph, int[] vertices, int[] local) {
+        int[] offsets = graph.getAdjacency().getOffsets();
+        int[] neighbours = graph.getAdjacency().getNeighbours();
+        int[] localOffsets = new int[vertices.length + 1];
+        for (int i = 0; i < vertices.length; i++) {
+            localOffsets[i + 1] = localOffsets[i] + offsets[vertices[i] + 1] - offsets[vertices[i]];
+        }
+        int[] localNeighbours = new int[localOffsets[vertices.length]];
+        for (int i = 0; i < vertices.length; i++) {
+            int row = offsets[vertices[i]];
+            for (int k = localOffsets[i]; k < localOffsets[i + 1]; k++) {
+                localNeighbours[k] = local[neighbours[row++]];
+            }
+        }
+        return new Graph(CsrGraph.fromCsr(vertices.length, localOffsets, localNeighbours));
+    }
+
+    /**
+     * A connected component together with its induced subgraph and graph type.
+     */
+    private static class Component {
+        private final int[] vertices;
+        private final Graph graph;
+        private final GraphType type;
+
+        Component(int[] vertices, Graph graph) {
+            this.vertices = vertices;
+            this.graph = graph;
+            this.type = classify(graph);
+        }
+
+        /**
+         * Colors the component and raises the shared maximum to its chromatic number.
+         *
+         * @param globalMax Largest chromatic number among the components solved so far, the target of the engines
+         * @param deadline  Deadline shared by all components
+         */
+        ColoringResult solve(AtomicInteger globalMax, TimerCheck deadline) {
+            if (type == GraphType.UNKNOWN || type == GraphType.SPLIT) {
+                int[] coloring = ChromaticNumber.dsaturColoring(graph.getAdjacency());
+                int colors = HelpFunctions.maxInArray(coloring) + 1;
+                if (colors <= globalMax.get()) {
+                    Map<Integer, Integer> colorMap = new HashMap<>();
+                    for (int i = 0; i < coloring.length; i++) {
+                        colorMap.put(i + 1, coloring[i] + 1);
+                    }
+                    return new ColoringResult(colorMap, colors, "DSATUR (within component maximum)");
+                }
+            }
+            ColoringResult result = AlgorithmSelector.select(graph, type, null, globalMax, deadline);
+            globalMax.accumulateAndGet(result.getChromaticNumber(), Math::max);
+            return result;
+        }
     }
 }
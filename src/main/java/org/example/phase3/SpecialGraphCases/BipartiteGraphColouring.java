@@ -1,17 +1,16 @@
 package org.example.phase3.SpecialGraphCases;
 
-import org.example.phase3.Generation.ColEdge;
 import org.example.phase3.Evaluation.Graph;
 import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.phase1algo.structures.CsrGraph;
 import java.util.*;
 
 public class BipartiteGraphColouring {
     public static ColoringResult colour(Graph graph) {
-        List<ColEdge> edges = graph.getEdges();
         int numNodes = graph.getVertexCount();
         int[] colourArray = new int[numNodes];
         
-        colourArray = colourBipartiteGraph(edges, colourArray);
+        colourArray = colourBipartiteGraph(graph.getAdjacency(), colourArray);
         
         // Convert the result to a map
         Map<Integer, Integer> colorMap = new HashMap<>();
@@ -19,21 +18,20 @@ public class BipartiteGraphColouring {
             colorMap.put(i + 1, colourArray[i]);
         }
         
-        return new ColoringResult(colorMap, 2, "Bipartite Coloring");
+        // One edge already needs both colors
+        int lowerBound = graph.getAdjacency().getEdgeCount() > 0 ? 2 : 1;
+        return new ColoringResult(colorMap, 2, "Bipartite Coloring", lowerBound);
     }
 
     /**
      * colours a bipartite graph with two colours (1 and 2).
      * 
-     * @param edges       A list of edges representing the bipartite graph.
+     * @param adjList     The CSR adjacency of the bipartite graph.
      * @param colourArray An array to store the colours of each node.
      * @return The updated colourArray with the assigned colours.
      */
-    public static int[] colourBipartiteGraph(List<ColEdge> edges, int[] colourArray) {
-        int numNodes = getNumNodes(edges);
-
-        // Build adjacency list from edge list
-        List<List<Integer>> adjList = buildAdjacencyList(edges, numNodes);
+    public static int[] colourBipartiteGraph(CsrGraph adjList, int[] colourArray) {
+        int numNodes = adjList.getOrder();
     
         // Try to colour each connected node
         for (int start = 0; start < numNodes; start++) {
@@ -53,8 +51,10 @@ public class BipartiteGraphColouring {
      * @param adjList the adjacency list that shows which nodes each node is connected to
      * @param colourArray the array where the colours for each node are stored
      */
-    private static void colouring(int currentNode, List<List<Integer>> adjList, int[] colourArray) {
-        for (int neighbor : adjList.get(currentNode)) {
+    private static void colouring(int currentNode, CsrGraph adjList, int[] colourArray) {
+        int[] neighbours = adjList.getNeighbours();
+        for (int i = adjList.getOffsets()[currentNode]; i < adjList.getOffsets()[currentNode + 1]; i++) {
+            int neighbor = neighbours[i];
             if (colourArray[neighbor] == 0) {
                 // Assign the opposite colour to the neighbor
                 if (colourArray[currentNode] == 1) {
@@ -68,45 +68,4 @@ public class BipartiteGraphColouring {
             }
         }
     }
-    
-    /**
-     * Builds an adjacency list from the given edge list, storing what nodes each node is connected to.
-     * 
-     * @param edges    A list of edges representing the graph.
-     * @param numNodes The total number of nodes in the graph.
-     * @return The adjacency list representation of the graph.
-     */
-    private static List<List<Integer>> buildAdjacencyList(List<ColEdge> edges, int numNodes) {
-        List<List<Integer>> adjList = new ArrayList<>();
-        for (int i = 0; i < numNodes; i++) {
-            adjList.add(new ArrayList<>());
-        }
-    
-        for (ColEdge edge : edges) {
-            adjList.get(edge.u - 1).add(edge.v - 1);
-            adjList.get(edge.v - 1).add(edge.u - 1); // Add a connection for both nodes
-        }
-    
-        return adjList;
-    }
-
-    /**
-     * Determines the number of nodes in the graph.
-     * 
-     * @param edges A list of edges representing the graph
-     * @return The total number of nodes in the graph
-     */
-    public static int getNumNodes(List<ColEdge> edges) {
-        int max = 0;
-        for (ColEdge edge : edges) {
-            if (edge.v > max) {
-                max = edge.v;
-            }
-            if (edge.u > max) {
-                max = edge.u;
-            }
-        }
-
-        return max;
-    }
 }
@@ -1,25 +1,16 @@
 package org.example.phase3.SpecialGraphCases;
 
-import org.example.phase3.Generation.ColEdge;
 import org.example.phase3.Evaluation.Graph;
 import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.phase1algo.structures.CsrGraph;
 import java.util.*;
 
 public class ChordalGraphColouring {
     public static ColoringResult colour(Graph graph) {
-        List<ColEdge> edges = graph.getEdges();
+        CsrGraph adjList = graph.getAdjacency();
         int vertexCount = graph.getVertexCount();
-        
-        // Build adjacency list
-        List<List<Integer>> adjList = new ArrayList<>();
-        for (int i = 0; i <= vertexCount; i++) {
-            adjList.add(new ArrayList<>());
-        }
-        
-        for (ColEdge edge : edges) {
-            adjList.get(edge.u).add(edge.v);
-            adjList.get(edge.v).add(edge.u);
-        }
+        int[] offsets = adjList.getOffsets();
+        int[] neighbours = adjList.getNeighbours();
         
         // Get perfect elimination ordering
         List<Integer> vertices = getPerfectEliminationOrdering(adjList, vertexCount);
@@ -31,9 +22,10 @@ public class ChordalGraphColouring {
         for (int vertex : vertices) {
             // Find used colors from neighbors
             boolean[] usedColors = new boolean[vertexCount + 1];
-            for (int neighbor : adjList.get(vertex)) {
-                if (colorMap.containsKey(neighbor)) {
-                    usedColors[colorMap.get(neighbor)] = true;
+            for (int i = offsets[vertex - 1]; i < offsets[vertex]; i++) {
+                Integer neighborColor = colorMap.get(neighbours[i] + 1);
+                if (neighborColor != null) {
+                    usedColors[neighborColor] = true;
                 }
             }
             
@@ -49,7 +41,9 @@ public class ChordalGraphColouring {
         return new ColoringResult(colorMap, maxColor, "Chordal Graph Coloring");
     }
     
-    private static List<Integer> getPerfectEliminationOrdering(List<List<Integer>> adjList, int vertexCount) {
+    private static List<Integer> getPerfectEliminationOrdering(CsrGraph adjList, int vertexCount) {
+        int[] offsets = adjList.getOffsets();
+        int[] neighbours = adjList.getNeighbours();
         List<Integer> ordering = new ArrayList<>();
         boolean[] visited = new boolean[vertexCount + 1];
         
@@ -61,18 +55,20 @@ public class ChordalGraphColouring {
                 
                 // Add neighbors in order of their degree
                 PriorityQueue<Integer> neighbors = new PriorityQueue<>(
-                    (a, b) -> Integer.compare(adjList.get(b).size(), adjList.get(a).size())
+                    (a, b) -> Integer.compare(adjList.degree(b - 1), adjList.degree(a - 1))
                 );
-                neighbors.addAll(adjList.get(i));
+                for (int k = offsets[i - 1]; k < offsets[i]; k++) {
+                    neighbors.add(neighbours[k] + 1);
+                }
                 
                 while (!neighbors.isEmpty()) {
                     int next = neighbors.poll();
                     if (!visited[next]) {
                         ordering.add(next);
                         visited[next] = true;
-                        for (int neighbor : adjList.get(next)) {
-                            if (!visited[neighbor]) {
-                                neighbors.add(neighbor);
+                        for (int k = offsets[next - 1]; k < offsets[next]; k++) {
+                            if (!visited[neighbours[k] + 1]) {
+                                neighbors.add(neighbours[k] + 1);
                             }
                         }
                     }
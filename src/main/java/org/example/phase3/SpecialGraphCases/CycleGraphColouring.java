@@ -1,8 +1,8 @@
 package org.example.phase3.SpecialGraphCases;
 
-import org.example.phase3.Generation.ColEdge;
 import org.example.phase3.Evaluation.Graph;
 import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.phase1algo.structures.CsrGraph;
 import java.util.*;
 
 /**
@@ -18,29 +18,17 @@ public class CycleGraphColouring {
      * @throws IllegalArgumentException if the input graph is not a valid cycle
      */
     public static ColoringResult colour(Graph graph) {
-        List<ColEdge> edges = graph.getEdges();
+        CsrGraph adjList = graph.getAdjacency();
         int vertexCount = graph.getVertexCount();
         
         // Validate cycle properties
-        if (edges.size() != vertexCount) {
+        if (adjList.getEdgeCount() != vertexCount) {
             throw new IllegalArgumentException("Not a cycle graph: number of edges != number of vertices");
         }
         
-        // Build adjacency list for validation
-        List<List<Integer>> adjList = new ArrayList<>();
-        for (int i = 0; i < vertexCount; i++) {
-            adjList.add(new ArrayList<>());
-        }
-        
-        // Populate adjacency list
-        for (ColEdge edge : edges) {
-            adjList.get(edge.u - 1).add(edge.v - 1);
-            adjList.get(edge.v - 1).add(edge.u - 1);
-        }
-        
         // Verify cycle property (each vertex must have exactly 2 neighbors)
-        for (List<Integer> neighbors : adjList) {
-            if (neighbors.size() != 2) {
+        for (int v = 0; v < vertexCount; v++) {
+            if (adjList.degree(v) != 2) {
                 throw new IllegalArgumentException("Not a cycle graph: vertex with degree != 2");
             }
         }
@@ -64,6 +52,6 @@ public class CycleGraphColouring {
             chromaticNumber = 3;
         }
         
-        return new ColoringResult(colorMap, chromaticNumber, "Cycle Graph Coloring");
+        return new ColoringResult(colorMap, chromaticNumber, "Cycle Graph Coloring", chromaticNumber);
     }
 }
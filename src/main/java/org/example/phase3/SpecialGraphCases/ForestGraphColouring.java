@@ -1,9 +1,9 @@
 package org.example.phase3.SpecialGraphCases;
 
 import java.util.*;
-import org.example.phase3.Generation.ColEdge;
 import org.example.phase3.Evaluation.Graph;
 import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.phase1algo.structures.CsrGraph;
 
 /**
  * Specialized algorithm for coloring forest graphs.
@@ -18,7 +18,7 @@ public class ForestGraphColouring {
      * @return ColoringResult containing the vertex color assignments and chromatic number
      */
     public static ColoringResult colour(Graph graph) {
-        List<ColEdge> edges = graph.getEdges();
+        CsrGraph adjList = graph.getAdjacency();
         int vertexCount = graph.getVertexCount();
         
         Map<Integer, Integer> colorMap = new HashMap<>();
@@ -27,11 +27,12 @@ public class ForestGraphColouring {
         // Process each component (tree) in the forest
         for (int i = 1; i <= vertexCount; i++) {
             if (!visited[i]) {
-                colorComponent(i, edges, colorMap, visited);
+                colorComponent(i, adjList, colorMap, visited);
             }
         }
         
-        return new ColoringResult(colorMap, 2, "Forest Coloring");
+        int lowerBound = adjList.getEdgeCount() > 0 ? 2 : 1;
+        return new ColoringResult(colorMap, 2, "Forest Coloring", lowerBound);
     }
     
     /**
@@ -39,11 +40,13 @@ public class ForestGraphColouring {
      * Uses breadth-first search to alternate colors between adjacent vertices.
      *
      * @param start Starting vertex for the component
-     * @param edges List of edges in the graph
+     * @param adjList CSR adjacency of the graph, with vertex label u at index u - 1
      * @param colorMap Map to store vertex colors
      * @param visited Array to track visited vertices
      */
-    private static void colorComponent(int start, List<ColEdge> edges, Map<Integer, Integer> colorMap, boolean[] visited) {
+    private static void colorComponent(int start, CsrGraph adjList, Map<Integer, Integer> colorMap, boolean[] visited) {
+        int[] offsets = adjList.getOffsets();
+        int[] neighbours = adjList.getNeighbours();
         Queue<Integer> queue = new LinkedList<>();
         queue.offer(start);
         colorMap.put(start, 1);  // Start with color 1
@@ -55,12 +58,10 @@ public class ForestGraphColouring {
             int nextColor = (currentColor == 1) ? 2 : 1;  // Alternate between 1 and 2
             
             // Find and color all neighbors
-            for (ColEdge edge : edges) {
-                int neighbor = -1;
-                if (edge.u == current) neighbor = edge.v;
-                if (edge.v == current) neighbor = edge.u;
+            for (int i = offsets[current - 1]; i < offsets[current]; i++) {
+                int neighbor = neighbours[i] + 1;
                 
-                if (neighbor != -1 && !visited[neighbor]) {
+                if (!visited[neighbor]) {
                     colorMap.put(neighbor, nextColor);
                     visited[neighbor] = true;
                     queue.offer(neighbor);
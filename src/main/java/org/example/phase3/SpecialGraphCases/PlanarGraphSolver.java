@@ -1,36 +1,35 @@
 package org.example.phase3.SpecialGraphCases;
 
 import java.util.*;
-import org.example.phase3.Generation.ColEdge;
 import org.example.phase3.Evaluation.Graph;
 import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.phase1algo.structures.CsrGraph;
 
 public class PlanarGraphSolver {
     public static ColoringResult colour(Graph graph) {
-        List<ColEdge> edges = graph.getEdges();
+        CsrGraph adjList = graph.getAdjacency();
         int vertexCount = graph.getVertexCount();
+        int[] offsets = adjList.getOffsets();
+        int[] neighbours = adjList.getNeighbours();
         
         // Create color assignments map
         Map<Integer, Integer> colorMap = new HashMap<>();
-        boolean[] usedColors = new boolean[vertexCount]; // Track colors used by neighbors
+        boolean[] usedColors = new boolean[vertexCount + 1]; // Track colors used by neighbors
         
         // Loop through vertices and assign the smallest available color
         for (int vertex = 0; vertex < vertexCount; vertex++) {
             Arrays.fill(usedColors, false);
             
-            // Mark colors used by neighbors
-            for (ColEdge edge : edges) {
-                // Adjust for 1-based indices in ColEdge
-                if (edge.u - 1 == vertex && colorMap.containsKey(edge.v)) {
-                    usedColors[colorMap.get(edge.v)] = true;
-                }
-                if (edge.v - 1 == vertex && colorMap.containsKey(edge.u)) {
-                    usedColors[colorMap.get(edge.u)] = true;
+            // Mark colors used by neighbors (the map is keyed by 1-based labels)
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                Integer neighborColor = colorMap.get(neighbours[i] + 1);
+                if (neighborColor != null) {
+                    usedColors[neighborColor] = true;
                 }
             }
             
-            // Assign the smallest available color
-            for (int color = 0; color < vertexCount; color++) {
+            // Assign the smallest available color, numbered from 1 like the other special cases
+            for (int color = 1; color <= vertexCount; color++) {
                 if (!usedColors[color]) {
                     colorMap.put(vertex + 1, color);
                     break;
@@ -38,8 +37,8 @@ public class PlanarGraphSolver {
             }
         }
         
-        // Determine the chromatic number (maximum color used + 1)
-        int chromaticNumber = colorMap.values().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+        // Determine the chromatic number (maximum color used)
+        int chromaticNumber = colorMap.values().stream().mapToInt(Integer::intValue).max().orElse(0);
         
         return new ColoringResult(colorMap, chromaticNumber, "Greedy (Planar)");
     }
@@ -1,20 +1,21 @@
 package org.example.phase3.SpecialGraphCases;
 
-import org.example.phase3.Generation.ColEdge;
 import org.example.phase3.Evaluation.Graph;
 import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.phase1algo.structures.CsrGraph;
 import java.util.*;
 
 public class SplitGraphAlgorithm {
     public static ColoringResult colour(Graph graph) {
-        List<ColEdge> edges = graph.getEdges();
+        CsrGraph adjList = graph.getAdjacency();
         int vertexCount = graph.getVertexCount();
         
-        // Calculate degree sequence
+        // Calculate degree sequence of the vertices that appear in an edge
         Map<Integer, Integer> degrees = new HashMap<>();
-        for (ColEdge edge : edges) {
-            degrees.merge(edge.u, 1, Integer::sum);
-            degrees.merge(edge.v, 1, Integer::sum);
+        for (int v = 0; v < vertexCount; v++) {
+            if (adjList.degree(v) > 0) {
+                degrees.put(v + 1, adjList.degree(v));
+            }
         }
         
         // Sort vertices by degree in descending order
@@ -40,20 +41,10 @@ public class SplitGraphAlgorithm {
         Set<Integer> clique = new HashSet<>(sortedVertices.subList(0, m + 1));
         Set<Integer> independentSet = new HashSet<>(sortedVertices.subList(m + 1, sortedVertices.size()));
         
-        // Build adjacency list
-        Map<Integer, Set<Integer>> adjList = new HashMap<>();
-        for (int v : sortedVertices) {
-            adjList.put(v, new HashSet<>());
-        }
-        for (ColEdge edge : edges) {
-            adjList.get(edge.u).add(edge.v);
-            adjList.get(edge.v).add(edge.u);
-        }
-        
         // Check clique property
         for (int u : clique) {
             for (int v : clique) {
-                if (u != v && !adjList.get(u).contains(v)) {
+                if (u != v && !adjList.isAdjacent(u - 1, v - 1)) {
                     return null; // Not a clique
                 }
             }
@@ -62,7 +53,7 @@ public class SplitGraphAlgorithm {
         // Check independent set property
         for (int u : independentSet) {
             for (int v : independentSet) {
-                if (u != v && adjList.get(u).contains(v)) {
+                if (u != v && adjList.isAdjacent(u - 1, v - 1)) {
                     return null; // Not an independent set
                 }
             }
@@ -80,7 +71,7 @@ public class SplitGraphAlgorithm {
             colorMap.put(sortedVertices.get(i), cliqueSize);
         }
         
-        // Returns the result with chromatic number equal to clique size
-        return new ColoringResult(colorMap, cliqueSize, "Split Graph Coloring");
+        // Returns the result with chromatic number equal to clique size, which the verified clique proves optimal
+        return new ColoringResult(colorMap, cliqueSize, "Split Graph Coloring", cliqueSize);
     }
 }
\ No newline at end of file
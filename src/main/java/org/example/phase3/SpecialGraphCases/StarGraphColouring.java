@@ -1,9 +1,9 @@
 package org.example.phase3.SpecialGraphCases;
 
 import java.util.*;
-import org.example.phase3.Generation.ColEdge;
 import org.example.phase3.Evaluation.Graph;
 import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.phase1algo.structures.CsrGraph;
 
 public class StarGraphColouring {
     
@@ -16,16 +16,17 @@ public class StarGraphColouring {
      * @return ColoringResult containing the color assignments and chromatic number
      */
     public static ColoringResult colour(Graph graph) {
-        List<ColEdge> edges = graph.getEdges();
+        CsrGraph adjList = graph.getAdjacency();
         int vertexCount = graph.getVertexCount();
         
         // Find the central node (the one with highest degree)
         Map<Integer, Integer> degrees = new HashMap<>();
         
         // Calculate degrees of all vertices
-        for (ColEdge edge : edges) {
-            degrees.merge(edge.u, 1, Integer::sum);
-            degrees.merge(edge.v, 1, Integer::sum);
+        for (int v = 0; v < vertexCount; v++) {
+            if (adjList.degree(v) > 0) {
+                degrees.put(v + 1, adjList.degree(v));
+            }
         }
         
         // Find the vertex with maximum degree (central node)
@@ -50,6 +51,6 @@ public class StarGraphColouring {
             }
         }
         
-        return new ColoringResult(colorMap, 2, "Star Graph Coloring");
+        return new ColoringResult(colorMap, 2, "Star Graph Coloring", 2);
     }
 }
@@ -1,10 +1,8 @@
 package org.example.phase3.SpecialGraphCases;
 
-import org.example.phase3.Generation.ColEdge;
 import org.example.phase3.Evaluation.Graph;
 import org.example.phase3.Algorithms.ColoringResult;
-import java.util.ArrayList;
-import java.util.List;
+import org.example.phase3.phase1algo.structures.CsrGraph;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Queue;
@@ -23,17 +21,17 @@ public class TreeGraphColouring {
      * @return ColoringResult containing the vertex color assignments and chromatic number
      */
     public static ColoringResult colour(Graph graph) {
-        List<ColEdge> edges = graph.getEdges();
+        CsrGraph adjList = graph.getAdjacency();
         int vertexCount = graph.getVertexCount();
         
         // Handle single vertex case
-        if (edges.isEmpty() && vertexCount == 1) {
+        if (adjList.getEdgeCount() == 0 && vertexCount == 1) {
             Map<Integer, Integer> colorMap = new HashMap<>();
             colorMap.put(1, 1);  // Color the single vertex with color 1
-            return new ColoringResult(colorMap, 2, "Tree Coloring");
+            return new ColoringResult(colorMap, 2, "Tree Coloring", 1);
         }
         
-        int[] colours = colourTreeGraph(graph.getEdges());
+        int[] colours = colourTreeGraph(adjList);
         Map<Integer, Integer> colourMap = new HashMap<>();
         
         // Debug logging for verification
@@ -48,35 +46,22 @@ public class TreeGraphColouring {
         
         System.out.println("Final color map: " + colourMap);
         
-        return new ColoringResult(colourMap, 2, "Tree Coloring");
+        return new ColoringResult(colourMap, 2, "Tree Coloring", 2);
     }
 
-    public static int[] colourTreeGraph(List<ColEdge> edges) {
-        if (edges.isEmpty()) {
+    public static int[] colourTreeGraph(CsrGraph adj) {
+        if (adj.getEdgeCount() == 0) {
             return new int[]{1};  // Single vertex case
         }
         
-        int numberOfVertices = 0;
-        
-        // Find the maximum vertex number to determine array size
-        for (ColEdge edge : edges) {
-            numberOfVertices = Math.max(numberOfVertices, Math.max(edge.u, edge.v));
-        }
+        // The CSR order is the maximum vertex number
+        int numberOfVertices = adj.getOrder();
+        int[] offsets = adj.getOffsets();
+        int[] neighbours = adj.getNeighbours();
 
         System.out.println("[DEBUG] Tree Graph Details:");
-        System.out.println("Number of edges: " + edges.size());
+        System.out.println("Number of edges: " + adj.getEdgeCount());
         System.out.println("Max vertex number found: " + numberOfVertices);
-        System.out.println("Edges: " + edges);
-
-        // Build adjacency list (add one extra for 1-based indexing)
-        List<List<Integer>> adj = new ArrayList<>(numberOfVertices + 1);
-        for (int i = 0; i <= numberOfVertices; i++) {
-            adj.add(new ArrayList<>());
-        }
-        for (ColEdge edge : edges) {
-            adj.get(edge.u).add(edge.v);
-            adj.get(edge.v).add(edge.u);
-        }
 
         // Initialize colors array with -1 (uncolored)
         int[] colors = new int[numberOfVertices];
@@ -93,7 +78,8 @@ public class TreeGraphColouring {
             int currentColor = colors[current - 1];  // -1 for 0-based array
 
             // Color all neighbors with the opposite color
-            for (int neighbor : adj.get(current)) {
+            for (int i = offsets[current - 1]; i < offsets[current]; i++) {
+                int neighbor = neighbours[i] + 1;
                 if (colors[neighbor - 1] == -1) {  // -1 for 0-based array
                     colors[neighbor - 1] = (currentColor == 1) ? 2 : 1;
                     queue.add(neighbor);
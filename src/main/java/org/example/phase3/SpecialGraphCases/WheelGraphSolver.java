@@ -1,17 +1,16 @@
 package org.example.phase3.SpecialGraphCases;
 
 import java.util.*;
-import org.example.phase3.Generation.ColEdge;
 import org.example.phase3.Evaluation.Graph;
 import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.phase1algo.structures.CsrGraph;
 
 public class WheelGraphSolver {
     public static ColoringResult colour(Graph graph) {
-        List<ColEdge> edges = graph.getEdges();
         int vertexCount = graph.getVertexCount();
         
         // Determine if the graph is a wheel
-        int centralVertex = findCentralVertex(edges, vertexCount);
+        int centralVertex = findCentralVertex(graph.getAdjacency(), vertexCount);
         int cycleVertexCount = vertexCount - 1; // Exclude the central vertex
         
         // Create color assignments map
@@ -44,17 +43,10 @@ public class WheelGraphSolver {
         return new ColoringResult(colorMap, chromaticNumber, "Wheel Graph Coloring");
     }
 
-    private static int findCentralVertex(List<ColEdge> edges, int vertexCount) {
-        // Count degrees of each vertex
-        int[] degrees = new int[vertexCount + 1];
-        for (ColEdge edge : edges) {
-            degrees[edge.u]++;
-            degrees[edge.v]++;
-        }
-        
+    private static int findCentralVertex(CsrGraph adjList, int vertexCount) {
         // Find vertex with degree V-1 (connected to all others)
         for (int i = 1; i <= vertexCount; i++) {
-            if (degrees[i] == vertexCount - 1) {
+            if (adjList.degree(i - 1) == vertexCount - 1) {
                 return i;
             }
         }
@@ -0,0 +1,378 @@
+package org.example.phase3.phase1algo;
+
+import org.example.phase3.Evaluation.Graph;
+import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.phase1algo.algorithms.*;
+import org.example.phase3.phase1algo.progress.ProgressEvent;
+import org.example.phase3.phase1algo.progress.ProgressListener;
+import org.example.phase3.phase1algo.utils.HelpFunctions;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hybrid evolutionary coloring (Galinier and Hao) for graphs too large for exact search.
+ * For a fixed k, every island keeps a small population of k-color assignments improved by Tabucol and breeds them
+ * with greedy partition crossover (GPX). Islands run on their own threads and pass their best individual to the next
+ * island at regular intervals. As soon as one island reaches zero conflicts, k is lowered and all islands restart
+ * from the new coloring.
+ */
+public class HybridEvolutionary {
+    private static final int HEA_TIME = 60000; // 1 minute in milliseconds
+    private static final int POPULATION_SIZE = 10;
+    private static final int MIGRATION_INTERVAL = 20; // generations between two migrations
+    private static final long SEED = 42;
+
+    /**
+     * Tabucol iterations spent on every offspring, per vertex
+     */
+    private static final int TABU_ITERATIONS_PER_VERTEX = 10;
+
+    private final int islands;
+    private final long timeLimitMillis;
+
+    /**
+     * Root token of the solve; every stage and island runs on a child of it
+     */
+    private final TimerCheck cancellation;
+
+    /**
+     * Listeners receiving the bounds and every improved coloring
+     */
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Best coloring offered from outside, e.g. by another engine of a portfolio; the next round starts from it
+     */
+    private final AtomicReference<int[]> offered = new AtomicReference<>();
+
+    /**
+     * Number of colors the running round searches for and the flag that stops its islands
+     */
+    private volatile int roundColors;
+    private volatile AtomicBoolean roundSolved = new AtomicBoolean();
+
+    public HybridEvolutionary() {
+        this(Runtime.getRuntime().availableProcessors(), HEA_TIME);
+    }
+
+    /**
+     * @param islands         Number of islands, each searched by its own thread
+     * @param timeLimitMillis Total time budget in milliseconds
+     */
+    public HybridEvolutionary(int islands, long timeLimitMillis) {
+        this(islands, timeLimitMillis, null);
+    }
+
+    /**
+     * @param islands         Number of islands, each searched by its own thread
+     * @param timeLimitMillis Total time budget in milliseconds
+     * @param parent          Token whose expiry or cancellation also stops the solve, e.g. a deadline shared with
+     *                        other solves; may be null
+     */
+    public HybridEvolutionary(int islands, long timeLimitMillis, TimerCheck parent) {
+        if (islands < 1) {
+            throw new IllegalArgumentException("At least one island is required");
+        }
+        this.islands = islands;
+        this.timeLimitMillis = timeLimitMillis;
+        this.cancellation = parent != null ? parent.child() : new TimerCheck();
+    }
+
+    /**
+     * Stops a running {@link #findColoring(Graph)} call, which returns its best coloring so far.
+     * The solver cannot be reused afterwards.
+     */
+    public void cancel() {
+        cancellation.cancel();
+    }
+
+    /**
+     * Hands over a proper coloring found elsewhere. If it uses no more colors than the running round searches for,
+     * the round is stopped and the search goes on below it; the result keeps it if nothing better is found.
+     * May be called from any thread.
+     *
+     * @param coloring Proper coloring of the graph with 0-based vertices and colors
+     */
+    public void offerColoring(int[] coloring) {
+        int colors = HelpFunctions.maxInArray(coloring) + 1;
+        offered.accumulateAndGet(coloring,
+            (current, candidate) -> current == null || colors < HelpFunctions.maxInArray(current) + 1 ? candidate : current);
+        if (colors <= roundColors) {
+            roundSolved.set(true);
+        }
+    }
+
+    /**
+     * @return Number of colors of the offered coloring, or Integer.MAX_VALUE if none was offered
+     */
+    private int offeredColors() {
+        int[] coloring = offered.get();
+        return coloring == null ? Integer.MAX_VALUE : HelpFunctions.maxInArray(coloring) + 1;
+    }
+
+    /**
+     * @param listener Listener told about the clique bound and every coloring with fewer colors
+     */
+    public void addProgressListener(ProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    public ColoringResult findColoring(Graph originalGraph) {
+        org.example.phase3.phase1algo.structures.Graph graph =
+            new org.example.phase3.phase1algo.structures.Graph(originalGraph.getAdjacency());
+        long startTime = System.currentTimeMillis();
+
+        Bounds.LowerBound.lowerBoundLargestClique(graph, Bounds.LowerBound.CLIQUE_TIME, cancellation);
+        int lowerBound = graph.getLowerBound();
+        ChromaticNumber.DSATUR(graph);
+        int[] best = graph.getColoring();
+        int k = HelpFunctions.maxInArray(best) + 1;
+        System.out.println("HEA best k = " + k + " after " + (System.currentTimeMillis() - startTime) + " ms (DSATUR)");
+        publish(ProgressEvent.Phase.DSATUR, lowerBound, best, startTime);
+
+        TimerCheck timer = cancellation.child(timeLimitMillis);
+        ExecutorService executor = Executors.newFixedThreadPool(islands);
+        timer.start();
+        try {
+            while (k - 1 >= Math.max(lowerBound, 1) && !timer.hasTimerExpired()) {
+                AtomicBoolean solved = new AtomicBoolean(false);
+                roundSolved = solved;
+                roundColors = k - 1;
+                // Read after publishing the round, so a coloring offered in between is either adopted or stops it
+                if (offeredColors() < k) {
+                    best = offered.get().clone();
+                    k = HelpFunctions.maxInArray(best) + 1;
+                    System.out.println("HEA adopted offered k = " + k);
+                    continue;
+                }
+                int[] found = solve(graph, k - 1, best, solved, timer, executor);
+                if (found == null) {
+                    if (offeredColors() < k) {
+                        continue;
+                    }
+                    break;
+                }
+                best = found;
+                k--;
+                System.out.println("HEA best k = " + k + " after " + (System.currentTimeMillis() - startTime) + " ms");
+                publish(ProgressEvent.Phase.HYBRID_EVOLUTIONARY, lowerBound, best, startTime);
+            }
+        } finally {
+            timer.cancel();
+            executor.shutdownNow();
+        }
+
+        Map<Integer, Integer> colorMap = new HashMap<>();
+        for (int i = 0; i < best.length; i++) {
+            colorMap.put(i + 1, best[i] + 1);  // Convert back to 1-based indexing
+        }
+        String info = k == lowerBound
+            ? String.format("Hybrid evolutionary (exact, LB = UB = %d)", k)
+            : String.format("Hybrid evolutionary (LB: %d, UB: %d)", lowerBound, k);
+        return new ColoringResult(colorMap, k, info, lowerBound);
+    }
+
+    private void publish(ProgressEvent.Phase phase, int lowerBound, int[] coloring, long startTime) {
+        ProgressEvent event = new ProgressEvent(phase, lowerBound, HelpFunctions.maxInArray(coloring) + 1,
+            coloring.clone(), System.currentTimeMillis() - startTime);
+        for (ProgressListener listener : listeners) {
+            listener.onProgress(event);
+        }
+    }
+
+    /**
+     * Runs all islands for one number of colors until one of them finds a proper coloring, the solved flag is set
+     * from outside or the timer expires.
+     *
+     * @return A proper k-coloring, or null if none was found
+     */
+    private int[] solve(org.example.phase3.phase1algo.structures.Graph graph, int k, int[] previous,
+                        AtomicBoolean solved, TimerCheck timer, ExecutorService executor) {
+        List<ConcurrentLinkedQueue<int[]>> inboxes = new ArrayList<>();
+        for (int i = 0; i < islands; i++) {
+            inboxes.add(new ConcurrentLinkedQueue<>());
+        }
+
+        List<Callable<int[]>> tasks = new ArrayList<>();
+        for (int i = 0; i < islands; i++) {
+            Island island = new Island(graph, k, previous, SEED + 31L * k + i, timer, solved,
+                inboxes.get(i), inboxes.get((i + 1) % islands));
+            tasks.add(island::evolve);
+        }
+
+        List<Future<int[]>> futures;
+        try {
+            futures = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        // A failed island counts as an unsuccessful one, but the others may still have found a coloring
+        int[] found = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                int[] coloring = futures.get(i).get();
+                if (found == null) {
+                    found = coloring;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return found;
+            } catch (ExecutionException e) {
+                System.err.println("HEA island " + i + " failed at k = " + k + ": " + e.getCause());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * One subpopulation of k-color assignments, evolved by a single thread.
+     */
+    private static class Island {
+        private final int n;
+        private final int k;
+        private final Tabucol tabucol;
+        private final Random random;
+        private final TimerCheck timer;
+        private final AtomicBoolean solved;
+        private final Queue<int[]> inbox;
+        private final Queue<int[]> neighbourInbox;
+        private final int[][] population;
+        private final int[] conflicts;
+
+        Island(org.example.phase3.phase1algo.structures.Graph graph, int k, int[] previous, long seed,
+               TimerCheck timer, AtomicBoolean solved, Queue<int[]> inbox, Queue<int[]> neighbourInbox) {
+            this.n = graph.getOrder();
+            this.k = k;
+            this.tabucol = new Tabucol(graph, 0, seed);
+            this.random = new Random(seed);
+            this.timer = timer;
+            this.solved = solved;
+            this.inbox = inbox;
+            this.neighbourInbox = neighbourInbox;
+            this.population = new int[POPULATION_SIZE][];
+            this.conflicts = new int[POPULATION_SIZE];
+
+            // Seed the population from the previous coloring with the surplus colors spread at random
+            for (int p = 0; p < POPULATION_SIZE; p++) {
+                int[] individual = new int[n];
+                for (int v = 0; v < n; v++) {
+                    individual[v] = previous[v] < k && random.nextInt(POPULATION_SIZE) > p ? previous[v] : random.nextInt(k);
+                }
+                population[p] = individual;
+            }
+        }
+
+        /**
+         * @return A proper k-coloring if this island found one, null otherwise
+         */
+        int[] evolve() {
+            long iterations = (long) TABU_ITERATIONS_PER_VERTEX * n;
+            for (int p = 0; p < POPULATION_SIZE; p++) {
+                conflicts[p] = tabucol.improve(population[p], k, iterations, Long.MAX_VALUE, timer);
+                if (conflicts[p] == 0) {
+                    return publish(population[p]);
+                }
+            }
+
+            for (long generation = 1; !solved.get() && !timer.hasTimerExpired(); generation++) {
+                int first = random.nextInt(POPULATION_SIZE);
+                int second = random.nextInt(POPULATION_SIZE - 1);
+                if (second >= first) {
+                    second++;
+                }
+
+                int[] child = crossover(population[first], population[second]);
+                int childConflicts = tabucol.improve(child, k, iterations, Long.MAX_VALUE, timer);
+                if (childConflicts == 0) {
+                    return publish(child);
+                }
+                replaceWorst(child, childConflicts);
+
+                if (generation % MIGRATION_INTERVAL == 0) {
+                    neighbourInbox.offer(population[bestIndex()].clone());
+                }
+                int[] migrant;
+                while ((migrant = inbox.poll()) != null) {
+                    replaceWorst(migrant, countConflicts(migrant));
+                }
+            }
+            return null;
+        }
+
+        private int[] publish(int[] coloring) {
+            return solved.compareAndSet(false, true) ? coloring : null;
+        }
+
+        /**
+         * Greedy partition crossover: the child takes the largest remaining color class alternately from each
+         * parent, and the vertices left over at the end get random colors.
+         */
+        private int[] crossover(int[] firstParent, int[] secondParent) {
+            int[][] parents = {firstParent, secondParent};
+            int[][] classSize = new int[2][k];
+            for (int v = 0; v < n; v++) {
+                classSize[0][firstParent[v]]++;
+                classSize[1][secondParent[v]]++;
+            }
+
+            int[] child = new int[n];
+            Arrays.fill(child, -1);
+            for (int color = 0; color < k; color++) {
+                int p = color % 2;
+                int largest = 0;
+                for (int c = 1; c < k; c++) {
+                    if (classSize[p][c] > classSize[p][largest]) {
+                        largest = c;
+                    }
+                }
+                for (int v = 0; v < n; v++) {
+                    if (child[v] == -1 && parents[p][v] == largest) {
+                        child[v] = color;
+                        classSize[0][firstParent[v]]--;
+                        classSize[1][secondParent[v]]--;
+                    }
+                }
+            }
+
+            for (int v = 0; v < n; v++) {
+                if (child[v] == -1) {
+                    child[v] = random.nextInt(k);
+                }
+            }
+            return child;
+        }
+
+        /**
+         * Replaces the individual with the most conflicts, if the newcomer is at least as good.
+         */
+        private void replaceWorst(int[] individual, int individualConflicts) {
+            int worst = 0;
+            for (int p = 1; p < POPULATION_SIZE; p++) {
+                if (conflicts[p] > conflicts[worst]) {
+                    worst = p;
+                }
+            }
+            if (individualConflicts <= conflicts[worst]) {
+                population[worst] = individual;
+                conflicts[worst] = individualConflicts;
+            }
+        }
+
+        private int bestIndex() {
+            int best = 0;
+            for (int p = 1; p < POPULATION_SIZE; p++) {
+                if (conflicts[p] < conflicts[best]) {
+                    best = p;
+                }
+            }
+            return best;
+        }
+
+        private int countConflicts(int[] individual) {
+            return tabucol.improve(individual, k, 0, Long.MAX_VALUE, timer);
+        }
+    }
+}
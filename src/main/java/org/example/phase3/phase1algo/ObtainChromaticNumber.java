@@ -1,96 +1,754 @@
 package org.example.phase3.phase1algo;
 
+import org.example.phase3.Evaluation.CanonicalLabeling;
 import org.example.phase3.Evaluation.Graph;
 import org.example.phase3.Algorithms.ColoringResult;
 import org.example.phase3.phase1algo.algorithms.*;
+import org.example.phase3.phase1algo.progress.ProgressEvent;
+import org.example.phase3.phase1algo.progress.ProgressListener;
+import org.example.phase3.phase1algo.sat.KColoringEncoding;
 import org.example.phase3.phase1algo.structures.*;
+import org.example.phase3.phase1algo.utils.HelpFunctions;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
 
 public class ObtainChromaticNumber {
     private static final int BACKTRACKING_TIME = 120000; // 2 minutes in milliseconds
+    private static final int TABUCOL_TIME = 10000; // 10 seconds in milliseconds
+    private static final long TABUCOL_SEED = 42;
+
+    /**
+     * Exact engines that can close the gap between the lower and upper bound
+     */
+    public enum ProvingEngine {
+        /** Backtracking when a single k is left, branch and bound otherwise */
+        AUTO,
+        BACKTRACKING,
+        BRANCH_AND_BOUND,
+        SAT
+    }
+
+    /**
+     * Engines raced on the gap the bounds leave; the first to close it stops the others
+     */
+    private List<ProvingEngine> provingEngines;
+
+    /**
+     * Threads of the backtracking search; the other engines search on one thread each
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Fewest colors of a coloring found for the graph by another engine, inside this solve or outside it
+     */
+    private final AtomicInteger sharedUpperBound = new AtomicInteger(Integer.MAX_VALUE);
+
+    /**
+     * Engines and atom solvers running right now, told about every coloring found elsewhere
+     */
+    private final List<IntConsumer> runningEngines = new CopyOnWriteArrayList<>();
+
+    /**
+     * Root token of the solve; every stage, engine and atom runs on a child of it
+     */
+    private final TimerCheck cancellation;
+
+    /**
+     * Listeners receiving the improving bounds and colorings of a solve
+     */
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Bounds and coloring last published to the listeners, which only ever improve
+     */
+    private int publishedLowerBound;
+    private int publishedUpperBound = Integer.MAX_VALUE;
+    private int[] publishedColoring;
+    private long startTime = System.currentTimeMillis();
+
+    /**
+     * Reduction of the graph being solved; results on the reduced graph are extended through it
+     */
+    private GraphReduction reduction;
+
+    /**
+     * Bounds known before the solve started, from an earlier solve of the same graph
+     */
+    private int knownLowerBound;
+    private int[] knownColoring;
+
+    /**
+     * Number of colors a coloring may use without making the overall result worse, e.g. the largest lower bound among
+     * the atoms of a decomposition or the colors of another component; null if there is none. A graph already colored
+     * within it needs no exact search.
+     */
+    private AtomicInteger target;
+
+    public ObtainChromaticNumber() {
+        this(ProvingEngine.AUTO);
+    }
+
+    /**
+     * @param provingEngine Engine used when the bounds do not meet
+     */
+    public ObtainChromaticNumber(ProvingEngine provingEngine) {
+        this(provingEngine, new TimerCheck());
+    }
+
+    /**
+     * @param provingEngine Engine used when the bounds do not meet
+     * @param cancellation  Token that stops the solve when it expires or is cancelled, e.g. a child of a deadline
+     *                      shared by several solves; {@link #cancel()} cancels it as well
+     */
+    public ObtainChromaticNumber(ProvingEngine provingEngine, TimerCheck cancellation) {
+        this.provingEngines = List.of(provingEngine);
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Proves with several engines at once after a single run of the bounds pipeline, e.g. backtracking next to SAT.
+     * Each engine prunes with the colorings the others find, and the first one to close the gap stops the rest.
+     *
+     * @param engines Engines used when the bounds do not meet, at least one
+     * @throws IllegalArgumentException If no engine is given
+     */
+    public void setProvingEngines(ProvingEngine... engines) {
+        if (engines.length == 0) {
+            throw new IllegalArgumentException("At least one proving engine is needed");
+        }
+        this.provingEngines = List.of(engines);
+    }
+
+    /**
+     * Sets the number of threads the backtracking search of the next solve may use; atoms solved side by side share
+     * them. Branch and bound and SAT always search on one thread each.
+     *
+     * @param threads Number of threads, at least 1
+     * @throws IllegalArgumentException If threads is less than 1
+     */
+    public void setParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The solve needs at least one thread, got " + threads);
+        }
+        this.parallelism = threads;
+    }
+
+    /**
+     * Reports a proper coloring of the graph with the given number of colors found elsewhere, e.g. by another engine
+     * of a portfolio. The exact engines of the running solve only search for colorings with fewer colors from then
+     * on; the result does not include the coloring itself. May be called from any thread.
+     *
+     * @param colors Number of colors of a proper coloring of the graph being solved
+     */
+    public void offerUpperBound(int colors) {
+        // Only a coloring with fewer colors than any offered before can stop more of the search
+        if (sharedUpperBound.getAndAccumulate(colors, Math::min) <= colors) {
+            return;
+        }
+        for (IntConsumer engine : runningEngines) {
+            engine.accept(colors);
+        }
+    }
+
+    /**
+     * Adds an engine to those told about colorings found elsewhere, starting with the best one known now
+     */
+    private void register(IntConsumer engine) {
+        runningEngines.add(engine);
+        int colors = sharedUpperBound.get();
+        if (colors < Integer.MAX_VALUE) {
+            engine.accept(colors);
+        }
+    }
+
+    /**
+     * Starts the next {@link #findColoring(Graph)} call from bounds found earlier for the same graph: the known lower
+     * bound is used from the first stage on, and the known coloring is returned if the solve finds none with fewer
+     * colors.
+     *
+     * @param lowerBound Proven lower bound on the chromatic number, 0 if none is known
+     * @param coloring   Proper coloring with 0-based vertices and colors, null if there is none
+     */
+    public void setWarmStart(int lowerBound, int[] coloring) {
+        this.knownLowerBound = lowerBound;
+        this.knownColoring = coloring;
+    }
+
+    /**
+     * Lets the next {@link #findColoring(Graph)} call stop without an exact search once it has a coloring with no more
+     * colors than the target. The target may rise while the solve runs; the solve itself raises it to its lower
+     * bound, since its result never uses fewer colors than that.
+     *
+     * @param target Number of colors that is good enough, or null to solve exactly
+     */
+    public void setTarget(AtomicInteger target) {
+        this.target = target;
+    }
+
+    /**
+     * Stops a running {@link #findColoring(Graph)} call within milliseconds; it returns the best coloring found so far.
+     * The instance cannot be reused afterwards.
+     */
+    public void cancel() {
+        cancellation.cancel();
+    }
+
+    /**
+     * Registers a listener that is told every time the lower bound rises or a coloring with fewer colors is found,
+     * so a caller can stop the solve with {@link #cancel()} once the gap is small enough.
+     *
+     * @param listener Listener called on the solver's threads
+     */
+    public void addProgressListener(ProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener Listener to stop notifying
+     */
+    public void removeProgressListener(ProgressListener listener) {
+        listeners.remove(listener);
+    }
 
     public ColoringResult findColoring(Graph originalGraph) {
         try {
-            // Convert our Graph to the Phase 1 format
-            int[][] matrix = new int[originalGraph.getVertexCount()][originalGraph.getVertexCount()];
-            int[] edgeList = new int[originalGraph.getEdges().size() * 2];
-            int idx = 0;
-            for (var edge : originalGraph.getEdges()) {
-                // Ensure indices are within bounds
-                if (edge.u <= 0 || edge.u > originalGraph.getVertexCount() || 
-                    edge.v <= 0 || edge.v > originalGraph.getVertexCount()) {
-                    throw new IllegalArgumentException("Invalid vertex indices in edge");
+            reduction = null;
+            startTime = System.currentTimeMillis();
+            publishedLowerBound = 0;
+            publishedUpperBound = Integer.MAX_VALUE;
+            publishedColoring = null;
+            // Wrap the shared CSR adjacency in the Phase 1 format
+            org.example.phase3.phase1algo.structures.Graph graph = 
+                new org.example.phase3.phase1algo.structures.Graph(originalGraph.getAdjacency());
+
+            // Split along clique separators; each atom is a smaller, independent instance
+            CliqueSeparatorDecomposition decomposition = new CliqueSeparatorDecomposition(graph);
+            ColoringResult result = decomposition.getAtomCount() > 1 ? solveAtoms(graph, decomposition) : solve(graph);
+            return preferKnownColoring(result);
+
+        } catch (Exception e) {
+            // If any error occurs, return a safe fallback using DSATUR
+            return fallbackToSafeColoring(originalGraph);
+        }
+    }
+
+    /**
+     * Solves every atom of a clique separator decomposition on its own thread and glues the colorings.
+     */
+    private ColoringResult solveAtoms(org.example.phase3.phase1algo.structures.Graph graph,
+                                      CliqueSeparatorDecomposition decomposition) throws Exception {
+        int atomCount = decomposition.getAtomCount();
+        Integer[] bySize = new Integer[atomCount];
+        int largest = 0;
+        for (int i = 0; i < atomCount; i++) {
+            bySize[i] = i;
+            largest = Math.max(largest, decomposition.getAtom(i).length);
+        }
+        System.out.println("Clique separator decomposition split " + graph.getOrder() + " vertices into "
+            + atomCount + " atoms (largest: " + largest + " vertices)");
+        // Start the largest atoms first, they take longest
+        Arrays.sort(bySize, (a, b) -> Integer.compare(decomposition.getAtom(b).length, decomposition.getAtom(a).length));
+
+        // One time budget for all atoms together; if one atom fails the others are cancelled with this token instead
+        // of running on unobserved. The atoms running side by side split the threads of the solve between them.
+        TimerCheck atoms = cancellation.child(BACKTRACKING_TIME);
+        atoms.start();
+        // An atom colored within the lower bound of another atom cannot raise the chromatic number of the graph
+        AtomicInteger atomLowerBound = new AtomicInteger(Math.max(knownLowerBound, target != null ? target.get() : 0));
+        int atomThreads = Math.min(atomCount, parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(atomThreads);
+        List<IntConsumer> atomSolvers = new ArrayList<>();
+        List<Future<ColoringResult>> futures = new ArrayList<>();
+        // Best coloring and lower bound reported by every atom so far, glued into progress events for the whole graph
+        int[][] atomProgressColorings = new int[atomCount][];
+        int[] atomLowerBounds = new int[atomCount];
+        try {
+            for (int i = 0; i < atomCount; i++) {
+                futures.add(null);
+            }
+            for (int atom : bySize) {
+                org.example.phase3.phase1algo.structures.Graph atomGraph = decomposition.getAtomGraph(atom);
+                ObtainChromaticNumber atomSolver = new ObtainChromaticNumber(ProvingEngine.AUTO, atoms);
+                atomSolver.provingEngines = provingEngines;
+                atomSolver.parallelism = Math.max(1, parallelism / atomThreads);
+                // Every atom only needs as many colors as the whole graph, just like the reduced graph
+                atomSolver.knownLowerBound = knownLowerBound;
+                atomSolver.target = atomLowerBound;
+                // An atom is an induced subgraph, so a coloring of the whole graph bounds it as well
+                IntConsumer offer = atomSolver::offerUpperBound;
+                atomSolvers.add(offer);
+                register(offer);
+                if (!listeners.isEmpty()) {
+                    // Start from DSATUR so the glued coloring can be published before every atom has reported
+                    atomProgressColorings[atom] = ChromaticNumber.dsaturColoring(atomGraph.getAdjacency());
+                    atomSolver.addProgressListener(event -> publishAtomProgress(
+                        decomposition, atom, event, atomProgressColorings, atomLowerBounds));
                 }
-                edgeList[idx++] = edge.u - 1;  // Convert to 0-based indexing
-                edgeList[idx++] = edge.v - 1;
-                matrix[edge.u - 1][edge.v - 1] = 1;
-                matrix[edge.v - 1][edge.u - 1] = 1;
+                futures.set(atom, executor.submit(() -> {
+                    ColoringResult result = atomSolver.solve(atomGraph);
+                    atomLowerBound.accumulateAndGet(result.getLowerBound(), Math::max);
+                    return result;
+                }));
             }
-            
-            org.example.phase3.phase1algo.structures.Graph graph = 
-                new org.example.phase3.phase1algo.structures.Graph(originalGraph.getVertexCount(), matrix, edgeList);
 
-            // Check if graph is complete
-            if (isComplete(graph)) {
-                return handleCompleteGraph(graph);
+            int[][] atomColorings = new int[atomCount][];
+            int chromaticNumber = 0;
+            int lowerBound = 0;
+            String hardest = "";
+            for (int i = 0; i < atomCount; i++) {
+                ColoringResult result = futures.get(i).get();
+                int[] coloring = new int[decomposition.getAtom(i).length];
+                for (int v = 0; v < coloring.length; v++) {
+                    coloring[v] = result.getColorAssignments().get(v + 1) - 1;
+                }
+                atomColorings[i] = coloring;
+                lowerBound = Math.max(lowerBound, result.getLowerBound());
+                if (result.getChromaticNumber() > chromaticNumber) {
+                    chromaticNumber = result.getChromaticNumber();
+                    hardest = result.getAlgorithmName();
+                }
             }
 
-            // 1. Get upper bound using greedy algorithm
-            Bounds.upperBoundGreedy(graph);
-            int upperBoundWP = graph.getUpperBound();
-
-            // 2. Get lower bound using clique detection
-            Bounds.LowerBound.lowerBoundLargestClique(graph);
-            int lowerBound = graph.getLowerBound();
-
-            // 3. Get DSATUR upper bound
-            ChromaticNumber.DSATUR(graph);
-            int upperBoundDsatur = graph.getChromaticNumber();
-
-            // Use the lowest upper bound
-            int lowestUpperBound = Math.min(upperBoundDsatur, upperBoundWP);
-            
-            // If bounds match, we have the exact chromatic number
-            if (lowerBound == lowestUpperBound) {
-                return createColoringResult(graph, lowerBound, 
-                    String.format("Exact chromatic number found through bounds (LB = UB = %d)", lowerBound));
+            graph.setColoring(decomposition.glue(atomColorings));
+            return createColoringResult(graph, chromaticNumber, lowerBound,
+                String.format("Clique separator decomposition into %d atoms, hardest: %s", atomCount, hardest));
+        } finally {
+            runningEngines.removeAll(atomSolvers);
+            atoms.cancel();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Records the progress of one atom and publishes the glued coloring once every atom has one.
+     * The lower bound of the whole graph is the largest lower bound among the atoms.
+     */
+    private synchronized void publishAtomProgress(CliqueSeparatorDecomposition decomposition, int atom,
+                                                  ProgressEvent event, int[][] colorings, int[] lowerBounds) {
+        lowerBounds[atom] = Math.max(lowerBounds[atom], event.getLowerBound());
+        if (event.getColoring() != null) {
+            colorings[atom] = event.getColoring();
+        }
+        int lowerBound = 0;
+        boolean complete = true;
+        for (int i = 0; i < colorings.length; i++) {
+            lowerBound = Math.max(lowerBound, lowerBounds[i]);
+            complete &= colorings[i] != null;
+        }
+        publish(event.getPhase(), lowerBound, complete ? decomposition.glue(colorings) : null);
+    }
+
+    /**
+     * Publishes an event to the listeners if the lower bound rose or the coloring uses fewer colors than the last one.
+     *
+     * @param phase      Stage that found the bound or coloring
+     * @param lowerBound Lower bound on the chromatic number
+     * @param coloring   Proper coloring of the graph being solved, possibly reduced; null if only the bound changed
+     */
+    private synchronized void publish(ProgressEvent.Phase phase, int lowerBound, int[] coloring) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        int[] fullColoring = coloring == null ? null : reduction != null ? reduction.extend(coloring) : coloring.clone();
+        int colors = fullColoring == null ? Integer.MAX_VALUE : HelpFunctions.maxInArray(fullColoring) + 1;
+        if (lowerBound <= publishedLowerBound && colors >= publishedUpperBound) {
+            return;
+        }
+        publishedLowerBound = Math.max(publishedLowerBound, lowerBound);
+        if (colors < publishedUpperBound) {
+            publishedUpperBound = colors;
+            publishedColoring = fullColoring;
+        }
+        ProgressEvent event = new ProgressEvent(phase, publishedLowerBound,
+            publishedColoring == null ? -1 : publishedUpperBound, publishedColoring,
+            System.currentTimeMillis() - startTime);
+        for (ProgressListener listener : listeners) {
+            listener.onProgress(event);
+        }
+    }
+
+    /**
+     * Runs the bounds, reduction and exact search pipeline on a graph.
+     */
+    private ColoringResult solve(org.example.phase3.phase1algo.structures.Graph graph) throws Exception {
+        // Check if graph is complete
+        if (isComplete(graph)) {
+            return handleCompleteGraph(graph);
+        }
+
+        // 1. Get lower bound using clique detection
+        Bounds.LowerBound.lowerBoundLargestClique(graph, Bounds.LowerBound.CLIQUE_TIME, cancellation);
+        int cliqueBound = graph.getLowerBound();
+        publish(ProgressEvent.Phase.CLIQUE_BOUND, cliqueBound, null);
+
+        // 2. Remove vertices that can always be colored afterwards; the rest of the pipeline sees the reduced graph
+        int originalOrder = graph.getOrder();
+        reduction = new GraphReduction(graph);
+        int removedVertices = reduction.reduce(cliqueBound);
+        graph = reduction.getReducedGraph();
+
+        // The reduced graph needs max(its own chromatic number, cliqueBound) colors in total, so its Hoffman bound
+        // holds for the full graph too, and a higher lower bound lets the reduction remove more vertices
+        Bounds.Spectrum spectrum = Bounds.LowerBound.lowerBoundHoffman(graph, Bounds.Spectrum.SPECTRAL_TIME, cancellation);
+        int lowerBound = Math.max(cliqueBound, Math.max(spectrum.hoffmanLowerBound(), knownLowerBound));
+        if (lowerBound > cliqueBound) {
+            publish(spectrum.hoffmanLowerBound() > cliqueBound ? ProgressEvent.Phase.SPECTRAL_BOUND
+                : ProgressEvent.Phase.CLIQUE_BOUND, lowerBound, null);
+            removedVertices += reduction.reduce(lowerBound);
+            graph = reduction.getReducedGraph();
+        }
+        graph.setLowerBound(lowerBound);
+        if (target != null) {
+            target.accumulateAndGet(lowerBound, Math::max);
+        }
+        if (removedVertices > 0) {
+            System.out.println("Reduction removed " + removedVertices + " of " + originalOrder + " vertices");
+        }
+        if (graph.getOrder() == 0) {
+            publish(ProgressEvent.Phase.REDUCTION, lowerBound, graph.getColoring());
+            return withSpectralBounds(createColoringResult(graph, lowerBound, lowerBound,
+                String.format("Exact chromatic number found through reduction (LB = UB = %d)", lowerBound)), spectrum);
+        }
+
+        // 3. Get upper bound using greedy algorithm
+        Bounds.upperBoundGreedy(graph);
+        int upperBoundWP = graph.getUpperBound();
+        int[] greedyColoring = graph.getColoring();
+        publish(ProgressEvent.Phase.GREEDY, lowerBound, greedyColoring);
+
+        // 4. Get DSATUR upper bound
+        ChromaticNumber.DSATUR(graph);
+        int upperBoundDsatur = graph.getChromaticNumber();
+        publish(ProgressEvent.Phase.DSATUR, lowerBound, graph.getColoring());
+
+        // Use the lowest upper bound
+        int lowestUpperBound = Math.min(upperBoundDsatur, upperBoundWP);
+        if (upperBoundWP < upperBoundDsatur) {
+            graph.setColoring(greedyColoring);
+        }
+        int[] bestColoring = graph.getColoring();
+
+        // 4b. Smallest-last greedy coloring, which certifies the Wilf bound
+        Bounds.upperBoundSmallestLast(graph);
+        if (graph.getUpperBound() < lowestUpperBound) {
+            lowestUpperBound = graph.getUpperBound();
+            publish(ProgressEvent.Phase.SPECTRAL_BOUND, lowerBound, graph.getColoring());
+        } else {
+            graph.setColoring(bestColoring);
+            graph.setUpperBound(lowestUpperBound);
+        }
+
+        if (lowerBound < lowestUpperBound && isWithinTarget(lowestUpperBound)) {
+            return withSpectralBounds(createTargetResult(graph, lowerBound, lowestUpperBound), spectrum);
+        }
+
+        // 5. Drive the upper bound down with tabu search
+        if (lowerBound < lowestUpperBound) {
+            Tabucol tabucol = new Tabucol(graph, TABUCOL_TIME, TABUCOL_SEED, cancellation);
+            tabucol.setImprovementListener(coloring -> publish(ProgressEvent.Phase.TABUCOL, lowerBound, coloring));
+            int[] tabuColoring = tabucol.reduce(graph.getColoring(),
+                target != null ? Math.max(lowerBound, target.get()) : lowerBound);
+            int upperBoundTabu = HelpFunctions.maxInArray(tabuColoring) + 1;
+            if (upperBoundTabu < lowestUpperBound) {
+                lowestUpperBound = upperBoundTabu;
+                graph.setColoring(tabuColoring);
+            }
+        }
+        
+        // If bounds match, we have the exact chromatic number
+        // (the reduced graph may need fewer colors than the lower bound of the full graph)
+        if (lowestUpperBound <= lowerBound) {
+            return withSpectralBounds(createColoringResult(graph, lowerBound, lowerBound,
+                String.format("Exact chromatic number found through bounds (LB = UB = %d)", lowerBound)), spectrum);
+        }
+        if (isWithinTarget(lowestUpperBound)) {
+            return withSpectralBounds(createTargetResult(graph, lowerBound, lowestUpperBound), spectrum);
+        }
+
+        return withSpectralBounds(prove(graph, lowestUpperBound, lowerBound), spectrum);
+    }
+
+    /**
+     * Adds the spectral bounds of the reduced graph to the description of a result, where they are reported instead
+     * of on the console; the Hoffman bound also reaches the listeners as a lower bound when it beats the clique.
+     */
+    private static ColoringResult withSpectralBounds(ColoringResult result, Bounds.Spectrum spectrum) {
+        return new ColoringResult(result.getColorAssignments(), result.getChromaticNumber(),
+            String.format("%s; spectral bounds: Hoffman %d, Wilf %d", result.getAlgorithmName(),
+                spectrum.hoffmanLowerBound(), spectrum.wilfUpperBound()), result.getLowerBound());
+    }
+
+    /**
+     * Closes the gap the bounds leave with the proving engines, racing them on their own threads if there are several.
+     * The engines only read the graph, so they share it; the result takes the best coloring and the best lower bound
+     * any of them found.
+     */
+    private ColoringResult prove(org.example.phase3.phase1algo.structures.Graph graph,
+                                 int upperBound, int lowerBound) throws Exception {
+        // One k left to decide: a single k-colorability search is cheapest.
+        // Several k left: one branch and bound tree covers them all instead of a search per k.
+        List<ProvingEngine> engines = new ArrayList<>();
+        for (ProvingEngine engine : provingEngines) {
+            if (engine == ProvingEngine.AUTO) {
+                engine = upperBound - lowerBound >= 2 ? ProvingEngine.BRANCH_AND_BOUND : ProvingEngine.BACKTRACKING;
+            }
+            if (!engines.contains(engine)) {
+                engines.add(engine);
             }
+        }
+        if (engines.size() == 1) {
+            return runEngine(engines.get(0), graph, upperBound, lowerBound, cancellation);
+        }
 
-            // Run backtracking with the bounds
-            TimerCheck timer = new TimerCheck(BACKTRACKING_TIME);
-            AtomicInteger bestChromaticNumber = new AtomicInteger(lowestUpperBound);
-            Backtracking backtracking = new Backtracking(timer, bestChromaticNumber);
-            
-            timer.start();
-            backtracking.runBacktracking(matrix, lowestUpperBound, lowerBound);
-
-            // Get the final chromatic number and coloring
-            int chromaticNumber = bestChromaticNumber.get();
-            if (chromaticNumber == Integer.MAX_VALUE) {
-                chromaticNumber = lowestUpperBound;  // Use the best upper bound we found
+        TimerCheck race = cancellation.child();
+        ExecutorService executor = Executors.newFixedThreadPool(engines.size());
+        try {
+            List<Future<ColoringResult>> futures = new ArrayList<>();
+            for (ProvingEngine engine : engines) {
+                futures.add(executor.submit(() -> {
+                    ColoringResult result = runEngine(engine, graph, upperBound, lowerBound, race);
+                    if (result.getLowerBound() >= result.getChromaticNumber()) {
+                        race.cancel();
+                    }
+                    return result;
+                }));
             }
 
-            // Get the coloring from backtracking
-            int[] backtrackingColoring = backtracking.getBestColoring();
-            if (backtrackingColoring != null && isValidColoring(backtrackingColoring, matrix)) {
-                graph.setColoring(backtrackingColoring);
+            ColoringResult best = null;
+            ColoringResult strongest = null;
+            for (Future<ColoringResult> future : futures) {
+                ColoringResult result = future.get();
+                if (best == null || result.getChromaticNumber() < best.getChromaticNumber()) {
+                    best = result;
+                }
+                if (strongest == null || result.getLowerBound() > strongest.getLowerBound()) {
+                    strongest = result;
+                }
             }
+            if (strongest.getLowerBound() <= best.getLowerBound()) {
+                return best;
+            }
+            return new ColoringResult(best.getColorAssignments(), best.getChromaticNumber(),
+                String.format("%s, lower bound %d from %s", best.getAlgorithmName(), strongest.getLowerBound(),
+                    strongest.getAlgorithmName()), strongest.getLowerBound());
+        } finally {
+            race.cancel();
+            executor.shutdownNow();
+        }
+    }
 
-            return createColoringResult(graph, chromaticNumber,
-                String.format("Phase 1 Algorithm (LB: %d, UB: %d, Final: %d)", 
-                    lowerBound, lowestUpperBound, chromaticNumber));
+    private ColoringResult runEngine(ProvingEngine engine, org.example.phase3.phase1algo.structures.Graph graph,
+                                     int upperBound, int lowerBound, TimerCheck parent) {
+        switch (engine) {
+            case BRANCH_AND_BOUND:
+                return runBranchAndBound(graph, upperBound, lowerBound, parent);
+            case SAT:
+                return runSat(graph, upperBound, lowerBound, parent);
+            default:
+                return runBacktracking(graph, upperBound, lowerBound, parent);
+        }
+    }
 
-        } catch (Exception e) {
-            // If any error occurs, return a safe fallback using DSATUR
-            return fallbackToSafeColoring(originalGraph);
+    /**
+     * Publishes a coloring found by an exact engine and passes its number of colors on to the engines racing it
+     */
+    private void improve(ProgressEvent.Phase phase, int lowerBound, int[] coloring) {
+        publish(phase, lowerBound, coloring);
+        offerUpperBound(HelpFunctions.maxInArray(coloring) + 1);
+    }
+
+    private ColoringResult runBacktracking(org.example.phase3.phase1algo.structures.Graph graph,
+                                           int upperBound, int lowerBound, TimerCheck parent) {
+        // Run backtracking with the bounds, using the best coloring so far as incumbent
+        TimerCheck timer = parent.child(BACKTRACKING_TIME);
+        AtomicInteger bestChromaticNumber = new AtomicInteger(upperBound);
+        Backtracking backtracking = new Backtracking(timer, bestChromaticNumber);
+        backtracking.setParallelism(parallelism);
+        backtracking.setImprovementListener(coloring -> improve(ProgressEvent.Phase.BACKTRACKING, lowerBound, coloring));
+        CanonicalLabeling symmetry = CanonicalLabeling.of(graph.getAdjacency());
+        if (symmetry != null) {
+            backtracking.setAutomorphisms(symmetry.getGenerators());
+        }
+
+        IntConsumer offer = backtracking::offerUpperBound;
+        register(offer);
+        timer.start();
+        try {
+            backtracking.runBacktracking(graph, upperBound, lowerBound, graph.getColoring());
+        } finally {
+            runningEngines.remove(offer);
+        }
+
+        // Get the final chromatic number and coloring
+        int chromaticNumber = bestChromaticNumber.get();
+        if (chromaticNumber == Integer.MAX_VALUE) {
+            chromaticNumber = upperBound;  // Use the best upper bound we found
+        }
+
+        // Get the coloring from backtracking
+        int[] coloring = backtracking.getBestColoring();
+        if (coloring == null || !isValidColoring(coloring, graph)) {
+            coloring = graph.getColoring();
         }
+        int provenLowerBound = backtracking.isOptimal() ? chromaticNumber : backtracking.getLowerBound();
+        if (provenLowerBound > lowerBound) {
+            publish(ProgressEvent.Phase.BACKTRACKING, provenLowerBound, coloring);
+        }
+
+        return createColoringResult(coloring, chromaticNumber, provenLowerBound,
+            String.format("Phase 1 Algorithm (LB: %d, UB: %d, Final: %d)",
+                lowerBound, upperBound, chromaticNumber));
+    }
+
+    private ColoringResult runBranchAndBound(org.example.phase3.phase1algo.structures.Graph graph,
+                                             int upperBound, int lowerBound, TimerCheck parent) {
+        TimerCheck timer = parent.child(BACKTRACKING_TIME);
+        DsaturBranchAndBound branchAndBound = new DsaturBranchAndBound(timer);
+        branchAndBound.setImprovementListener(
+            coloring -> improve(ProgressEvent.Phase.BRANCH_AND_BOUND, lowerBound, coloring));
+
+        IntConsumer offer = branchAndBound::offerUpperBound;
+        register(offer);
+        timer.start();
+        int[] coloring;
+        try {
+            coloring = branchAndBound.solve(graph, graph.getColoring(), lowerBound);
+        } finally {
+            runningEngines.remove(offer);
+            timer.cancel();
+        }
+
+        int chromaticNumber = branchAndBound.getUpperBound();
+        if (!isValidColoring(coloring, graph)) {
+            coloring = graph.getColoring();
+        }
+        int provenLowerBound = branchAndBound.isOptimal() ? chromaticNumber : branchAndBound.getLowerBound();
+        if (provenLowerBound > lowerBound) {
+            publish(ProgressEvent.Phase.BRANCH_AND_BOUND, provenLowerBound, coloring);
+        }
+
+        return createColoringResult(coloring, chromaticNumber, provenLowerBound,
+            String.format("Phase 1 Algorithm, DSATUR branch and bound (LB: %d, UB: %d, Final: %d%s)",
+                lowerBound, upperBound, chromaticNumber, branchAndBound.isOptimal() ? "" : ", not proven"));
+    }
+
+    private ColoringResult runSat(org.example.phase3.phase1algo.structures.Graph graph,
+                                  int upperBound, int lowerBound, TimerCheck parent) {
+        TimerCheck timer = parent.child(BACKTRACKING_TIME);
+        // The incumbent already has upperBound colors, so only fewer colors need encoding
+        KColoringEncoding encoding = new KColoringEncoding(graph, upperBound - 1, graph.getMaxClique());
+
+        // Each k is decided under a token of its own, which a coloring with at most k colors from elsewhere cancels
+        AtomicInteger tried = new AtomicInteger();
+        AtomicReference<TimerCheck> attempt = new AtomicReference<>(timer);
+        IntConsumer offer = colors -> {
+            if (colors <= tried.get()) {
+                attempt.get().cancel();
+            }
+        };
+        register(offer);
+        timer.start();
+        int chromaticNumber = upperBound;
+        int[] bestColoring = graph.getColoring();
+        int provenLowerBound = lowerBound;
+        try {
+            for (int k = upperBound - 1; k >= lowerBound; k--) {
+                attempt.set(timer.child());
+                // Publish k only once it is below every coloring offered so far, and read the bound again after
+                // publishing, so a coloring offered in between either lowers k here or cancels the attempt
+                int bound;
+                do {
+                    bound = sharedUpperBound.get();
+                    k = Math.min(k, bound - 1);
+                    tried.set(k);
+                } while (sharedUpperBound.get() != bound);
+                if (k < lowerBound) {
+                    break;
+                }
+                System.out.println("SAT: trying coloring with " + k + " colors...");
+                Boolean colorable = encoding.isColorable(k, attempt.get());
+                if (colorable == null) {
+                    if (!timer.hasTimerExpired()) {
+                        // Stopped by a coloring from elsewhere with at most k colors, which proves nothing about k
+                        k = Math.min(k + 1, sharedUpperBound.get());
+                        continue;
+                    }
+                    System.out.println("Timer expired at bound: " + k);
+                    break;
+                }
+                if (!colorable) {
+                    provenLowerBound = k + 1;
+                    break;
+                }
+                int[] coloring = encoding.getColoring();
+                if (isValidColoring(coloring, graph)) {
+                    bestColoring = coloring;
+                    chromaticNumber = k;
+                    improve(ProgressEvent.Phase.SAT, lowerBound, coloring);
+                }
+            }
+        } finally {
+            runningEngines.remove(offer);
+            timer.cancel();
+        }
+        boolean proven = provenLowerBound >= chromaticNumber || chromaticNumber == lowerBound;
+        if (proven) {
+            provenLowerBound = chromaticNumber;
+        }
+        if (provenLowerBound > lowerBound) {
+            publish(ProgressEvent.Phase.SAT, provenLowerBound, bestColoring);
+        }
+
+        return createColoringResult(bestColoring, chromaticNumber, provenLowerBound,
+            String.format("Phase 1 Algorithm, CDCL SAT (LB: %d, UB: %d, Final: %d%s)",
+                lowerBound, upperBound, chromaticNumber, proven ? "" : ", not proven"));
+    }
+
+    /**
+     * @return The known coloring from {@link #setWarmStart(int, int[])} if it uses fewer colors than the result,
+     * otherwise the result; either way with the known lower bound taken into account
+     */
+    private ColoringResult preferKnownColoring(ColoringResult result) {
+        int lowerBound = Math.max(result.getLowerBound(), knownLowerBound);
+        if (knownColoring != null && HelpFunctions.maxInArray(knownColoring) + 1 < result.getChromaticNumber()) {
+            int colors = HelpFunctions.maxInArray(knownColoring) + 1;
+            Map<Integer, Integer> colorMap = new HashMap<>();
+            for (int i = 0; i < knownColoring.length; i++) {
+                colorMap.put(i + 1, knownColoring[i] + 1);  // Convert back to 1-based indexing
+            }
+            return new ColoringResult(colorMap, colors,
+                String.format("Known coloring, not improved (LB: %d, UB: %d)", lowerBound, colors), lowerBound);
+        }
+        if (lowerBound > result.getLowerBound()) {
+            return new ColoringResult(result.getColorAssignments(), result.getChromaticNumber(),
+                result.getAlgorithmName(), lowerBound);
+        }
+        return result;
+    }
+
+    /**
+     * @return True if a target is set and the given number of colors is within it
+     */
+    private boolean isWithinTarget(int upperBound) {
+        return target != null && upperBound <= target.get();
+    }
+
+    /**
+     * Result for a graph colored within the target, left without an exact search
+     */
+    private ColoringResult createTargetResult(org.example.phase3.phase1algo.structures.Graph graph,
+                                              int lowerBound, int upperBound) {
+        return createColoringResult(graph, upperBound, lowerBound,
+            String.format("Bounds within the target of %d colors (LB: %d, UB: %d)", target.get(), lowerBound, upperBound));
     }
 
     private boolean isComplete(org.example.phase3.phase1algo.structures.Graph graph) {
         int n = graph.getOrder();
-        int expectedEdges = (n * (n - 1)) / 2;
-        return graph.getEdgeList().length == expectedEdges * 2;  // *2 because edges are stored twice
+        long expectedEdges = ((long) n * (n - 1)) / 2;
+        return graph.getEdgeCount() == expectedEdges;
     }
 
     private ColoringResult handleCompleteGraph(org.example.phase3.phase1algo.structures.Graph graph) {
@@ -99,46 +757,48 @@ public class ObtainChromaticNumber {
         for (int i = 0; i < n; i++) {
             colorMap.put(i + 1, i + 1);  // Each vertex gets a unique color
         }
-        return new ColoringResult(colorMap, n, "Complete graph - chromatic number equals order");
+        int[] coloring = new int[n];
+        Arrays.setAll(coloring, i -> i);
+        publish(ProgressEvent.Phase.CLIQUE_BOUND, n, coloring);
+        return new ColoringResult(colorMap, n, "Complete graph - chromatic number equals order", n);
     }
 
     private ColoringResult createColoringResult(org.example.phase3.phase1algo.structures.Graph graph, 
-                                              int chromaticNumber, String algorithmInfo) {
+                                              int chromaticNumber, int lowerBound, String algorithmInfo) {
+        return createColoringResult(graph.getColoring(), chromaticNumber, lowerBound, algorithmInfo);
+    }
+
+    private ColoringResult createColoringResult(int[] graphColoring, int chromaticNumber, int lowerBound,
+                                                String algorithmInfo) {
         Map<Integer, Integer> colorMap = new HashMap<>();
-        int[] coloring = graph.getColoring();
+        // Put the vertices removed by the reduction back
+        int[] coloring = reduction != null ? reduction.extend(graphColoring) : graphColoring;
         for (int i = 0; i < coloring.length; i++) {
             colorMap.put(i + 1, coloring[i] + 1);  // Convert back to 1-based indexing
         }
-        return new ColoringResult(colorMap, chromaticNumber, algorithmInfo);
+        return new ColoringResult(colorMap, chromaticNumber, algorithmInfo, lowerBound);
     }
 
     private ColoringResult fallbackToSafeColoring(Graph originalGraph) {
+        reduction = null;
         // Create a new graph instance for DSATUR
-        int[][] matrix = new int[originalGraph.getVertexCount()][originalGraph.getVertexCount()];
-        int[] edgeList = new int[originalGraph.getEdges().size() * 2];
-        int idx = 0;
-        for (var edge : originalGraph.getEdges()) {
-            if (edge.u - 1 < matrix.length && edge.v - 1 < matrix.length) {
-                edgeList[idx++] = edge.u - 1;
-                edgeList[idx++] = edge.v - 1;
-                matrix[edge.u - 1][edge.v - 1] = 1;
-                matrix[edge.v - 1][edge.u - 1] = 1;
-            }
-        }
-        
         org.example.phase3.phase1algo.structures.Graph graph = 
-            new org.example.phase3.phase1algo.structures.Graph(originalGraph.getVertexCount(), matrix, edgeList);
+            new org.example.phase3.phase1algo.structures.Graph(originalGraph.getAdjacency());
         
         ChromaticNumber.DSATUR(graph);
-        return createColoringResult(graph, graph.getChromaticNumber(),
+        return createColoringResult(graph, graph.getChromaticNumber(), 0,
             "Fallback to DSATUR due to error in main algorithm");
     }
 
-    private boolean isValidColoring(int[] coloring, int[][] matrix) {
+    private boolean isValidColoring(int[] coloring, org.example.phase3.phase1algo.structures.Graph graph) {
         for (int i = 0; i < coloring.length; i++) {
             if (coloring[i] == -1) return false;
-            for (int j = 0; j < coloring.length; j++) {
-                if (matrix[i][j] == 1 && coloring[i] == coloring[j]) {
+        }
+        int[] offsets = graph.getAdjacency().getOffsets();
+        int[] neighbours = graph.getAdjacency().getNeighbours();
+        for (int v = 0; v < coloring.length; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                if (coloring[v] == coloring[neighbours[i]]) {
                     return false;
                 }
             }
@@ -0,0 +1,282 @@
+package org.example.phase3.phase1algo;
+
+import org.example.phase3.Evaluation.Graph;
+import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.phase1algo.algorithms.TimerCheck;
+import org.example.phase3.phase1algo.progress.ProgressListener;
+import org.example.phase3.phase1algo.utils.HelpFunctions;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs several coloring engines on the same graph at once, since which one wins varies from graph to graph:
+ * the Phase 1 pipeline, which races its automatic exact engine against SAT once its bounds are in, and the hybrid
+ * evolutionary search. The engines report their progress to one set of shared bounds, kept in atomics; every coloring
+ * that improves them is passed on to the other engines, which from then on only search below it, and every engine is
+ * cancelled as soon as the best lower bound meets the best coloring, or the best coloring meets the target.
+ */
+public class PortfolioSolver {
+
+    /**
+     * The SAT engine encodes vertices times colors variables, so it is left out of the portfolio from this size on
+     */
+    private static final int SAT_MAX_VERTICES = 500;
+
+    /**
+     * Time budget of the hybrid evolutionary engine in milliseconds
+     */
+    private static final long HEA_TIME = 60000;
+
+    /**
+     * Bounds known before the solve started, from an earlier solve of the same graph
+     */
+    private int knownLowerBound;
+    private int[] knownColoring;
+
+    /**
+     * Number of colors that is good enough, null to solve exactly
+     */
+    private AtomicInteger target;
+
+    /**
+     * Token whose expiry stops every engine, null if the engines only have their own time limits
+     */
+    private TimerCheck deadline;
+
+    /**
+     * Starts the next solve from bounds found earlier for the same graph. Both seed the shared bounds, so the
+     * engines are stopped as soon as one of them matches the known lower bound.
+     *
+     * @param lowerBound Proven lower bound on the chromatic number, 0 if none is known
+     * @param coloring   Proper coloring with 0-based vertices and colors, null if there is none
+     */
+    public void setWarmStart(int lowerBound, int[] coloring) {
+        this.knownLowerBound = lowerBound;
+        this.knownColoring = coloring;
+    }
+
+    /**
+     * Lets the next solve stop once an engine has a coloring with no more colors than the target, e.g. the colors
+     * another component of the same graph needs. The target may rise while the solve runs.
+     *
+     * @param target Number of colors that is good enough, or null to solve exactly
+     */
+    public void setTarget(AtomicInteger target) {
+        this.target = target;
+    }
+
+    /**
+     * Runs the engines of the next solve under a deadline shared with other solves, on top of their own time limits.
+     *
+     * @param deadline Started token whose expiry stops every engine, or null
+     */
+    public void setDeadline(TimerCheck deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Best bounds reported by any engine. The lower bound only rises and the incumbent only improves; both are
+     * updated without locks, so engines never wait on each other.
+     */
+    private static class SharedBounds {
+        private final AtomicInteger lowerBound = new AtomicInteger();
+        private final AtomicReference<Incumbent> incumbent = new AtomicReference<>();
+        private final AtomicInteger target;
+
+        SharedBounds(AtomicInteger target) {
+            this.target = target;
+        }
+
+        void offerLowerBound(int bound) {
+            lowerBound.accumulateAndGet(bound, Math::max);
+        }
+
+        /**
+         * @return True if the coloring became the incumbent
+         */
+        boolean offerColoring(int[] coloring, int colors, String engine) {
+            Incumbent candidate = new Incumbent(coloring, colors, engine);
+            Incumbent current = incumbent.get();
+            while (current == null || colors < current.colors) {
+                if (incumbent.compareAndSet(current, candidate)) {
+                    return true;
+                }
+                current = incumbent.get();
+            }
+            return false;
+        }
+
+        boolean isClosed() {
+            Incumbent current = incumbent.get();
+            return current != null && current.colors <= lowerBound.get();
+        }
+
+        /**
+         * @return True if the bounds are closed or the incumbent is within the target
+         */
+        boolean isDone() {
+            Incumbent current = incumbent.get();
+            return isClosed() || (current != null && target != null && current.colors <= target.get());
+        }
+    }
+
+    /**
+     * Best coloring found so far together with the engine that found it
+     */
+    private static class Incumbent {
+        private final int[] coloring;
+        private final int colors;
+        private final String engine;
+
+        Incumbent(int[] coloring, int colors, String engine) {
+            this.coloring = coloring;
+            this.colors = colors;
+            this.engine = engine;
+        }
+    }
+
+    /**
+     * One engine of the portfolio: how to run it, how to tell it about colorings of the others and how to stop it
+     */
+    private interface Engine {
+        String name();
+
+        ColoringResult run(Graph graph, ProgressListener listener);
+
+        void offerColoring(int[] coloring, int colors);
+
+        void cancel();
+    }
+
+    public ColoringResult findColoring(Graph graph) {
+        List<Engine> engines = createEngines(graph);
+        SharedBounds shared = new SharedBounds(target);
+        shared.offerLowerBound(knownLowerBound);
+        if (knownColoring != null) {
+            shared.offerColoring(knownColoring, HelpFunctions.maxInArray(knownColoring) + 1, "Known coloring");
+        }
+        System.out.println("Portfolio: running " + engines.size() + " engines");
+
+        ExecutorService executor = Executors.newFixedThreadPool(engines.size());
+        List<Future<ColoringResult>> futures = new ArrayList<>();
+        try {
+            for (Engine engine : engines) {
+                ProgressListener listener = event -> {
+                    shared.offerLowerBound(event.getLowerBound());
+                    if (event.getColoring() != null
+                        && shared.offerColoring(event.getColoring(), event.getUpperBound(), engine.name())) {
+                        for (Engine other : engines) {
+                            if (other != engine) {
+                                other.offerColoring(event.getColoring(), event.getUpperBound());
+                            }
+                        }
+                    }
+                    if (shared.isDone()) {
+                        engines.forEach(Engine::cancel);
+                    }
+                };
+                futures.add(executor.submit(() -> engine.run(graph, listener)));
+            }
+
+            for (int i = 0; i < engines.size(); i++) {
+                try {
+                    ColoringResult result = futures.get(i).get();
+                    int[] coloring = result.toColorArray(graph.getVertexCount());
+                    shared.offerLowerBound(result.getLowerBound());
+                    shared.offerColoring(coloring, HelpFunctions.maxInArray(coloring) + 1, engines.get(i).name());
+                } catch (ExecutionException e) {
+                    System.err.println("Portfolio engine " + engines.get(i).name() + " failed: " + e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            engines.forEach(Engine::cancel);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Incumbent best = shared.incumbent.get();
+        if (best == null) {
+            throw new RuntimeException("No engine of the portfolio produced a coloring");
+        }
+        Map<Integer, Integer> colorMap = new HashMap<>();
+        for (int i = 0; i < best.coloring.length; i++) {
+            colorMap.put(i + 1, best.coloring[i] + 1);  // Convert back to 1-based indexing
+        }
+        int lowerBound = shared.lowerBound.get();
+        String info = shared.isClosed()
+            ? String.format("Portfolio, %s (exact, LB = UB = %d)", best.engine, best.colors)
+            : String.format("Portfolio, %s (LB: %d, UB: %d)", best.engine, lowerBound, best.colors);
+        return new ColoringResult(colorMap, best.colors, info, lowerBound);
+    }
+
+    /**
+     * Splits the cores between the engines: the backtracking search of the Phase 1 pipeline gets half of them, the SAT
+     * search racing it one more, and the hybrid evolutionary search the rest as islands. Every engine gets at least
+     * one thread, so only machines with fewer than three cores run more threads than cores.
+     */
+    private List<Engine> createEngines(Graph graph) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        boolean sat = graph.getVertexCount() < SAT_MAX_VERTICES;
+        int phase1Threads = Math.max(1, cores / 2);
+        int islands = Math.max(1, cores - phase1Threads - (sat ? 1 : 0));
+
+        List<Engine> engines = new ArrayList<>();
+        engines.add(phase1Engine(phase1Threads, sat));
+        HybridEvolutionary hybridEvolutionary = new HybridEvolutionary(islands, HEA_TIME, deadline);
+        engines.add(new Engine() {
+            public String name() {
+                return "Hybrid evolutionary";
+            }
+
+            public ColoringResult run(Graph graph, ProgressListener listener) {
+                hybridEvolutionary.addProgressListener(listener);
+                return hybridEvolutionary.findColoring(graph);
+            }
+
+            public void offerColoring(int[] coloring, int colors) {
+                hybridEvolutionary.offerColoring(coloring);
+            }
+
+            public void cancel() {
+                hybridEvolutionary.cancel();
+            }
+        });
+        return engines;
+    }
+
+    /**
+     * @param threads Threads of the backtracking search
+     * @param sat     True to race SAT against the automatic exact engine
+     */
+    private Engine phase1Engine(int threads, boolean sat) {
+        ObtainChromaticNumber solver = new ObtainChromaticNumber(ObtainChromaticNumber.ProvingEngine.AUTO,
+            deadline != null ? deadline.child() : new TimerCheck());
+        if (sat) {
+            solver.setProvingEngines(ObtainChromaticNumber.ProvingEngine.AUTO, ObtainChromaticNumber.ProvingEngine.SAT);
+        }
+        solver.setParallelism(threads);
+        solver.setWarmStart(knownLowerBound, knownColoring);
+        solver.setTarget(target);
+        return new Engine() {
+            public String name() {
+                return "Phase 1";
+            }
+
+            public ColoringResult run(Graph graph, ProgressListener listener) {
+                solver.addProgressListener(listener);
+                return solver.findColoring(graph);
+            }
+
+            public void offerColoring(int[] coloring, int colors) {
+                solver.offerUpperBound(colors);
+            }
+
+            public void cancel() {
+                solver.cancel();
+            }
+        };
+    }
+}
@@ -1,14 +1,27 @@
 package org.example.phase3.phase1algo.algorithms;
 
 import org.example.phase3.phase1algo.structures.Graph;
+import org.example.phase3.phase1algo.utils.HelpFunctions;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Implements a parallel backtracking algorithm for graph coloring using MRV and LCV heuristics.
  * It searches for the chromatic number of a graph within a given time limit.
+ * The search tree is split at shallow depths into fork/join tasks, so idle workers steal open subtrees
+ * instead of waiting for fixed per-thread partitions to finish. Searches using every processor share one pool, so
+ * searches running side by side, e.g. on the atoms of a decomposition, do not each start a thread per processor.
+ * Colors are interchangeable, so the search breaks that symmetry: the maximum clique is precolored with the
+ * first colors, and a vertex may only take the colors already in use plus one new color. Every coloring is then
+ * explored in one labeling only instead of once per permutation of its colors.
+ * A failing subtree reports the search depths whose assignments caused the failure, and the search jumps straight
+ * back to the deepest of them (conflict-directed backjumping). Small conflict sets are kept as nogoods, which prune
+ * the same combination of assignments when another branch or a smaller bound runs into it again. When automorphisms
+ * of the graph are known, the images of every nogood under them are recorded as well, so a failure is not
+ * rediscovered in each symmetric part of the graph.
  */
 public class Backtracking {
 
@@ -17,20 +30,66 @@ public class Backtracking {
      */
     private static final int NUM_THREADS = Runtime.getRuntime().availableProcessors();
 
+    /**
+     * Deepest search level at which the remaining colors of a vertex are forked as separate tasks
+     */
+    private static final int MAX_SPLIT_DEPTH = 12;
+
+    /**
+     * A node is only split while the worker has fewer queued tasks than this, so idle workers always find work
+     * but the pool is not flooded with tiny subtrees
+     */
+    private static final int SPLIT_SURPLUS = 2;
+
+    /**
+     * Largest conflict set that is recorded as a nogood; larger ones are rarely met again
+     */
+    private static final int MAX_NOGOOD_SIZE = 8;
+
+    /**
+     * Number of nogoods each worker keeps before evicting the least recently used
+     */
+    private static final int NOGOOD_CAPACITY = 20000;
+
+    /**
+     * Number of automorphisms whose images of every nogood are recorded
+     */
+    private static final int MAX_NOGOOD_IMAGES = 16;
+
     /**
      * Atomic integer to keep track of the best chromatic number found
      */
     private AtomicInteger bestChromaticNumber;
 
     /**
-     * Executor service for managing threads
+     * Pool of the searches that use every processor; its workers are daemon threads started on demand
+     */
+    private static final ForkJoinPool SHARED_POOL = new ForkJoinPool(NUM_THREADS);
+
+    /**
+     * Number of threads a run may use
+     */
+    private int parallelism = NUM_THREADS;
+
+    /**
+     * Work-stealing pool running the search tasks, null if the search runs on the calling thread alone
      */
-    private ExecutorService executorService;
+    private ForkJoinPool pool;
 
     /**
-     * Adjacency list representation of the graph
+     * Search states of finished tasks of each worker, reset to the root and reused by the worker's next task
      */
-    private List<Integer>[] adjacencyList;
+    private ThreadLocal<ArrayDeque<SearchState>> spareStates;
+
+    /**
+     * Row offsets of the graph's CSR adjacency; the neighbours of v are neighbours[offsets[v]..offsets[v+1])
+     */
+    private int[] offsets;
+
+    /**
+     * Concatenated neighbour rows of the graph's CSR adjacency
+     */
+    private int[] neighbours;
 
     /**
      * Timer to check for time expiration
@@ -38,20 +97,60 @@ public class Backtracking {
     private TimerCheck timer;
 
     /**
-     * Store the best coloring found
+     * Store the best coloring found; replaced as a whole by the worker that wins {@link #solved}
      */
-    private int[] bestColoring;
+    private volatile int[] bestColoring;
 
     /**
-     * Lock for synchronizing coloring updates
+     * Set by the first worker that completes a coloring with the current bound; every other worker stops at its next node
      */
-    private final Object coloringLock = new Object();
+    private volatile AtomicBoolean solved = new AtomicBoolean(false);
 
     /**
      * Lower bound for the chromatic number
      */
     private int lowerBound;
 
+    /**
+     * Lower bound proven by the last run: one more than the bound it showed infeasible, or the given lower bound
+     */
+    private int provenLowerBound;
+
+    /**
+     * Fewest colors of a coloring found outside this search, e.g. by another engine; bounds at or above it are skipped
+     */
+    private final AtomicInteger externalUpperBound = new AtomicInteger(Integer.MAX_VALUE);
+
+    /**
+     * Number of colors the running search tries, read by {@link #offerUpperBound} to abort it
+     */
+    private volatile int currentBound = Integer.MAX_VALUE;
+
+    /**
+     * Maximum clique of the graph, precolored with colors 0, 1, ... at the root of every search
+     */
+    private int[] clique;
+
+    /**
+     * Nogood store of each worker thread; nogoods hold for every bound, so the stores live for the whole run
+     */
+    private ThreadLocal<NogoodStore> nogoods;
+
+    /**
+     * Automorphisms of the graph, each mapping vertex v to gamma[v]
+     */
+    private List<int[]> automorphisms = List.of();
+
+    /**
+     * Called with every coloring that beats the previous bound; may be null
+     */
+    private Consumer<int[]> improvementListener;
+
+    /**
+     * Set when the last run proved its best coloring optimal
+     */
+    private boolean optimal;
+
     /**
      * Constructs a Backtracking instance with a timer and an atomic integer for the best chromatic number.
      *
@@ -63,339 +162,423 @@ public class Backtracking {
         this.timer = timer;
     }
 
+    /**
+     * @return True if the last run finished its search, so the best chromatic number is exact
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    /**
+     * @return Lower bound proven by the last run, the given lower bound if it proved nothing more
+     */
+    public int getLowerBound() {
+        return provenLowerBound;
+    }
+
+    /**
+     * Reports a coloring with the given number of colors found elsewhere. A search for that many colors or more is
+     * stopped at its next node, and the remaining bounds start below it; the best coloring of this search is left as
+     * it is, so the caller keeps the external coloring itself. May be called from any thread.
+     *
+     * @param colors Number of colors of a proper coloring of the same graph, or of a graph containing it
+     */
+    public void offerUpperBound(int colors) {
+        externalUpperBound.accumulateAndGet(colors, Math::min);
+        if (colors <= currentBound) {
+            solved.set(true);
+        }
+    }
+
+    /**
+     * @param improvementListener Called from the searching thread with a copy of every coloring with fewer colors
+     */
+    public void setImprovementListener(Consumer<int[]> improvementListener) {
+        this.improvementListener = improvementListener;
+    }
+
+    /**
+     * Sets the number of threads the next runs may use. With 1 the search runs on the calling thread without forking;
+     * with every processor it runs on the pool shared by all searches, otherwise on a pool of its own.
+     *
+     * @param threads Number of threads, at least 1
+     * @throws IllegalArgumentException If threads is less than 1
+     */
+    public void setParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Backtracking needs at least one thread, got " + threads);
+        }
+        this.parallelism = threads;
+    }
+
+    /**
+     * @param automorphisms Automorphisms of the graph searched next, e.g. the generators found by
+     *                      {@link org.example.phase3.Evaluation.CanonicalLabeling}; only the first few are used
+     */
+    public void setAutomorphisms(List<int[]> automorphisms) {
+        this.automorphisms = new ArrayList<>(automorphisms.subList(0, Math.min(automorphisms.size(), MAX_NOGOOD_IMAGES)));
+    }
+
     /**
      * Runs the parallel backtracking algorithm to find the chromatic number of a graph.
      *
-     * @param adjacencyMatrix  The adjacency matrix of the graph
+     * @param graph          The analyzed Graph object
      * @param upperBound     The upper bound for the chromatic number obtained from DSATUR algorithm
      * @param lowerBound     The lower bound for the chromatic number
      */
-    public void runBacktracking(int[][] adjacencyMatrix, int upperBound, int lowerBound) {
-        int n = adjacencyMatrix.length;
-        this.lowerBound = lowerBound;
-        int[] vertexColors = new int[n];
-        Arrays.fill(vertexColors, -1);
-        bestColoring = new int[n];
-        Arrays.fill(bestColoring, -1);
-        buildAdjacencyList(adjacencyMatrix);
-        
-        // Use more threads for larger graphs
-        int threadCount = Math.min(Math.max(NUM_THREADS, n/10), 32);
-        this.executorService = Executors.newFixedThreadPool(threadCount);
-        
-        try {
-            parallelBacktracking(n, vertexColors, upperBound);
-        } catch (Exception e) {
-            // Suppress exceptions to prevent unwanted prints
-        } finally {
-            executorService.shutdown();
-        }
+    public void runBacktracking(Graph graph, int upperBound, int lowerBound) {
+        runBacktracking(graph, upperBound, lowerBound, null);
     }
 
     /**
-     * Builds the adjacency list from the given adjacency matrix.
+     * Runs the parallel backtracking algorithm, starting from a known coloring.
      *
-     * @param adjacencyMatrix The adjacency matrix of the graph
-     */
-    private void buildAdjacencyList(int[][] adjacencyMatrix) {
-        int n = adjacencyMatrix.length;
-        adjacencyList = new List[n];
-        for (int i = 0; i < n; i++) {
-            adjacencyList[i] = new ArrayList<>();
-            for (int j = 0; j < n; j++) {
-                if (adjacencyMatrix[i][j] == 1) {
-                    adjacencyList[i].add(j);
-                }
+     * @param graph          The analyzed Graph object
+     * @param upperBound     Number of colors used by the incumbent coloring
+     * @param lowerBound     The lower bound for the chromatic number
+     * @param incumbent      Proper coloring with upperBound colors, returned if no better one is found; may be null
+     */
+    public void runBacktracking(Graph graph, int upperBound, int lowerBound, int[] incumbent) {
+        int n = graph.getOrder();
+        this.lowerBound = lowerBound;
+        this.clique = graph.getMaxClique();
+        int[] coloring = new int[n];
+        Arrays.fill(coloring, -1);
+        bestColoring = incumbent != null ? incumbent.clone() : coloring;
+        this.offsets = graph.getAdjacency().getOffsets();
+        this.neighbours = graph.getAdjacency().getNeighbours();
+        ForkJoinPool ownPool = parallelism > 1 && parallelism != NUM_THREADS ? new ForkJoinPool(parallelism) : null;
+        this.pool = ownPool != null ? ownPool : parallelism > 1 ? SHARED_POOL : null;
+        List<int[]> images = automorphisms;
+        this.nogoods = ThreadLocal.withInitial(() -> new NogoodStore(n, upperBound, images));
+        this.spareStates = ThreadLocal.withInitial(ArrayDeque::new);
+
+        try {
+            parallelBacktracking(upperBound);
+        } finally {
+            // Every task has been joined when a search returns, so nothing of this run is left in the pool
+            timer.cancel();
+            if (ownPool != null) {
+                ownPool.shutdown();
             }
         }
     }
 
     /**
-     * Initiates the parallel backtracking process to find the chromatic number.
+     * Tries successively smaller numbers of colors, running one fork/join search per bound.
+     * The best chromatic number is only lowered once a coloring with that many colors has been found,
+     * so a timeout leaves it at the last bound that was actually achieved.
      *
-     * @param n            Number of vertices in the graph
-     * @param vertexColors Array to keep track of vertex colors
      * @param upperBound   Initial upper bound for the chromatic number
-     * @throws Exception If the computation is interrupted
      */
-    public void parallelBacktracking(int n, int[] vertexColors, int upperBound) throws Exception {
-        int[] vertexOrder = getOrderOfVertices(adjacencyList, n);
-        
+    public void parallelBacktracking(int upperBound) {
+        optimal = upperBound <= lowerBound;
+        provenLowerBound = lowerBound;
         // Start from upperBound-1 since we already have a solution for upperBound
         for (int bound = upperBound - 1; bound >= lowerBound; bound--) {
-            final int currentBound = bound;  // Create final copy for lambda
             if (timer.hasTimerExpired()) {
-                System.out.println("Timer expired at bound: " + currentBound);
+                System.out.println("Timer expired at bound: " + bound);
                 break;
             }
-            
-            System.out.println("Trying coloring with " + currentBound + " colors...");
-            bestChromaticNumber.set(currentBound);  // Set this as our target
-            
-            // Divide the search space among threads
-            int numThreads = Math.min(currentBound, Runtime.getRuntime().availableProcessors() * 2);
-            CountDownLatch latch = new CountDownLatch(numThreads);
-            AtomicBoolean foundSolution = new AtomicBoolean(false);
-            
-            // Launch parallel tasks with different initial vertex colorings
-            for (int i = 0; i < numThreads; i++) {
-                final int threadId = i;
-                executorService.submit(() -> {
-                    try {
-                        int[] colors = new int[n];
-                        Arrays.fill(colors, -1);
-                        
-                        // Each thread starts with different high-degree vertices colored differently
-                        for (int j = 0; j < Math.min(n, numThreads); j++) {
-                            int vertex = vertexOrder[j];  // Use highest degree vertices
-                            colors[vertex] = (j + threadId) % currentBound;
-                        }
-                        
-                        BitSet[] availableColors = initializeAvailableColors(n, currentBound);
-                        Set<Integer> unassigned = new HashSet<>();
-                        
-                        // Initialize unassigned vertices
-                        for (int j = numThreads; j < n; j++) {
-                            unassigned.add(vertexOrder[j]);
-                        }
-                        
-                        // Update available colors based on initial coloring
-                        for (int v = 0; v < n; v++) {
-                            if (colors[v] != -1) {
-                                for (int neighbor : adjacencyList[v]) {
-                                    if (colors[neighbor] == -1) {
-                                        availableColors[neighbor].clear(colors[v]);
-                                    }
-                                }
-                            }
-                        }
-                        
-                        if (backtrack(n, colors, currentBound, availableColors, new ArrayDeque<>(), unassigned)) {
-                            foundSolution.set(true);
-                        }
-                    } finally {
-                        latch.countDown();
-                    }
-                });
+
+            // Publish the bound before reading the external one, so an offer in between sets the new flag
+            solved = new AtomicBoolean(false);
+            currentBound = bound;
+            if (externalUpperBound.get() <= bound) {
+                bound = externalUpperBound.get();
+                continue;
             }
+            System.out.println("Trying coloring with " + bound + " colors...");
+            int[] cliqueColors = new int[clique.length];
+            Arrays.setAll(cliqueColors, i -> i);
+            SearchTask root = new SearchTask(bound, clique, cliqueColors);
+            boolean found = pool != null ? pool.invoke(root) : root.invoke();
             
-            // Wait for all threads to finish or timer to expire
-            while (!latch.await(1, TimeUnit.SECONDS)) {
+            if (!found) {
+                if (externalUpperBound.get() <= bound) {
+                    // Stopped by a coloring from outside, which proves nothing about this bound
+                    bound = externalUpperBound.get();
+                    continue;
+                }
                 if (timer.hasTimerExpired()) {
-                    break;
+                    System.out.println("Timer expired at bound: " + bound);
+                } else {
+                    optimal = bestChromaticNumber.get() == bound + 1;
+                    provenLowerBound = bound + 1;
                 }
-            }
-            
-            if (!foundSolution.get() && !timer.hasTimerExpired()) {
-                // If we couldn't find a solution with this many colors, we can't do better
-                bestChromaticNumber.set(currentBound + 1);
+                // Either proven infeasible or out of time: the previous bound stands
                 break;
             }
-            
-            // If we found a solution and still have time, continue to next bound
-            if (foundSolution.get() && !timer.hasTimerExpired()) {
-                System.out.println("Found solution with " + currentBound + " colors, trying fewer colors...");
+
+            bestChromaticNumber.set(bound);
+            optimal = bound == lowerBound;
+            if (improvementListener != null) {
+                improvementListener.accept(bestColoring.clone());
             }
+            System.out.println("Found solution with " + bound + " colors, trying fewer colors...");
         }
     }
 
-    private BitSet[] initializeAvailableColors(int n, int maxColors) {
-        BitSet[] availableColors = new BitSet[n];
-        for (int i = 0; i < n; i++) {
-            BitSet colors = new BitSet(maxColors);
-            colors.set(0, maxColors);
-            availableColors[i] = colors;
+    /**
+     * Search task for the subtree below a fixed sequence of decisions. Only the decision path is stored, which keeps
+     * queued tasks small; the task replays it on a search state left over from an earlier task of the same worker,
+     * which is unwound back to the root afterwards, so a stolen task does not allocate a state of its own.
+     */
+    private class SearchTask extends RecursiveTask<Boolean> {
+        private static final long serialVersionUID = 1L;
+
+        private final int bound;
+        private final int[] pathVertices;
+        private final int[] pathColors;
+
+        SearchTask(int bound, int[] pathVertices, int[] pathColors) {
+            this.bound = bound;
+            this.pathVertices = pathVertices;
+            this.pathColors = pathColors;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (solved.get() || timer.hasTimerExpired()) {
+                return false;
+            }
+            // A worker joining a task may run another one meanwhile, so it can hold several states at once
+            ArrayDeque<SearchState> spare = spareStates.get();
+            while (!spare.isEmpty() && spare.peek().maxColors != bound) {
+                spare.pop();
+            }
+            SearchState state = spare.isEmpty() ? new SearchState(offsets, neighbours, bound, nogoods.get()) : spare.pop();
+
+            int replayed = 0;
+            while (replayed < pathVertices.length) {
+                int vertex = pathVertices[replayed];
+                int color = pathColors[replayed];
+                if (!state.availableColors[vertex].get(color) || forwardCheck(vertex, color, state, replayed) != -1) {
+                    break;
+                }
+                state.assign(vertex, color, replayed++);
+            }
+            boolean found = replayed == pathVertices.length && backtrack(state, replayed);
+            // A failed search restores the state it started from; a solved one keeps its coloring
+            if (!found) {
+                state.reset(replayed);
+                spare.push(state);
+            }
+            return found;
         }
-        return availableColors;
     }
 
     /**
      * Performs the backtracking algorithm with MRV and LCV heuristics.
+     * Domain reductions are pushed on the state's trail and unwound to a saved mark when a color fails,
+     * so no memory is allocated per search node. Near the root, the alternative colors of a vertex are
+     * forked as tasks when the worker's own queue is running low.
+     * On failure the state's returned conflict set holds the depths whose assignments explain it. A color whose
+     * failure does not involve this node's own depth would fail for every other color as well, so the node
+     * returns at once and the search jumps back to the deepest depth in that set.
      *
-     * @param n                  Number of vertices in the graph
-     * @param vertexColors       Array of current vertex colors
-     * @param maxColors          Maximum number of colors to try
-     * @param availableColors    Array of BitSets representing available colors for each vertex
-     * @param changeStack        Stack to keep track of changes for backtracking
-     * @param unassignedVertices Set of unassigned vertices
+     * @param state Search state of the calling task
+     * @param depth Number of vertices assigned on the path to this node
      * @return True if a valid coloring is found; false otherwise
      */
-    public boolean backtrack(int n, int[] vertexColors, int maxColors, BitSet[] availableColors,
-                             Deque<Change> changeStack, Set<Integer> unassignedVertices) {
-        if (timer.hasTimerExpired()) {
+    public boolean backtrack(SearchState state, int depth) {
+        if (solved.get() || timer.hasTimerExpired()) {
             return false;
         }
         
-        if (unassignedVertices.isEmpty()) {
-            synchronized (coloringLock) {
-                if (isValidColoring(vertexColors)) {
-                    Set<Integer> distinctColors = new HashSet<>();
-                    for (int color : vertexColors) {
-                        distinctColors.add(color);
-                    }
-                    int chromaticNum = distinctColors.size();
-                    
-                    if (chromaticNum <= maxColors) {
-                        System.arraycopy(vertexColors, 0, bestColoring, 0, vertexColors.length);
-                        System.out.println("Found valid coloring with " + chromaticNum + " colors");
-                        return true;
-                    }
-                }
+        if (state.unassignedCount == 0) {
+            if (isValidColoring(state.colors) && solved.compareAndSet(false, true)) {
+                bestColoring = state.colors.clone();
+                System.out.println("Found valid coloring with " + (HelpFunctions.maxInArray(state.colors) + 1) + " colors");
+                return true;
             }
             return false;
         }
 
         // Select vertex with smallest domain and highest impact
-        int vertex = selectNextVertex(vertexColors, availableColors, unassignedVertices);
-        BitSet colors = availableColors[vertex];
-        
-        if (colors.isEmpty()) {
+        int vertex = selectNextVertex(state);
+        // Colors pruned from the vertex's domain are part of the reason the node may fail
+        ConflictSet conflict = state.conflictAt(depth);
+        state.addDomainCulprits(vertex, conflict);
+        if (state.domainSize[vertex] == 0) {
+            state.returned.copyFrom(conflict);
             return false;
         }
 
         // Get colors ordered by least constraining value and most used
-        List<Integer> orderedColors = getOptimizedColorOrder(vertex, colors, vertexColors, availableColors);
-        Map<Integer, Set<Integer>> forwardCheckResults = new HashMap<>();
+        int colorCount = getOptimizedColorOrder(vertex, state, depth);
+        int base = depth * state.maxColors;
+
+        if (colorCount > 1 && depth < MAX_SPLIT_DEPTH && pool != null && ForkJoinTask.inForkJoinPool()
+                && ForkJoinTask.getSurplusQueuedTaskCount() < SPLIT_SURPLUS) {
+            return splitColors(vertex, state, depth, colorCount);
+        }
         
-        for (int color : orderedColors) {
-            if (timer.hasTimerExpired() || color >= bestChromaticNumber.get()) {
-                continue;
+        for (int i = 0; i < colorCount; i++) {
+            if (tryColor(vertex, state.colorOrder[base + i], state, depth)) {
+                return true;
             }
-
-            // Try to assign color with forward checking
-            Set<Integer> affectedVertices = forwardCheck(vertex, color, vertexColors, availableColors, unassignedVertices);
-            if (affectedVertices != null) {
-                vertexColors[vertex] = color;
-                unassignedVertices.remove(vertex);
-                forwardCheckResults.put(color, affectedVertices);
-                
-                if (backtrack(n, vertexColors, maxColors, availableColors, changeStack, unassignedVertices)) {
-                    return true;
-                }
-                
-                // Restore state with conflict-directed backjumping
-                restoreState(vertex, color, vertexColors, availableColors, unassignedVertices, affectedVertices);
+            if (!state.returned.contains(depth)) {
+                // The failure below does not depend on this vertex's color: jump back to its culprits
+                return false;
             }
+            conflict.addAll(state.returned);
+        }
+
+        conflict.remove(depth);
+        state.returned.copyFrom(conflict);
+        // Conflict sets of an aborted search are incomplete and must not be learned
+        if (!solved.get() && !timer.hasTimerExpired()) {
+            state.nogoods.record(conflict, state.pathVertex, state.pathColor);
         }
-        
         return false;
     }
 
-    private int selectNextVertex(int[] vertexColors, BitSet[] availableColors, Set<Integer> unassignedVertices) {
-        int minDomain = Integer.MAX_VALUE;
-        int maxImpact = -1;
-        int selectedVertex = -1;
-        
-        for (int vertex : unassignedVertices) {
-            int domain = availableColors[vertex].cardinality();
-            int impact = calculateVertexImpact(vertex, vertexColors);
-            
-            if (domain < minDomain || (domain == minDomain && impact > maxImpact)) {
-                minDomain = domain;
-                maxImpact = impact;
-                selectedVertex = vertex;
-            }
+    /**
+     * Forks every color but the first as a separate task and searches the first one in the calling task.
+     * Children are pushed in reverse order so the worker's own deque pops them in color order,
+     * while thieves take the least promising colors from the other end.
+     */
+    private boolean splitColors(int vertex, SearchState state, int depth, int colorCount) {
+        int base = depth * state.maxColors;
+        SearchTask[] children = new SearchTask[colorCount - 1];
+        for (int i = colorCount - 1; i >= 1; i--) {
+            int[] pathVertices = Arrays.copyOf(state.pathVertex, depth + 1);
+            int[] pathColors = Arrays.copyOf(state.pathColor, depth + 1);
+            pathVertices[depth] = vertex;
+            pathColors[depth] = state.colorOrder[base + i];
+            children[i - 1] = new SearchTask(state.maxColors, pathVertices, pathColors);
+            children[i - 1].fork();
         }
         
-        return selectedVertex;
+        boolean found = tryColor(vertex, state.colorOrder[base], state, depth);
+        // Children see the solved flag and return at once, so joining them all is cheap
+        for (SearchTask child : children) {
+            found |= child.join();
+        }
+        // Forked children do not report their conflicts, so every earlier depth is blamed
+        state.returned.setBelow(depth);
+        return found;
     }
 
-    private int calculateVertexImpact(int vertex, int[] vertexColors) {
-        int uncoloredNeighbors = 0;
-        Set<Integer> neighborColors = new HashSet<>();
-        
-        for (int neighbor : adjacencyList[vertex]) {
-            if (vertexColors[neighbor] == -1) {
-                uncoloredNeighbors++;
-            } else {
-                neighborColors.add(vertexColors[neighbor]);
-            }
+    /**
+     * Assigns one color with forward checking, searches below it and restores the state if that fails.
+     * On failure the state's returned conflict set holds the depths that explain it.
+     */
+    private boolean tryColor(int vertex, int color, SearchState state, int depth) {
+        if (solved.get() || timer.hasTimerExpired()) {
+            return false;
         }
-        
-        return uncoloredNeighbors * 2 + neighborColors.size();
-    }
 
-    private List<Integer> getOptimizedColorOrder(int vertex, BitSet colors, int[] vertexColors, BitSet[] availableColors) {
-        List<Integer> colorList = new ArrayList<>();
-        Map<Integer, Integer> colorUsage = new HashMap<>();
-        Map<Integer, Integer> colorConstraints = new HashMap<>();
-        
-        // Count color usage in graph
-        for (int color = colors.nextSetBit(0); color >= 0; color = colors.nextSetBit(color + 1)) {
-            colorList.add(color);
-            colorUsage.put(color, 0);
-            for (int v = 0; v < vertexColors.length; v++) {
-                if (vertexColors[v] == color) {
-                    colorUsage.put(color, colorUsage.get(color) + 1);
+        Nogood nogood = state.nogoods.find(vertex, color, state.colors);
+        if (nogood != null) {
+            state.returned.clear();
+            state.returned.addConflict(depth);
+            for (int u : nogood.vertices) {
+                if (u != vertex) {
+                    state.returned.addConflict(state.assignedDepth[u]);
                 }
             }
+            return false;
+        }
+
+        int mark = state.trailTop;
+        int wipedOut = forwardCheck(vertex, color, state, depth);
+        if (wipedOut == -1) {
+            state.assign(vertex, color, depth);
+            
+            if (backtrack(state, depth + 1)) {
+                return true;
+            }
+            
+            state.unassign(vertex);
+        } else {
+            // The emptied domain was pruned by this depth and the depths that pruned its other colors
+            state.returned.clear();
+            state.addDomainCulprits(wipedOut, state.returned);
         }
         
-        // Calculate constraints
-        for (int color : colorList) {
+        // Restore the domains pruned by this color
+        state.undo(mark);
+        return false;
+    }
+
+    /**
+     * Selects the unassigned vertex with the smallest domain, breaking ties by the most uncolored neighbours.
+     * Saturation degree is implied by the domain size, since forward checking prunes exactly the neighbour colors.
+     */
+    private int selectNextVertex(SearchState state) {
+        return state.firstInBuckets();
+    }
+
+    /**
+     * Writes the available colors of a vertex into the state's color order buffer for this depth,
+     * sorted by usage in the graph (descending) and then by the number of neighbours they constrain (ascending).
+     * Of the colors not yet in use only the lowest is offered: the used colors always form a prefix 0..k-1 along
+     * the search path, so every unused color leads to the same subtree up to renaming colors.
+     *
+     * @return Number of colors written
+     */
+    private int getOptimizedColorOrder(int vertex, SearchState state, int depth) {
+        int[] order = state.colorOrder;
+        int[] key = state.colorKey;
+        int base = depth * state.maxColors;
+        int count = 0;
+
+        BitSet colors = state.availableColors[vertex];
+        int lastColor = Math.min(state.usedColors, state.maxColors - 1);
+        for (int color = colors.nextSetBit(0); color >= 0 && color <= lastColor; color = colors.nextSetBit(color + 1)) {
+            // Calculate constraints
             int constraints = 0;
-            for (int neighbor : adjacencyList[vertex]) {
-                if (availableColors[neighbor].get(color)) {
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                if (state.colors[neighbours[i]] == -1 && state.availableColors[neighbours[i]].get(color)) {
                     constraints++;
                 }
             }
-            colorConstraints.put(color, constraints);
+            
+            // Sort by combination of usage and constraints: insertion into the already ordered prefix
+            int usage = state.colorUsage[color];
+            int sortKey = constraints - usage * (offsets[vertex + 1] - offsets[vertex] + 1);
+            int pos = count++;
+            while (pos > 0 && key[pos - 1] > sortKey) {
+                key[pos] = key[pos - 1];
+                order[base + pos] = order[base + pos - 1];
+                pos--;
+            }
+            key[pos] = sortKey;
+            order[base + pos] = color;
         }
         
-        // Sort by combination of usage and constraints
-        colorList.sort((c1, c2) -> {
-            int usageComp = Integer.compare(colorUsage.get(c2), colorUsage.get(c1));
-            if (usageComp != 0) return usageComp;
-            return Integer.compare(colorConstraints.get(c1), colorConstraints.get(c2));
-        });
-        
-        return colorList;
+        return count;
     }
 
-    private Set<Integer> forwardCheck(int vertex, int color, int[] vertexColors, 
-                                    BitSet[] availableColors, Set<Integer> unassignedVertices) {
-        Set<Integer> affectedVertices = new HashSet<>();
-        
+    /**
+     * Removes a color from the domains of the unassigned neighbours of a vertex, recording every removal on the trail.
+     *
+     * @param depth Search depth of the assignment, recorded as the cause of the removals
+     * @return The neighbour left without colors, or -1 if there is none; the caller unwinds the trail in that case
+     */
+    private int forwardCheck(int vertex, int color, SearchState state, int depth) {
         // Check and update domains of unassigned neighbors
-        for (int neighbor : adjacencyList[vertex]) {
-            if (unassignedVertices.contains(neighbor)) {
-                if (!availableColors[neighbor].get(color)) {
-                    continue;  // Color already not available
-                }
-                
-                // Simulate removing the color
-                availableColors[neighbor].clear(color);
-                affectedVertices.add(neighbor);
+        for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+            int neighbor = neighbours[i];
+            if (state.colors[neighbor] == -1 && state.availableColors[neighbor].get(color)) {
+                state.prune(neighbor, color, depth);
                 
                 // Check if domain becomes empty
-                if (availableColors[neighbor].isEmpty()) {
-                    // Restore domains and return null to indicate failure
-                    for (int v : affectedVertices) {
-                        availableColors[v].set(color);
-                    }
-                    return null;
+                if (state.domainSize[neighbor] == 0) {
+                    return neighbor;
                 }
             }
         }
         
-        return affectedVertices;
-    }
-
-    private void restoreState(int vertex, int color, int[] vertexColors, BitSet[] availableColors,
-                            Set<Integer> unassignedVertices, Set<Integer> affectedVertices) {
-        vertexColors[vertex] = -1;
-        unassignedVertices.add(vertex);
-        
-        // Restore domains of affected vertices
-        for (int v : affectedVertices) {
-            availableColors[v].set(color);
-        }
+        return -1;
     }
 
     private boolean isValidColoring(int[] coloring) {
         for (int i = 0; i < coloring.length; i++) {
-            for (int neighbor : adjacencyList[i]) {
-                if (coloring[i] == coloring[neighbor]) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                if (coloring[i] == coloring[neighbours[j]]) {
                     return false;
                 }
             }
@@ -404,48 +587,283 @@ public class Backtracking {
     }
 
     /**
-     * Records changes for backtracking.
+     * Per-task search state. Every domain reduction is recorded as a (vertex, color) pair on a preallocated trail,
+     * so backtracking restores domains by unwinding the trail to a saved mark instead of keeping copies.
+     * Uncolored-neighbour counts and per-color usage are updated on assign and unassign, and unassigned vertices are
+     * kept in buckets keyed by (domain size, uncolored neighbours) so the MRV vertex is found without scanning the graph.
      */
-    class Change {
-        int vertex;
-        int color;
+    static class SearchState {
+        final int[] offsets;
+        final int[] neighbours;
+        final int maxColors;
+        final int[] colors;
+        final BitSet[] availableColors;
+        final int[] domainSize;
+        final int[] uncoloredDegree;
+        final int[] colorUsage;
+        int unassignedCount;
+
+        /**
+         * Number of colors in use, which are always the colors 0..usedColors-1
+         */
+        int usedColors;
+
+        /**
+         * Pruned (vertex, color) pairs, two ints per entry
+         */
+        int[] trail;
+        int trailTop;
+
+        /**
+         * Color order buffer, maxColors entries per search depth
+         */
+        final int[] colorOrder;
+        final int[] colorKey;
+
+        /**
+         * Vertex and color assigned at each depth, used to describe forked subtrees and nogoods
+         */
+        final int[] pathVertex;
+        final int[] pathColor;
+
+        /**
+         * Depth at which each assigned vertex was colored
+         */
+        final int[] assignedDepth;
+
+        /**
+         * Depth whose assignment pruned each (vertex, color) pair, maxColors entries per vertex;
+         * only meaningful while the pair is pruned
+         */
+        final int[] prunedAt;
+
+        /**
+         * Conflict set of the node at each depth, allocated on first use
+         */
+        final ConflictSet[] conflicts;
 
         /**
-         * Constructs a Change instance representing a change in the color availability of a vertex.
+         * Conflict set reported by the last failed node or color to its caller
+         */
+        final ConflictSet returned = new ConflictSet();
+
+        /**
+         * Nogoods of the worker thread running this state
+         */
+        final NogoodStore nogoods;
+
+        /**
+         * Doubly linked bucket lists of unassigned vertices; a lower key is selected first
+         */
+        final int tieLevels;
+        final int[] bucketHead;
+        final int[] bucketOf;
+        final int[] next;
+        final int[] prev;
+        int minBucket;
+
+        /**
+         * Constructs a SearchState with every vertex uncolored and every color available.
          *
-         * @param vertex The vertex whose color availability has changed
-         * @param color  The color that has been removed or added
+         * @param offsets    Row offsets of the graph's CSR adjacency
+         * @param neighbours Neighbour rows of the graph's CSR adjacency
+         * @param maxColors  Number of colors the search may use
+         * @param nogoods    Nogood store of the worker thread
+         */
+        SearchState(int[] offsets, int[] neighbours, int maxColors, NogoodStore nogoods) {
+            int n = offsets.length - 1;
+            this.offsets = offsets;
+            this.neighbours = neighbours;
+            this.maxColors = maxColors;
+            this.colors = new int[n];
+            Arrays.fill(colors, -1);
+            this.availableColors = new BitSet[n];
+            this.domainSize = new int[n];
+            this.uncoloredDegree = new int[n];
+            int maxDegree = 0;
+            for (int i = 0; i < n; i++) {
+                availableColors[i] = new BitSet(maxColors);
+                availableColors[i].set(0, maxColors);
+                domainSize[i] = maxColors;
+                uncoloredDegree[i] = offsets[i + 1] - offsets[i];
+                maxDegree = Math.max(maxDegree, uncoloredDegree[i]);
+            }
+            this.colorUsage = new int[maxColors];
+            this.unassignedCount = n;
+            // A pair can only be pruned once along a search path, so n * maxColors entries always suffice
+            this.trail = new int[2 * Math.max(16, Math.min(n * maxColors, 1 << 20))];
+            this.colorOrder = new int[(n + 1) * maxColors];
+            this.colorKey = new int[maxColors];
+            this.pathVertex = new int[n];
+            this.pathColor = new int[n];
+            this.assignedDepth = new int[n];
+            this.prunedAt = new int[n * maxColors];
+            this.conflicts = new ConflictSet[n + 1];
+            this.nogoods = nogoods;
+
+            // Neighbour counts above the tie range share the last level, which keeps the bucket array small
+            this.tieLevels = Math.max(1, Math.min(maxDegree + 1, (1 << 22) / (maxColors + 1)));
+            this.bucketHead = new int[(maxColors + 1) * tieLevels];
+            Arrays.fill(bucketHead, -1);
+            this.bucketOf = new int[n];
+            this.next = new int[n];
+            this.prev = new int[n];
+            this.minBucket = bucketHead.length;
+            for (int i = 0; i < n; i++) {
+                insert(i);
+            }
+        }
+
+        private int bucketKey(int vertex) {
+            int tie = Math.max(0, tieLevels - 1 - uncoloredDegree[vertex]);
+            return domainSize[vertex] * tieLevels + tie;
+        }
+
+        private void insert(int vertex) {
+            int key = bucketKey(vertex);
+            bucketOf[vertex] = key;
+            prev[vertex] = -1;
+            next[vertex] = bucketHead[key];
+            if (bucketHead[key] != -1) {
+                prev[bucketHead[key]] = vertex;
+            }
+            bucketHead[key] = vertex;
+            if (key < minBucket) {
+                minBucket = key;
+            }
+        }
+
+        private void remove(int vertex) {
+            if (prev[vertex] != -1) {
+                next[prev[vertex]] = next[vertex];
+            } else {
+                bucketHead[bucketOf[vertex]] = next[vertex];
+            }
+            if (next[vertex] != -1) {
+                prev[next[vertex]] = prev[vertex];
+            }
+        }
+
+        /**
+         * Moves an unassigned vertex to the bucket matching its current domain size and uncolored degree.
          */
-        public Change(int vertex, int color) {
-            this.vertex = vertex;
-            this.color = color;
+        private void rebucket(int vertex) {
+            if (colors[vertex] == -1 && bucketOf[vertex] != bucketKey(vertex)) {
+                remove(vertex);
+                insert(vertex);
+            }
         }
-    }
 
-    /**
-     * Gets the order of vertices sorted by their degree in descending order.
-     *
-     * @param adjacencyList Adjacency list of the graph
-     * @param n             Number of vertices in the graph
-     * @return An array of vertex indices sorted by degree
-     */
-    public int[] getOrderOfVertices(List<Integer>[] adjacencyList, int n) {
-        Integer[] vertices = new Integer[n];
-        for (int i = 0; i < n; i++) {
-            vertices[i] = i;
+        /**
+         * @return The unassigned vertex in the lowest non-empty bucket, or -1 if every vertex is assigned.
+         */
+        int firstInBuckets() {
+            while (minBucket < bucketHead.length && bucketHead[minBucket] == -1) {
+                minBucket++;
+            }
+            return minBucket < bucketHead.length ? bucketHead[minBucket] : -1;
         }
-        
-        Arrays.sort(vertices, (v1, v2) -> {
-            int degree1 = adjacencyList[v1].size();
-            int degree2 = adjacencyList[v2].size();
-            return Integer.compare(degree2, degree1);
-        });
-        
-        int[] sortedVertices = new int[n];
-        for (int i = 0; i < n; i++) {
-            sortedVertices[i] = vertices[i];
+
+        /**
+         * @return The emptied conflict set of the node at the given depth
+         */
+        ConflictSet conflictAt(int depth) {
+            if (conflicts[depth] == null) {
+                conflicts[depth] = new ConflictSet();
+            }
+            conflicts[depth].clear();
+            return conflicts[depth];
+        }
+
+        /**
+         * Adds the depths that pruned the colors missing from a vertex's domain to a conflict set.
+         */
+        void addDomainCulprits(int vertex, ConflictSet conflict) {
+            BitSet available = availableColors[vertex];
+            for (int color = available.nextClearBit(0); color < maxColors; color = available.nextClearBit(color + 1)) {
+                conflict.addConflict(prunedAt[vertex * maxColors + color]);
+            }
+        }
+
+        /**
+         * Colors a vertex at a search depth and updates the usage counter and its neighbours' uncolored degrees.
+         */
+        void assign(int vertex, int color, int depth) {
+            remove(vertex);
+            pathVertex[depth] = vertex;
+            pathColor[depth] = color;
+            assignedDepth[vertex] = depth;
+            colors[vertex] = color;
+            if (colorUsage[color]++ == 0) {
+                usedColors++;
+            }
+            unassignedCount--;
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                int neighbor = neighbours[i];
+                uncoloredDegree[neighbor]--;
+                rebucket(neighbor);
+            }
+        }
+
+        /**
+         * Reverts {@link #assign(int, int, int)}.
+         */
+        void unassign(int vertex) {
+            if (--colorUsage[colors[vertex]] == 0) {
+                usedColors--;
+            }
+            colors[vertex] = -1;
+            unassignedCount++;
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                int neighbor = neighbours[i];
+                uncoloredDegree[neighbor]++;
+                rebucket(neighbor);
+            }
+            insert(vertex);
+        }
+
+        /**
+         * Removes a color from a vertex's domain and pushes the change on the trail.
+         *
+         * @param depth Search depth of the assignment causing the removal
+         */
+        void prune(int vertex, int color, int depth) {
+            if (trailTop == trail.length) {
+                trail = Arrays.copyOf(trail, trail.length * 2);
+            }
+            availableColors[vertex].clear(color);
+            prunedAt[vertex * maxColors + color] = depth;
+            domainSize[vertex]--;
+            rebucket(vertex);
+            trail[trailTop++] = vertex;
+            trail[trailTop++] = color;
+        }
+
+        /**
+         * Unassigns the vertices of the first depths of the path and restores every domain, returning the state to
+         * the root of the search.
+         *
+         * @param depth Number of depths assigned
+         */
+        void reset(int depth) {
+            for (int d = depth - 1; d >= 0; d--) {
+                unassign(pathVertex[d]);
+            }
+            undo(0);
+        }
+
+        /**
+         * Restores every domain reduction made after the given trail mark.
+         */
+        void undo(int mark) {
+            while (trailTop > mark) {
+                int color = trail[--trailTop];
+                int vertex = trail[--trailTop];
+                availableColors[vertex].set(color);
+                domainSize[vertex]++;
+                rebucket(vertex);
+            }
         }
-        return sortedVertices;
     }
 
     /**
@@ -457,40 +875,178 @@ public class Backtracking {
         return bestColoring;
     }
 
-    private static class DomainInfo {
-        BitSet availableColors;
-        int domainSize;
+    /**
+     * Set of search depths whose assignments together explain why a subtree has no coloring
+     */
+    private static class ConflictSet {
+        final BitSet depths = new BitSet();
         
-        DomainInfo(int maxColors) {
-            availableColors = new BitSet(maxColors);
-            availableColors.set(0, maxColors);
-            domainSize = maxColors;
+        void addConflict(int depth) {
+            depths.set(depth);
         }
-        
-        void removeColor(int color) {
-            if (availableColors.get(color)) {
-                availableColors.clear(color);
-                domainSize--;
+
+        void addAll(ConflictSet other) {
+            depths.or(other.depths);
+        }
+
+        void remove(int depth) {
+            depths.clear(depth);
+        }
+
+        boolean contains(int depth) {
+            return depths.get(depth);
+        }
+
+        void clear() {
+            depths.clear();
+        }
+
+        void copyFrom(ConflictSet other) {
+            depths.clear();
+            depths.or(other.depths);
+        }
+
+        /**
+         * Replaces the set with every depth below the given one.
+         */
+        void setBelow(int depth) {
+            depths.clear();
+            depths.set(0, depth);
+        }
+    }
+
+    /**
+     * Combination of (vertex, color) assignments that no coloring with the current number of colors extends,
+     * and hence none with fewer colors either
+     */
+    private static class Nogood {
+        final int[] vertices;
+        final int[] colors;
+
+        /**
+         * Index of the pair whose assignment makes the store look at this nogood again
+         */
+        int watch;
+
+        Nogood(int[] vertices, int[] colors, int watch) {
+            this.vertices = vertices;
+            this.colors = colors;
+            this.watch = watch;
+        }
+    }
+
+    /**
+     * Bounded store of nogoods, evicting the least recently used one once it is full.
+     * Each nogood is watched by a single pair that was not assigned when it was last looked at. Only assigning that
+     * pair can complete the nogood, so the store then either finds the nogood complete or moves the watch to another
+     * pair that is not assigned, and checking an assignment only costs the nogoods watching it.
+     * Used by a single worker thread only, so it needs no locking.
+     */
+    private static class NogoodStore {
+        /**
+         * Nogoods watched by each (vertex, color) pair, created when the pair is first watched; most pairs never are
+         */
+        private final List<Nogood>[] watches;
+        private final int colorSlots;
+        private final LinkedHashMap<Nogood, Boolean> recent;
+        private final List<int[]> automorphisms;
+
+        /**
+         * @param n             Number of vertices
+         * @param colorSlots    Number of colors of the largest bound searched
+         * @param automorphisms Automorphisms under which the images of every nogood are nogoods too
+         */
+        @SuppressWarnings("unchecked")
+        NogoodStore(int n, int colorSlots, List<int[]> automorphisms) {
+            this.colorSlots = colorSlots;
+            this.automorphisms = automorphisms;
+            this.watches = (List<Nogood>[]) new List<?>[n * colorSlots];
+            this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Nogood, Boolean> eldest) {
+                    if (size() <= NOGOOD_CAPACITY) {
+                        return false;
+                    }
+                    Nogood nogood = eldest.getKey();
+                    watchList(nogood).remove(nogood);
+                    return true;
+                }
+            };
+        }
+
+        private List<Nogood> watchList(Nogood nogood) {
+            int slot = nogood.vertices[nogood.watch] * colorSlots + nogood.colors[nogood.watch];
+            if (watches[slot] == null) {
+                watches[slot] = new ArrayList<>(2);
             }
+            return watches[slot];
         }
-        
-        void restoreColor(int color) {
-            if (!availableColors.get(color)) {
-                availableColors.set(color);
-                domainSize++;
+
+        /**
+         * @return A nogood that coloring the vertex with the color would complete, or null if there is none
+         */
+        Nogood find(int vertex, int color, int[] colors) {
+            List<Nogood> list = watches[vertex * colorSlots + color];
+            if (list == null) {
+                return null;
             }
+            int i = 0;
+            while (i < list.size()) {
+                Nogood nogood = list.get(i);
+                int open = -1;
+                for (int j = 0; j < nogood.vertices.length && open == -1; j++) {
+                    if (nogood.vertices[j] != vertex && colors[nogood.vertices[j]] != nogood.colors[j]) {
+                        open = j;
+                    }
+                }
+                if (open == -1) {
+                    recent.get(nogood);
+                    return nogood;
+                }
+                // Move the watch to the pair that is not assigned, removing by swapping with the last entry
+                nogood.watch = open;
+                watchList(nogood).add(nogood);
+                list.set(i, list.get(list.size() - 1));
+                list.remove(list.size() - 1);
+            }
+            return null;
         }
-    }
 
-    private static class ConflictSet {
-        Set<Integer> conflicts = new HashSet<>();
-        
-        void addConflict(int vertex) {
-            conflicts.add(vertex);
+        /**
+         * Records the assignments at the depths of a conflict set as a nogood, unless the set is too large.
+         * The deepest assignment is undone first by the backjump, so it is the one watched.
+         * An automorphism maps every proper coloring onto another one, so moving the vertices of a nogood by an
+         * automorphism, keeping their colors, gives another nogood; those images are recorded as well.
+         */
+        void record(ConflictSet conflict, int[] pathVertex, int[] pathColor) {
+            int size = conflict.depths.cardinality();
+            if (size == 0 || size > MAX_NOGOOD_SIZE) {
+                return;
+            }
+            int[] vertices = new int[size];
+            int[] colors = new int[size];
+            int i = 0;
+            for (int d = conflict.depths.nextSetBit(0); d >= 0; d = conflict.depths.nextSetBit(d + 1)) {
+                vertices[i] = pathVertex[d];
+                colors[i++] = pathColor[d];
+            }
+            add(new Nogood(vertices, colors, size - 1));
+            for (int[] gamma : automorphisms) {
+                int[] image = new int[size];
+                boolean moved = false;
+                for (int j = 0; j < size; j++) {
+                    image[j] = gamma[vertices[j]];
+                    moved |= image[j] != vertices[j];
+                }
+                if (moved) {
+                    add(new Nogood(image, colors, size - 1));
+                }
+            }
         }
-        
-        Set<Integer> getConflicts() {
-            return conflicts;
+
+        private void add(Nogood nogood) {
+            watchList(nogood).add(nogood);
+            recent.put(nogood, Boolean.TRUE);
         }
     }
 }
@@ -1,5 +1,6 @@
 package org.example.phase3.phase1algo.algorithms;
 
+import org.example.phase3.phase1algo.structures.CsrGraph;
 import org.example.phase3.phase1algo.structures.Graph;
 import org.example.phase3.phase1algo.utils.HelpFunctions;
 import org.example.phase3.phase1algo.utils.VertexOrdering;
@@ -16,22 +17,39 @@ public class Bounds {
      * @param graph The analyzed Graph object.
      */
     public static void upperBoundGreedy(Graph graph) {
+        colorGreedily(graph, VertexOrdering.descendingDegree(graph));
+    }
+
+    /**
+     * Calculates and sets the Graph object's upperBound field.
+     * Determines it using the greedy algorithm on vertices in smallest-last order, where every vertex has at most
+     * degeneracy colored neighbours. The coloring therefore has at most degeneracy + 1 colors, which never exceeds
+     * the Wilf bound 1 + λmax, and serves as the certificate of that bound.
+     *
+     * @param graph The analyzed Graph object.
+     */
+    public static void upperBoundSmallestLast(Graph graph) {
+        colorGreedily(graph, VertexOrdering.smallestLast(graph));
+    }
+
+    private static void colorGreedily(Graph graph, int[] vertexOrder) {
         int[] coloring = new int[graph.getOrder()];
         Arrays.fill(coloring, -1);
 
-        int[] vertexOrder = VertexOrdering.descendingDegree(graph);
+        int[] offsets = graph.getAdjacency().getOffsets();
+        int[] neighbours = graph.getAdjacency().getNeighbours();
+        // usedBy[c] == i + 1 marks color c as taken by a neighbour of vertex i, so the array never needs clearing
+        int[] usedBy = new int[graph.getOrder() + 1];
 
         for (int i : vertexOrder) {
-            List<Integer> adjacentColors = new ArrayList<>();
-            for (int vertex : graph.getAdjacencyList()[i])
-                if (coloring[vertex] != -1)
-                    adjacentColors.add(coloring[vertex]);
-
-            for (int j = 0; j < graph.getOrder(); j++)
-                if (!adjacentColors.contains(j)) {
-                    coloring[i] = j;
-                    break;
-                }
+            for (int k = offsets[i]; k < offsets[i + 1]; k++)
+                if (coloring[neighbours[k]] != -1)
+                    usedBy[coloring[neighbours[k]]] = i + 1;
+
+            int color = 0;
+            while (usedBy[color] == i + 1)
+                color++;
+            coloring[i] = color;
         }
 
         graph.setColoring(coloring);
@@ -39,76 +57,411 @@ public class Bounds {
     }
 
     public static class LowerBound{
-        private static ArrayList<ArrayList<Integer>> cliques;
+        /**
+         * Default time budget of the maximum clique search in milliseconds
+         */
+        public static final long CLIQUE_TIME = 10000;
 
         /**
-         * Calculates and sets the Graph object's lowerBound field.
-         * Determines it by finding the size of the largest clique.
+         * Calculates and sets the Graph object's lowerBound and maxClique fields.
+         * Determines them with a maximum clique search limited to {@link #CLIQUE_TIME}.
          *
          * @param graph The analyzed Graph object.
          */
         public static void lowerBoundLargestClique(Graph graph) {
-            ArrayList<Integer> consideredVertices = new ArrayList<>();
-            cliques = new ArrayList<>();
-
-            for (int i = 0; i < graph.getOrder(); i++) {
-                consideredVertices.add(i);
-                ArrayList<Integer> a = new ArrayList<>();
-                a.add(i);
-                cliques.add(a);
-            }
-
-            find(consideredVertices, graph);
+            lowerBoundLargestClique(graph, CLIQUE_TIME);
+        }
 
-            graph.setLowerBound(cliques.getFirst().size());
+        /**
+         * Calculates and sets the Graph object's lowerBound and maxClique fields.
+         * If the time budget runs out the largest clique found so far is used, which is still a valid lower bound.
+         *
+         * @param graph           The analyzed Graph object.
+         * @param timeLimitMillis Time budget of the clique search in milliseconds.
+         */
+        public static void lowerBoundLargestClique(Graph graph, long timeLimitMillis) {
+            lowerBoundLargestClique(graph, timeLimitMillis, null);
         }
 
         /**
-         * Returns the largest clique found during the last lower bound calculation.
-         * @return List of vertices in the largest clique
+         * Calculates and sets the Graph object's lowerBound and maxClique fields.
+         * If the time budget runs out or the parent token is cancelled the largest clique found so far is used.
+         *
+         * @param graph           The analyzed Graph object.
+         * @param timeLimitMillis Time budget of the clique search in milliseconds.
+         * @param parent          Token of the surrounding solve that also stops the search; may be null.
          */
-        public static List<Integer> getLargestClique() {
-            return cliques.isEmpty() ? new ArrayList<>() : cliques.getFirst();
+        public static void lowerBoundLargestClique(Graph graph, long timeLimitMillis, TimerCheck parent) {
+            TimerCheck timer = new TimerCheck(timeLimitMillis, parent);
+            timer.start();
+            int[] clique;
+            try {
+                clique = new CliqueSearch(graph, timer).run();
+            } finally {
+                timer.cancel();
+            }
+
+            graph.setMaxClique(clique);
+            graph.setLowerBound(clique.length);
         }
 
         /**
-         * Recursive function which with each call assigns additional vertices to cliques in the original cliques list of lists.
-         * Once it returns cliques contains only lists with vertices which are parts of the largest clique(s) in the graph.
+         * Raises the Graph object's lowerBound field to the Hoffman bound 1 + λmax / |λmin| if that is higher.
+         * Unlike the clique bound it costs a fixed number of sparse matrix-vector products, so it stays cheap on large
+         * near-regular graphs where the clique search runs out of time.
          *
-         * @param consideredVertices List of every vertex in the graph used to keep track of which vertices are left to consider.
-//         * @param cliques            List of lists of ints. The sublists get larger by one in each recursive level.
-         * @param graph              The analyzed Graph object.
+         * @param graph           The analyzed Graph object.
+         * @param timeLimitMillis Time budget of the eigenvalue iteration in milliseconds.
+         * @param parent          Token of the surrounding solve that also stops the iteration; may be null.
+         * @return The spectrum of the graph, whose Wilf bound is an upper bound on the chromatic number
+         */
+        public static Spectrum lowerBoundHoffman(Graph graph, long timeLimitMillis, TimerCheck parent) {
+            TimerCheck timer = new TimerCheck(timeLimitMillis, parent);
+            timer.start();
+            Spectrum spectrum;
+            try {
+                spectrum = new Spectrum(graph, timer);
+            } finally {
+                timer.cancel();
+            }
+
+            graph.setLowerBound(Math.max(graph.getLowerBound(), spectrum.hoffmanLowerBound()));
+            return spectrum;
+        }
+
+        /**
+         * Bitset branch-and-bound maximum clique search in the style of BBMC.
+         * Vertices are renumbered in smallest-last order so the dense core is branched on first, and at every node
+         * the candidates are greedily colored: a candidate whose color plus the current clique size cannot beat the
+         * incumbent is never branched on.
          */
-        private static void find(ArrayList<Integer> consideredVertices, Graph graph) {
-            ArrayList<Integer> availableVertices = new ArrayList<>(consideredVertices);
-            ArrayList<ArrayList<Integer>> newCliques = new ArrayList<>();
-
-            for (ArrayList<Integer> clique : cliques) {
-                for (int i : clique)
-                    if (availableVertices.contains(i))
-                        availableVertices.remove((Integer) i);
-
-                for (int i : availableVertices) {
-                    boolean partOfClique = true;
-                    for (int j : clique)
-                        if (graph.getMatrix()[i][j] != 1) {
-                            partOfClique = false;
-                            break;
+        private static class CliqueSearch {
+            private final int[] order;
+            private final long[][] rows;
+            private final int words;
+            private final TimerCheck timer;
+            private final int[] current;
+            private int currentSize;
+            private int[] best;
+
+            /**
+             * @param graph The analyzed Graph object.
+             * @param timer Timer limiting the search.
+             */
+            CliqueSearch(Graph graph, TimerCheck timer) {
+                int n = graph.getOrder();
+                this.order = VertexOrdering.smallestLast(graph);
+                this.words = Graph.wordCount(n);
+                this.timer = timer;
+                this.current = new int[n];
+                this.best = new int[0];
+
+                // Adjacency rows in search numbering: bit j of rows[i] is set if order[i] and order[j] are adjacent
+                int[] position = new int[n];
+                for (int i = 0; i < n; i++)
+                    position[order[i]] = i;
+                int[] offsets = graph.getAdjacency().getOffsets();
+                int[] neighbours = graph.getAdjacency().getNeighbours();
+                this.rows = new long[n][words];
+                for (int v = 0; v < n; v++)
+                    for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                        int u = position[neighbours[k]];
+                        rows[position[v]][u >>> 6] |= 1L << u;
+                    }
+            }
+
+            /**
+             * @return Vertices of the largest clique found, sorted ascending.
+             */
+            int[] run() {
+                int n = order.length;
+
+                // Initial incumbent: greedy clique along the order, which starts in the densest core
+                int degeneracy = 0;
+                long[] candidates = new long[words];
+                for (int i = 0; i < n; i++) {
+                    int earlier = 0;
+                    for (int w = 0; w < words && (w << 6) < i; w++) {
+                        long mask = (i - (w << 6)) >= 64 ? -1L : (1L << (i - (w << 6))) - 1;
+                        earlier += Long.bitCount(rows[i][w] & mask);
+                    }
+                    degeneracy = Math.max(degeneracy, earlier);
+
+                    boolean adjacentToAll = true;
+                    for (int j = 0; j < currentSize && adjacentToAll; j++)
+                        adjacentToAll = (rows[i][current[j] >>> 6] & (1L << current[j])) != 0;
+                    if (adjacentToAll)
+                        current[currentSize++] = i;
+                    candidates[i >>> 6] |= 1L << i;
+                }
+                best = Arrays.copyOf(current, currentSize);
+                currentSize = 0;
+
+                // No clique can be larger than the degeneracy plus one
+                if (best.length < degeneracy + 1)
+                    expand(candidates);
+
+                if (timer.hasTimerExpired())
+                    System.out.println("Clique search timed out, using clique of size " + best.length);
+
+                int[] clique = new int[best.length];
+                for (int i = 0; i < best.length; i++)
+                    clique[i] = order[best[i]];
+                Arrays.sort(clique);
+                return clique;
+            }
+
+            /**
+             * Branches on every candidate whose color bound can still beat the incumbent, highest color first.
+             *
+             * @param candidates Vertices adjacent to every vertex of the current clique; consumed by the call.
+             */
+            private void expand(long[] candidates) {
+                if (timer.hasTimerExpired())
+                    return;
+
+                int size = HelpFunctions.cardinality(candidates);
+                int[] vertices = new int[size];
+                int[] colors = new int[size];
+                int count = colorSort(candidates, vertices, colors);
+
+                for (int i = count - 1; i >= 0; i--) {
+                    if (currentSize + colors[i] <= best.length || timer.hasTimerExpired())
+                        return;
+
+                    int v = vertices[i];
+                    current[currentSize++] = v;
+                    long[] next = candidates.clone();
+                    HelpFunctions.intersect(next, rows[v]);
+                    if (isEmpty(next)) {
+                        if (currentSize > best.length)
+                            best = Arrays.copyOf(current, currentSize);
+                    } else {
+                        expand(next);
+                    }
+                    currentSize--;
+                    candidates[v >>> 6] &= ~(1L << v);
+                }
+            }
+
+            /**
+             * Greedily partitions the candidates into independent color classes, lowest index first.
+             * Only candidates whose color can still lead to a larger clique are written out, in color order.
+             *
+             * @return Number of candidates written to vertices and colors.
+             */
+            private int colorSort(long[] candidates, int[] vertices, int[] colors) {
+                int minColor = best.length - currentSize + 1;
+                long[] uncolored = candidates.clone();
+                long[] colorClass = new long[words];
+                int count = 0;
+                int color = 0;
+
+                while (!isEmpty(uncolored)) {
+                    color++;
+                    System.arraycopy(uncolored, 0, colorClass, 0, words);
+                    for (int v = HelpFunctions.nextSetBit(colorClass, 0); v >= 0; v = HelpFunctions.nextSetBit(colorClass, v + 1)) {
+                        uncolored[v >>> 6] &= ~(1L << v);
+                        for (int w = 0; w < words; w++)
+                            colorClass[w] &= ~rows[v][w];
+                        if (color >= minColor) {
+                            vertices[count] = v;
+                            colors[count] = color;
+                            count++;
                         }
-                    if (partOfClique) {
-                        ArrayList<Integer> newClique = new ArrayList<>(clique);
-                        newClique.add(i);
-                        newCliques.add(newClique);
                     }
                 }
+                return count;
+            }
+
+            private static boolean isEmpty(long[] set) {
+                for (long word : set)
+                    if (word != 0)
+                        return false;
+                return true;
             }
+        }
+    }
+
+    /**
+     * Extreme eigenvalues of the adjacency matrix A, found by power iteration over the CSR adjacency in O(m) per
+     * iteration, and the Hoffman and Wilf bounds that follow from them.
+     * The largest eigenvalue is bracketed from both sides: the Rayleigh quotient of the iterate never exceeds it, and
+     * as the iterate stays positive, the largest ratio (Ax)_i / x_i is never below it (Collatz-Wielandt).
+     * The smallest eigenvalue is found as the dominant eigenvalue of the shifted matrix λmax·I - A. That estimate
+     * is only one-sided, so the Hoffman bound is given only once the iteration has converged.
+     */
+    public static class Spectrum {
+        /**
+         * Default time budget of the eigenvalue iteration in milliseconds
+         */
+        public static final long SPECTRAL_TIME = 1000;
+        private static final int MAX_ITERATIONS = 1000;
+        private static final double TOLERANCE = 1e-9;
+        private static final long SEED = 42;
+
+        private final CsrGraph adjacency;
+        private final TimerCheck timer;
+        private double largestLower;
+        private double largestUpper;
+        private double smallest = Double.NaN;
 
-            if (newCliques.isEmpty())
+        /**
+         * @param graph The analyzed Graph object.
+         * @param timer Token stopping the iteration early; the bounds found so far stay valid. May be null.
+         */
+        public Spectrum(Graph graph, TimerCheck timer) {
+            this.adjacency = graph.getAdjacency();
+            this.timer = timer != null ? timer : new TimerCheck();
+            if (adjacency.getEdgeCount() == 0) {
+                smallest = 0;
                 return;
+            }
+            computeLargest();
+            computeSmallest();
+        }
 
-            cliques = newCliques;
+        /**
+         * @return A lower bound on the largest adjacency eigenvalue
+         */
+        public double getLargestEigenvalue() {
+            return largestLower;
+        }
+
+        /**
+         * @return An upper bound on the largest adjacency eigenvalue
+         */
+        public double getLargestEigenvalueUpper() {
+            return largestUpper;
+        }
+
+        /**
+         * @return The smallest adjacency eigenvalue, NaN if the iteration did not converge in time
+         */
+        public double getSmallestEigenvalue() {
+            return smallest;
+        }
+
+        /**
+         * @return The Hoffman bound 1 + λmax / |λmin| rounded up, or the trivial bound if the smallest eigenvalue is
+         * not known
+         */
+        public int hoffmanLowerBound() {
+            if (Double.isNaN(smallest) || smallest >= 0) {
+                return adjacency.getEdgeCount() == 0 ? 1 : 2;
+            }
+            return (int) Math.ceil(1 + largestLower / -smallest - 1e-6);
+        }
+
+        /**
+         * @return The Wilf bound 1 + λmax rounded down
+         */
+        public int wilfUpperBound() {
+            return (int) Math.floor(1 + largestUpper + 1e-9);
+        }
+
+        /**
+         * Iterates on A + I from the all-ones vector; the shift keeps the iteration from oscillating on bipartite
+         * graphs, where -λmax is an eigenvalue as well.
+         */
+        private void computeLargest() {
+            int n = adjacency.getOrder();
+            double[] x = new double[n];
+            double[] y = new double[n];
+            Arrays.fill(x, 1 / Math.sqrt(n));
+            largestUpper = adjacency.maxDegree();
+
+            for (int iteration = 0; iteration < MAX_ITERATIONS && !timer.hasTimerExpired(); iteration++) {
+                multiply(x, y);
+                double rayleigh = 0;
+                double ratio = 0;
+                boolean positive = true;
+                for (int v = 0; v < n; v++) {
+                    rayleigh += x[v] * y[v];
+                    if (x[v] > 0) {
+                        ratio = Math.max(ratio, y[v] / x[v]);
+                    } else {
+                        // Underflowed entry: the ratio bound no longer covers every vertex
+                        positive = false;
+                    }
+                }
+                largestLower = Math.max(largestLower, rayleigh);
+                if (positive) {
+                    largestUpper = Math.min(largestUpper, ratio);
+                }
+                if (largestUpper - largestLower <= TOLERANCE * Math.max(1, largestUpper)) {
+                    break;
+                }
+
+                double norm = 0;
+                for (int v = 0; v < n; v++) {
+                    y[v] += x[v];
+                    norm += y[v] * y[v];
+                }
+                norm = Math.sqrt(norm);
+                for (int v = 0; v < n; v++) {
+                    x[v] = y[v] / norm;
+                }
+            }
+        }
+
+        /**
+         * Iterates on λmax·I - A, whose eigenvalues are all non-negative and largest for the smallest eigenvalue of
+         * A, from a random vector. Converged once the residual of the Rayleigh quotient is negligible.
+         */
+        private void computeSmallest() {
+            int n = adjacency.getOrder();
+            double shift = largestUpper;
+            double[] x = new double[n];
+            double[] y = new double[n];
+            Random random = new Random(SEED);
+            for (int v = 0; v < n; v++) {
+                x[v] = random.nextDouble() - 0.5;
+            }
+            normalize(x);
+
+            for (int iteration = 0; iteration < MAX_ITERATIONS && !timer.hasTimerExpired(); iteration++) {
+                multiply(x, y);
+                double rayleigh = 0;
+                for (int v = 0; v < n; v++) {
+                    y[v] = shift * x[v] - y[v];
+                    rayleigh += x[v] * y[v];
+                }
+                double residual = 0;
+                for (int v = 0; v < n; v++) {
+                    double r = y[v] - rayleigh * x[v];
+                    residual += r * r;
+                }
+                residual = Math.sqrt(residual);
+                if (residual <= Math.sqrt(TOLERANCE) * Math.max(1, shift)) {
+                    // Some eigenvalue lies within the residual of the Rayleigh quotient; take the pessimistic side
+                    smallest = shift - rayleigh - residual;
+                    return;
+                }
+
+                System.arraycopy(y, 0, x, 0, n);
+                normalize(x);
+            }
+        }
+
+        private void multiply(double[] x, double[] y) {
+            int[] offsets = adjacency.getOffsets();
+            int[] neighbours = adjacency.getNeighbours();
+            for (int v = 0; v < x.length; v++) {
+                double sum = 0;
+                for (int k = offsets[v]; k < offsets[v + 1]; k++)
+                    sum += x[neighbours[k]];
+                y[v] = sum;
+            }
+        }
 
-            find(consideredVertices, graph);
+        private static void normalize(double[] x) {
+            double norm = 0;
+            for (double value : x)
+                norm += value * value;
+            norm = Math.sqrt(norm);
+            for (int v = 0; v < x.length; v++)
+                x[v] /= norm;
         }
     }
 }
@@ -1,5 +1,6 @@
 package org.example.phase3.phase1algo.algorithms;
 
+import org.example.phase3.phase1algo.structures.CsrGraph;
 import org.example.phase3.phase1algo.structures.Graph;
 import org.example.phase3.phase1algo.utils.HelpFunctions;
 import org.example.phase3.phase1algo.utils.VertexOrdering;
@@ -15,79 +16,165 @@ public class ChromaticNumber {
      * @param graph The analyzed Graph object.
      */
     public static void DSATUR(Graph graph) {
-        int[] coloring = new int[graph.getOrder()];
-        Arrays.fill(coloring, -1);
-
-        int[] degrees = new int[graph.getOrder()];
-        for (int i = 0; i < graph.getOrder(); i++)
-            degrees[i] = graph.getAdjacencyList()[i].size();
-
-        int[] saturationDegrees = new int[graph.getOrder()];
+        int[] coloring = dsaturColoring(graph.getAdjacency());
 
-        PriorityQueue<Integer> pq = new PriorityQueue<>(
-                (a, b) -> {
-                    if (saturationDegrees[a] != saturationDegrees[b]) {
-                        return Integer.compare(saturationDegrees[b], saturationDegrees[a]);
-                    } else {
-                        return Integer.compare(degrees[b], degrees[a]);
-                    }
-                }
-        );
+        int chromaticNumber = HelpFunctions.maxInArray(coloring) + 1;
+        if (graph.getChromaticNumber() != -1 && graph.getChromaticNumber() > chromaticNumber) {
+            graph.setChromaticNumber(chromaticNumber);
+            graph.setColoring(coloring);
+        } else if (graph.getChromaticNumber() == -1) {
+            graph.setChromaticNumber(chromaticNumber);
+            graph.setColoring(coloring);
+        }
+    }
 
-        for (int i = 0; i < graph.getOrder(); i++)
-            pq.offer(i);
+    /**
+     * Colors a graph with DSATUR: repeatedly colors the uncolored vertex with the most distinct neighbour colors
+     * (ties broken by degree) with the smallest color not used by its neighbours.
+     * Runs in O((n + m) log n) time with all memory allocated up front.
+     * <p>
+     * The vertices are kept in an indexed max-heap, so a saturation change moves a single vertex up the heap.
+     * Every vertex v keeps counts of its neighbours' colors 0..deg(v), since its own color can never exceed its degree;
+     * a neighbour color above deg(v) still raises the saturation of v, which is then decided by scanning v's row.
+     *
+     * @param adjacency The CSR adjacency of the graph.
+     * @return 0-based color of every vertex.
+     */
+    public static int[] dsaturColoring(CsrGraph adjacency) {
+        int n = adjacency.getOrder();
+        int[] offsets = adjacency.getOffsets();
+        int[] neighbours = adjacency.getNeighbours();
 
-        while (!pq.isEmpty()) {
-            int vertex = pq.poll();
-            boolean[] usedColors = new boolean[graph.getOrder()];
+        int[] coloring = new int[n];
+        Arrays.fill(coloring, -1);
+        int[] saturation = new int[n];
+        // Neighbour color counts of vertex v live at colorCounts[offsets[v] + v .. offsets[v + 1] + v]
+        int[] colorCounts = new int[offsets[n] + n];
+        SaturationHeap heap = new SaturationHeap(adjacency, saturation);
+
+        while (!heap.isEmpty()) {
+            int vertex = heap.poll();
+            int countBase = offsets[vertex] + vertex;
+            int degree = offsets[vertex + 1] - offsets[vertex];
+
+            int color = 0;
+            while (color < degree && colorCounts[countBase + color] > 0)
+                color++;
+            coloring[vertex] = color;
 
-            for (int neighbor : graph.getAdjacencyList()[vertex]) {
-                if (coloring[neighbor] != -1) {
-                    usedColors[coloring[neighbor]] = true;
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                int neighbor = neighbours[i];
+                if (coloring[neighbor] != -1)
+                    continue;
+                int neighborDegree = offsets[neighbor + 1] - offsets[neighbor];
+                boolean newColor;
+                if (color <= neighborDegree) {
+                    newColor = colorCounts[offsets[neighbor] + neighbor + color]++ == 0;
+                } else {
+                    newColor = true;
+                    for (int j = offsets[neighbor]; j < offsets[neighbor + 1] && newColor; j++)
+                        if (neighbours[j] != vertex && coloring[neighbours[j]] == color)
+                            newColor = false;
+                }
+                if (newColor) {
+                    saturation[neighbor]++;
+                    heap.increased(neighbor);
                 }
             }
+        }
 
-            int color;
-            for (color = 0; color < usedColors.length; color++)
-                if (!usedColors[color])
-                    break;
-
-            coloring[vertex] = color;
+        return coloring;
+    }
 
-            for (int neighbor : graph.getAdjacencyList()[vertex])
-                if (coloring[neighbor] == -1) {
-                    Set<Integer> uncolored = new HashSet<>();
-                    for (int newNeighbor : graph.getAdjacencyList()[neighbor])
-                        if (coloring[newNeighbor] != -1)
-                            uncolored.add(coloring[newNeighbor]);
+    /**
+     * Binary max-heap of the uncolored vertices ordered by (saturation, degree), with the heap position of every
+     * vertex stored so a vertex whose saturation grew can be sifted up in place.
+     */
+    private static class SaturationHeap {
+        private final int[] heap;
+        private final int[] position;
+        private final int[] saturation;
+        private final CsrGraph adjacency;
+        private int size;
+
+        SaturationHeap(CsrGraph adjacency, int[] saturation) {
+            int n = adjacency.getOrder();
+            this.adjacency = adjacency;
+            this.saturation = saturation;
+            this.heap = new int[n];
+            this.position = new int[n];
+            this.size = n;
+            for (int v = 0; v < n; v++) {
+                heap[v] = v;
+                position[v] = v;
+            }
+            for (int i = n / 2 - 1; i >= 0; i--)
+                siftDown(i);
+        }
 
-                    saturationDegrees[neighbor] = uncolored.size();
-                }
+        boolean isEmpty() {
+            return size == 0;
+        }
 
+        int poll() {
+            int top = heap[0];
+            position[top] = -1;
+            size--;
+            if (size > 0) {
+                heap[0] = heap[size];
+                position[heap[0]] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
 
-            PriorityQueue<Integer> newQueue = new PriorityQueue<>(
-                    (a, b) -> {
-                        if (saturationDegrees[a] != saturationDegrees[b]) {
-                            return Integer.compare(saturationDegrees[b], saturationDegrees[a]);
-                        } else
-                            return Integer.compare(degrees[b], degrees[a]);
-                    }
-            );
+        /**
+         * Restores the heap order after the saturation of a queued vertex increased.
+         */
+        void increased(int vertex) {
+            siftUp(position[vertex]);
+        }
 
-            for (int i = 0; i < graph.getOrder(); i++)
-                if (coloring[i] == -1)
-                    newQueue.offer(i);
+        private boolean before(int a, int b) {
+            if (saturation[a] != saturation[b])
+                return saturation[a] > saturation[b];
+            int degreeA = adjacency.degree(a);
+            int degreeB = adjacency.degree(b);
+            if (degreeA != degreeB)
+                return degreeA > degreeB;
+            return a < b;
+        }
 
-            pq = newQueue;
+        private void siftUp(int i) {
+            int vertex = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(vertex, heap[parent]))
+                    break;
+                heap[i] = heap[parent];
+                position[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = vertex;
+            position[vertex] = i;
         }
 
-        int chromaticNumber = HelpFunctions.maxInArray(coloring) + 1;
-        if (graph.getChromaticNumber() != -1 && graph.getChromaticNumber() > chromaticNumber) {
-            graph.setChromaticNumber(chromaticNumber);
-            graph.setColoring(coloring);
-        } else if (graph.getChromaticNumber() == -1) {
-            graph.setChromaticNumber(chromaticNumber);
-            graph.setColoring(coloring);
+        private void siftDown(int i) {
+            int vertex = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && before(heap[child + 1], heap[child]))
+                    child++;
+                if (!before(heap[child], vertex))
+                    break;
+                heap[i] = heap[child];
+                position[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = vertex;
+            position[vertex] = i;
         }
     }
 
@@ -0,0 +1,443 @@
+package org.example.phase3.phase1algo.algorithms;
+
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import org.example.phase3.phase1algo.structures.Graph;
+import java.util.*;
+
+/**
+ * Splits a graph into atoms along clique separators, in two levels:
+ * <ul>
+ *     <li>Tarjan's algorithm splits it into biconnected blocks, which meet in single articulation vertices;</li>
+ *     <li>each block is split further along clique minimal separators found from the minimal elimination ordering
+ *     of MCS-M (Berry, Pogorelcnik and Simonet).</li>
+ * </ul>
+ * Every atom meets the atoms after it in its block, and every block meets the blocks after it, in a clique.
+ * The chromatic number of the graph is therefore the largest chromatic number among the atoms, and
+ * {@link #glue(int[][])} combines colorings of the atoms by permuting the colors of each one to agree on its separator.
+ */
+public class CliqueSeparatorDecomposition {
+
+    /**
+     * Blocks for which the O(nm) MCS-M ordering would take longer than this many steps are kept as a single atom
+     */
+    private static final long MCS_BUDGET = 200_000_000L;
+
+    private final int n;
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final List<int[]> atoms = new ArrayList<>();
+    private final List<Integer> blockStarts = new ArrayList<>();
+
+    /**
+     * @param graph The analyzed Graph object; it is not modified
+     */
+    public CliqueSeparatorDecomposition(Graph graph) {
+        this.n = graph.getOrder();
+        this.offsets = graph.getAdjacency().getOffsets();
+        this.neighbours = graph.getAdjacency().getNeighbours();
+
+        List<int[]> blocks = biconnectedBlocks();
+        // Tarjan emits a block after every block hanging below it, so reversed each block meets the earlier ones
+        // in at most its articulation vertex
+        Collections.reverse(blocks);
+        for (int[] block : blocks) {
+            blockStarts.add(atoms.size());
+            atoms.addAll(splitBlock(block));
+        }
+    }
+
+    /**
+     * @return Number of atoms.
+     */
+    public int getAtomCount() {
+        return atoms.size();
+    }
+
+    /**
+     * @param index Index of the atom
+     * @return Vertices of the atom in increasing order.
+     */
+    public int[] getAtom(int index) {
+        return atoms.get(index);
+    }
+
+    /**
+     * @return Index of the first atom of every block, in increasing order; the atoms of a block are consecutive
+     */
+    int[] getBlockStarts() {
+        return blockStarts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @param index Index of the atom
+     * @return The subgraph induced by the atom, with its i-th vertex renumbered to i
+     */
+    public Graph getAtomGraph(int index) {
+        return inducedGraph(atoms.get(index));
+    }
+
+    /**
+     * Builds the subgraph induced by the given vertices straight in CSR form. Vertices are renumbered by binary search
+     * in the sorted vertex array, which keeps the rows sorted and every array sized by the subgraph, not the graph.
+     *
+     * @param vertices Vertices in increasing order
+     * @return The subgraph induced by the given vertices, with the i-th one renumbered to i
+     */
+    private Graph inducedGraph(int[] vertices) {
+        int size = vertices.length;
+        int degreeSum = 0;
+        for (int v : vertices) {
+            degreeSum += offsets[v + 1] - offsets[v];
+        }
+        int[] localOffsets = new int[size + 1];
+        int[] localNeighbours = new int[degreeSum];
+        int entries = 0;
+        for (int i = 0; i < size; i++) {
+            int v = vertices[i];
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int u = Arrays.binarySearch(vertices, neighbours[k]);
+                if (u >= 0) {
+                    localNeighbours[entries++] = u;
+                }
+            }
+            localOffsets[i + 1] = entries;
+        }
+        return new Graph(CsrGraph.fromCsr(size, localOffsets,
+            entries == degreeSum ? localNeighbours : Arrays.copyOf(localNeighbours, entries)));
+    }
+
+    /**
+     * Combines proper colorings of the atoms into a proper coloring of the graph that uses as many colors as the
+     * atom needing the most.
+     *
+     * @param atomColorings 0-based coloring of every atom, indexed like the vertices of {@link #getAtomGraph(int)}
+     * @return 0-based coloring of the graph
+     */
+    public int[] glue(int[][] atomColorings) {
+        int[] coloring = new int[n];
+        int[] blockColoring = new int[n];
+        Arrays.fill(coloring, -1);
+        Arrays.fill(blockColoring, -1);
+        int[] targetOf = new int[n + 1];
+        boolean[] taken = new boolean[n + 1];
+
+        for (int b = 0; b < blockStarts.size(); b++) {
+            int end = b + 1 < blockStarts.size() ? blockStarts.get(b + 1) : atoms.size();
+            Set<Integer> block = new TreeSet<>();
+            for (int a = blockStarts.get(b); a < end; a++) {
+                permuteOnto(blockColoring, atoms.get(a), atomColorings[a], targetOf, taken);
+                for (int v : atoms.get(a)) {
+                    block.add(v);
+                }
+            }
+
+            int[] vertices = new int[block.size()];
+            int[] colors = new int[block.size()];
+            int i = 0;
+            for (int v : block) {
+                vertices[i] = v;
+                colors[i++] = blockColoring[v];
+                blockColoring[v] = -1;
+            }
+            permuteOnto(coloring, vertices, colors, targetOf, taken);
+        }
+        return coloring;
+    }
+
+    /**
+     * Writes a coloring of some vertices into a partial coloring, renaming its colors so that the vertices already
+     * colored keep their color. Those vertices must form a clique, so no two of them share a color on either side.
+     */
+    private static void permuteOnto(int[] target, int[] vertices, int[] colors, int[] targetOf, boolean[] taken) {
+        int colorCount = 0;
+        for (int c : colors) {
+            colorCount = Math.max(colorCount, c + 1);
+        }
+        Arrays.fill(targetOf, 0, colorCount, -1);
+        for (int i = 0; i < vertices.length; i++) {
+            int existing = target[vertices[i]];
+            if (existing != -1) {
+                targetOf[colors[i]] = existing;
+                taken[existing] = true;
+            }
+        }
+        int next = 0;
+        for (int c = 0; c < colorCount; c++) {
+            if (targetOf[c] == -1) {
+                while (taken[next]) {
+                    next++;
+                }
+                targetOf[c] = next;
+                taken[next] = true;
+            }
+        }
+        for (int i = 0; i < vertices.length; i++) {
+            target[vertices[i]] = targetOf[colors[i]];
+        }
+        // Leave taken cleared for the next call without sweeping all of it
+        for (int c = 0; c < colorCount; c++) {
+            taken[targetOf[c]] = false;
+        }
+    }
+
+    /**
+     * Iterative Tarjan search for the biconnected blocks. Isolated vertices form blocks of their own.
+     *
+     * @return The vertices of every block in increasing order, each block emitted after the blocks below it in the
+     * depth-first search tree
+     */
+    private List<int[]> biconnectedBlocks() {
+        List<int[]> blocks = new ArrayList<>();
+        int[] discovery = new int[n];
+        int[] low = new int[n];
+        int[] parent = new int[n];
+        int[] next = new int[n];
+        int[] dfsStack = new int[n];
+        int[] vertexStack = new int[n];
+        Arrays.fill(discovery, -1);
+        int time = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (discovery[root] != -1) {
+                continue;
+            }
+            if (offsets[root] == offsets[root + 1]) {
+                discovery[root] = time++;
+                blocks.add(new int[]{root});
+                continue;
+            }
+            int dfsTop = 0;
+            int vertexTop = 0;
+            discovery[root] = low[root] = time++;
+            parent[root] = -1;
+            next[root] = offsets[root];
+            dfsStack[dfsTop++] = root;
+            vertexStack[vertexTop++] = root;
+
+            while (dfsTop > 0) {
+                int v = dfsStack[dfsTop - 1];
+                if (next[v] < offsets[v + 1]) {
+                    int w = neighbours[next[v]++];
+                    if (discovery[w] == -1) {
+                        discovery[w] = low[w] = time++;
+                        parent[w] = v;
+                        next[w] = offsets[w];
+                        dfsStack[dfsTop++] = w;
+                        vertexStack[vertexTop++] = w;
+                    } else if (w != parent[v]) {
+                        low[v] = Math.min(low[v], discovery[w]);
+                    }
+                    continue;
+                }
+
+                dfsTop--;
+                if (dfsTop == 0) {
+                    continue;
+                }
+                int p = dfsStack[dfsTop - 1];
+                low[p] = Math.min(low[p], low[v]);
+                if (low[v] >= discovery[p]) {
+                    // p separates the subtree of v from the rest: pop it as a block together with p
+                    int size = 1;
+                    while (vertexStack[vertexTop - size] != v) {
+                        size++;
+                    }
+                    int[] block = new int[size + 1];
+                    System.arraycopy(vertexStack, vertexTop - size, block, 0, size);
+                    block[size] = p;
+                    vertexTop -= size;
+                    Arrays.sort(block);
+                    blocks.add(block);
+                }
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * Splits a biconnected block along clique minimal separators. MCS-M yields a minimal elimination ordering
+     * together with the vertices x whose higher neighbours madj(x) in the filled graph are the candidate minimal
+     * separators. Going through them in elimination order, whenever the part of the remaining graph around x is cut
+     * off by a clique, that part together with the clique is an atom and the part is removed.
+     *
+     * @param block Vertices of the block in increasing order
+     * @return The atoms of the block, each in increasing order, such that every atom meets the earlier ones in a clique
+     */
+    private List<int[]> splitBlock(int[] block) {
+        int size = block.length;
+        long blockEdges = 0;
+        for (int v : block) {
+            blockEdges += offsets[v + 1] - offsets[v];
+        }
+        if (size <= 3 || (long) size * blockEdges > MCS_BUDGET) {
+            return List.of(block);
+        }
+        Graph blockGraph = inducedGraph(block);
+        int[] blockOffsets = blockGraph.getAdjacency().getOffsets();
+        int[] blockNeighbours = blockGraph.getAdjacency().getNeighbours();
+
+        // MCS-M: number the vertices from size - 1 down to 0
+        int[] label = new int[size];
+        boolean[] numbered = new boolean[size];
+        int[] pickOrder = new int[size];
+        boolean[] generator = new boolean[size];
+        int[][] madj = new int[size][];
+        int[] madjSize = new int[size];
+        for (int v = 0; v < size; v++) {
+            madj[v] = new int[4];
+        }
+        int[] cost = new int[size];
+        boolean[] done = new boolean[size];
+        int[] bucketHead = new int[size + 2];
+        int[] nodeVertex = new int[blockOffsets[size] + size];
+        int[] nodeNext = new int[nodeVertex.length];
+        int[] reached = new int[size];
+        int previousLabel = -1;
+
+        for (int step = 0; step < size; step++) {
+            int v = -1;
+            for (int u = 0; u < size; u++) {
+                if (!numbered[u] && (v == -1 || label[u] > label[v])) {
+                    v = u;
+                }
+            }
+            // A label that does not grow along the ordering marks madj(v) as a minimal separator
+            generator[v] = label[v] <= previousLabel;
+            previousLabel = label[v];
+            numbered[v] = true;
+            pickOrder[step] = v;
+
+            // Reach every unnumbered u through unnumbered vertices all labelled below label(u): the bucket queue
+            // orders vertices by the largest intermediate label on their best path, shifted by one
+            Arrays.fill(cost, Integer.MAX_VALUE);
+            Arrays.fill(done, false);
+            Arrays.fill(bucketHead, -1);
+            int nodes = 0;
+            int reachedCount = 0;
+            for (int i = blockOffsets[v]; i < blockOffsets[v + 1]; i++) {
+                int w = blockNeighbours[i];
+                if (!numbered[w]) {
+                    cost[w] = -1;
+                    nodeVertex[nodes] = w;
+                    nodeNext[nodes] = bucketHead[0];
+                    bucketHead[0] = nodes++;
+                }
+            }
+            for (int bucket = 0; bucket < size + 2; bucket++) {
+                while (bucketHead[bucket] != -1) {
+                    int node = bucketHead[bucket];
+                    bucketHead[bucket] = nodeNext[node];
+                    int u = nodeVertex[node];
+                    if (done[u] || cost[u] != bucket - 1) {
+                        continue;
+                    }
+                    done[u] = true;
+                    if (cost[u] < label[u]) {
+                        reached[reachedCount++] = u;
+                    }
+                    int through = Math.max(cost[u], label[u]);
+                    for (int i = blockOffsets[u]; i < blockOffsets[u + 1]; i++) {
+                        int x = blockNeighbours[i];
+                        if (!numbered[x] && !done[x] && through < cost[x]) {
+                            cost[x] = through;
+                            if (nodes == nodeVertex.length) {
+                                nodeVertex = Arrays.copyOf(nodeVertex, 2 * nodes);
+                                nodeNext = Arrays.copyOf(nodeNext, 2 * nodes);
+                            }
+                            nodeVertex[nodes] = x;
+                            nodeNext[nodes] = bucketHead[through + 1];
+                            bucketHead[through + 1] = nodes++;
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < reachedCount; i++) {
+                int u = reached[i];
+                label[u]++;
+                if (madjSize[u] == madj[u].length) {
+                    madj[u] = Arrays.copyOf(madj[u], 2 * madjSize[u]);
+                }
+                madj[u][madjSize[u]++] = v;
+            }
+        }
+
+        // Cut off atoms in elimination order, i.e. the reverse of the numbering order
+        List<int[]> produced = new ArrayList<>();
+        boolean[] present = new boolean[size];
+        Arrays.fill(present, true);
+        int presentCount = size;
+        int[] mark = new int[size];
+        int stamp = 0;
+        int[] queue = new int[size];
+        int[] separator = new int[size];
+        for (int step = size - 1; step >= 0; step--) {
+            int x = pickOrder[step];
+            if (!generator[x] || !present[x]) {
+                continue;
+            }
+            // mark == stamp: candidate separator, stamp + 1: part around x, stamp + 2: separator reached from it
+            stamp += 3;
+            for (int i = 0; i < madjSize[x]; i++) {
+                mark[madj[x][i]] = stamp;
+            }
+            int head = 0;
+            int tail = 0;
+            int separatorSize = 0;
+            queue[tail++] = x;
+            mark[x] = stamp + 1;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int i = blockOffsets[u]; i < blockOffsets[u + 1]; i++) {
+                    int w = blockNeighbours[i];
+                    if (!present[w] || mark[w] == stamp + 1 || mark[w] == stamp + 2) {
+                        continue;
+                    }
+                    if (mark[w] == stamp) {
+                        mark[w] = stamp + 2;
+                        separator[separatorSize++] = w;
+                    } else {
+                        mark[w] = stamp + 1;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            if (tail + separatorSize == presentCount || !isClique(blockGraph.getAdjacency(), separator, separatorSize)) {
+                continue;
+            }
+            int[] atom = new int[tail + separatorSize];
+            for (int i = 0; i < tail; i++) {
+                atom[i] = block[queue[i]];
+                present[queue[i]] = false;
+            }
+            for (int i = 0; i < separatorSize; i++) {
+                atom[tail + i] = block[separator[i]];
+            }
+            presentCount -= tail;
+            Arrays.sort(atom);
+            produced.add(atom);
+        }
+        int[] rest = new int[presentCount];
+        int idx = 0;
+        for (int v = 0; v < size; v++) {
+            if (present[v]) {
+                rest[idx++] = block[v];
+            }
+        }
+        produced.add(rest);
+
+        // Each atom meets the atoms produced after it in its separator, so glue them from the last one back
+        Collections.reverse(produced);
+        return produced;
+    }
+
+    private static boolean isClique(CsrGraph graph, int[] vertices, int count) {
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                if (!graph.isAdjacent(vertices[i], vertices[j])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
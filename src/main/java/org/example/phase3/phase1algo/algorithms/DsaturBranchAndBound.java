@@ -0,0 +1,274 @@
+package org.example.phase3.phase1algo.algorithms;
+
+import org.example.phase3.phase1algo.structures.Graph;
+import org.example.phase3.phase1algo.utils.HelpFunctions;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Exact DSATUR-based branch and bound for the chromatic number, with the PASS vertex selection of San Segundo.
+ * Unlike {@link Backtracking}, which decides k-colorability once per k, a single search tree covers the whole range
+ * between the lower and upper bound: a vertex may take any color already in use or one new color as long as the
+ * coloring stays below the incumbent, and every complete coloring found lowers the incumbent for the rest of the tree.
+ */
+public class DsaturBranchAndBound {
+
+    /**
+     * PASS tie breaking is only applied when at most this many vertices share the largest saturation;
+     * larger ties are broken by degree, which is far cheaper
+     */
+    private static final int PASS_TIE_LIMIT = 64;
+
+    private final TimerCheck timer;
+    private Consumer<int[]> improvementListener;
+    private int n;
+    private int maxColors;
+    private int[] offsets;
+    private int[] neighbours;
+    private int[] colors;
+    private int[] colorCount;
+    private int[] saturation;
+    private int[] ties;
+    private int[] tieMark;
+    private int tieStamp;
+    private int coloredCount;
+    private int usedColors;
+    private int lowerBound;
+    private int upperBound;
+    private int[] bestColoring;
+    private boolean aborted;
+
+    /**
+     * Fewest colors of a coloring found outside this search, e.g. by another engine; prunes like the incumbent
+     */
+    private volatile int externalUpperBound = Integer.MAX_VALUE;
+
+    /**
+     * Pruning bound when the last search returned; every branch was cut at this bound or a larger one
+     */
+    private int finalBound;
+
+    /**
+     * @param timer Timer limiting the search; when it expires the best coloring found so far is kept
+     */
+    public DsaturBranchAndBound(TimerCheck timer) {
+        this.timer = timer;
+    }
+
+    /**
+     * @param improvementListener Called with a copy of every coloring that lowers the incumbent
+     */
+    public void setImprovementListener(Consumer<int[]> improvementListener) {
+        this.improvementListener = improvementListener;
+    }
+
+    /**
+     * Searches for an optimal coloring. The graph's maximum clique, if set, is pre-colored with the first colors,
+     * which is no loss of generality since color classes are interchangeable.
+     *
+     * @param graph      The analyzed Graph object
+     * @param incumbent  A proper coloring used as the initial upper bound
+     * @param lowerBound Lower bound for the chromatic number; the search stops once a coloring reaches it
+     * @return The best proper coloring found
+     */
+    public int[] solve(Graph graph, int[] incumbent, int lowerBound) {
+        this.n = graph.getOrder();
+        this.offsets = graph.getAdjacency().getOffsets();
+        this.neighbours = graph.getAdjacency().getNeighbours();
+        this.lowerBound = lowerBound;
+        this.bestColoring = incumbent.clone();
+        this.upperBound = HelpFunctions.maxInArray(incumbent) + 1;
+        this.maxColors = upperBound;
+        this.colors = new int[n];
+        Arrays.fill(colors, -1);
+        this.colorCount = new int[n * maxColors];
+        this.saturation = new int[n];
+        this.ties = new int[n];
+        this.tieMark = new int[n];
+        this.tieStamp = 0;
+        this.coloredCount = 0;
+        this.aborted = false;
+
+        int[] clique = graph.getMaxClique();
+        for (int i = 0; i < clique.length; i++) {
+            assign(clique[i], i);
+        }
+        usedColors = clique.length;
+
+        search();
+        finalBound = bound();
+        return bestColoring;
+    }
+
+    /**
+     * @return Number of colors of the best coloring found by the last {@link #solve} call
+     */
+    public int getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return True if the last {@link #solve} call finished its search, so its coloring is optimal
+     */
+    public boolean isOptimal() {
+        return (!aborted && upperBound == finalBound) || upperBound == lowerBound;
+    }
+
+    /**
+     * @return Lower bound proven by the last {@link #solve} call: a finished search leaves no coloring below the
+     *         incumbent or the external upper bound, whichever is smaller
+     */
+    public int getLowerBound() {
+        return aborted ? lowerBound : Math.max(lowerBound, finalBound);
+    }
+
+    /**
+     * Reports a coloring with the given number of colors found elsewhere; from then on the search only looks for
+     * colorings with fewer colors. May be called from any thread.
+     *
+     * @param colors Number of colors of a proper coloring of the same graph, or of a graph containing it
+     */
+    public synchronized void offerUpperBound(int colors) {
+        externalUpperBound = Math.min(externalUpperBound, colors);
+    }
+
+    private int bound() {
+        return Math.min(upperBound, externalUpperBound);
+    }
+
+    private void search() {
+        if (Math.max(usedColors, lowerBound) >= bound()) {
+            return;
+        }
+        if (timer.hasTimerExpired()) {
+            aborted = true;
+            return;
+        }
+        if (coloredCount == n) {
+            upperBound = usedColors;
+            bestColoring = colors.clone();
+            System.out.println("Branch and bound found coloring with " + usedColors + " colors");
+            if (improvementListener != null) {
+                improvementListener.accept(bestColoring.clone());
+            }
+            return;
+        }
+
+        int vertex = selectVertex();
+        int base = vertex * maxColors;
+        for (int color = 0; color < usedColors; color++) {
+            if (colorCount[base + color] == 0) {
+                assign(vertex, color);
+                search();
+                unassign(vertex, color);
+                if (Math.max(usedColors, lowerBound) >= bound() || aborted) {
+                    return;
+                }
+            }
+        }
+
+        // Open a new color only if the result can still beat the incumbent
+        if (usedColors + 1 < bound()) {
+            int color = usedColors++;
+            assign(vertex, color);
+            search();
+            unassign(vertex, color);
+            usedColors--;
+        }
+    }
+
+    /**
+     * Selects the uncolored vertex with the largest saturation. Ties are broken PASS-style by the vertex whose
+     * available colors overlap most with those of the adjacent tied vertices, then by degree.
+     */
+    private int selectVertex() {
+        int maxSaturation = -1;
+        int tieCount = 0;
+        for (int v = 0; v < n; v++) {
+            if (colors[v] != -1) {
+                continue;
+            }
+            if (saturation[v] > maxSaturation) {
+                maxSaturation = saturation[v];
+                tieCount = 0;
+            }
+            if (saturation[v] == maxSaturation) {
+                ties[tieCount++] = v;
+            }
+        }
+
+        if (tieCount == 1) {
+            return ties[0];
+        }
+
+        if (tieCount > PASS_TIE_LIMIT) {
+            int best = ties[0];
+            for (int i = 1; i < tieCount; i++) {
+                if (degree(ties[i]) > degree(best)) {
+                    best = ties[i];
+                }
+            }
+            return best;
+        }
+
+        tieStamp++;
+        for (int i = 0; i < tieCount; i++) {
+            tieMark[ties[i]] = tieStamp;
+        }
+
+        int best = -1;
+        int bestScore = -1;
+        for (int i = 0; i < tieCount; i++) {
+            int v = ties[i];
+            int score = 0;
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int u = neighbours[k];
+                if (tieMark[u] == tieStamp) {
+                    score += sharedAvailableColors(v, u);
+                }
+            }
+            if (score > bestScore || (score == bestScore && degree(v) > degree(best))) {
+                best = v;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return Number of colors in use that neither vertex has in its neighbourhood
+     */
+    private int sharedAvailableColors(int v, int u) {
+        int shared = 0;
+        for (int c = 0; c < usedColors; c++) {
+            if (colorCount[v * maxColors + c] == 0 && colorCount[u * maxColors + c] == 0) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+
+    private int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    private void assign(int vertex, int color) {
+        colors[vertex] = color;
+        coloredCount++;
+        for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+            if (colorCount[neighbours[i] * maxColors + color]++ == 0) {
+                saturation[neighbours[i]]++;
+            }
+        }
+    }
+
+    private void unassign(int vertex, int color) {
+        colors[vertex] = -1;
+        coloredCount--;
+        for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+            if (--colorCount[neighbours[i] * maxColors + color] == 0) {
+                saturation[neighbours[i]]--;
+            }
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package org.example.phase3.phase1algo.algorithms;
+
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import org.example.phase3.phase1algo.structures.Graph;
+import java.util.*;
+
+/**
+ * Shrinks a graph before exact search while preserving its chromatic number relative to a known lower bound LB.
+ * <ul>
+ *     <li>A vertex with fewer than LB remaining neighbours can always be colored last with one of the first LB colors.</li>
+ *     <li>A vertex v whose remaining neighbourhood is contained in that of a non-adjacent vertex u can always take
+ *     the color of u.</li>
+ * </ul>
+ * Both rules are applied until neither removes anything, and every removal is pushed on an undo stack.
+ * {@link #extend(int[])} replays the stack backwards to turn a coloring of the reduced graph into one of the full
+ * graph with max(colors used, LB) colors. {@link #reduce(int)} can be called again when the lower bound improves.
+ */
+public class GraphReduction {
+
+    /**
+     * Upper limit on the neighbour visits spent on the domination rule per {@link #reduce(int)} call,
+     * which keeps the rule cheap on dense graphs where it rarely applies
+     */
+    private static final long DOMINATION_BUDGET = 50_000_000L;
+
+    private final Graph graph;
+    private final int n;
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final boolean[] removed;
+    private final int[] remainingDegree;
+    private final int[] undoVertex;
+    private final int[] undoSource;
+    private int undoSize;
+    private int lowerBound;
+    private Graph reducedGraph;
+    private int[] vertexMap;
+
+    /**
+     * @param graph The analyzed Graph object; it is not modified
+     */
+    public GraphReduction(Graph graph) {
+        this.graph = graph;
+        this.n = graph.getOrder();
+        this.offsets = graph.getAdjacency().getOffsets();
+        this.neighbours = graph.getAdjacency().getNeighbours();
+        this.removed = new boolean[n];
+        this.remainingDegree = new int[n];
+        for (int v = 0; v < n; v++) {
+            remainingDegree[v] = offsets[v + 1] - offsets[v];
+        }
+        this.undoVertex = new int[n];
+        this.undoSource = new int[n];
+    }
+
+    /**
+     * Applies low-degree peeling and dominated-vertex removal until neither applies.
+     *
+     * @param lowerBound A lower bound on the chromatic number of the graph; lower values than before are ignored
+     * @return Number of vertices removed by this call
+     */
+    public int reduce(int lowerBound) {
+        this.lowerBound = Math.max(this.lowerBound, lowerBound);
+        int before = undoSize;
+        long budget = DOMINATION_BUDGET;
+        int[] mark = new int[n];
+        int stamp = 0;
+
+        boolean changed = true;
+        while (changed) {
+            changed = peel();
+            for (int v = 0; v < n && budget > 0; v++) {
+                if (removed[v]) {
+                    continue;
+                }
+                stamp++;
+                int dominator = findDominator(v, mark, stamp);
+                budget -= (long) remainingDegree[v] * remainingDegree[v] + 1;
+                if (dominator != -1) {
+                    remove(v, dominator);
+                    changed = true;
+                }
+            }
+        }
+
+        if (undoSize > before) {
+            reducedGraph = null;
+        }
+        return undoSize - before;
+    }
+
+    /**
+     * Removes every vertex with fewer than lowerBound remaining neighbours, repeatedly.
+     *
+     * @return True if any vertex was removed
+     */
+    private boolean peel() {
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (!removed[v] && remainingDegree[v] < lowerBound) {
+                queue[tail++] = v;
+            }
+        }
+        boolean any = false;
+        while (head < tail) {
+            int v = queue[head++];
+            if (removed[v]) {
+                continue;
+            }
+            remove(v, -1);
+            any = true;
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int u = neighbours[i];
+                // Queue each vertex once, when its degree first drops below the bound
+                if (!removed[u] && remainingDegree[u] == lowerBound - 1) {
+                    queue[tail++] = u;
+                }
+            }
+        }
+        return any;
+    }
+
+    /**
+     * Looks for a remaining vertex u, not adjacent to v, whose remaining neighbourhood contains that of v.
+     * Such a u must be a neighbour of every remaining neighbour of v, so only the neighbours of v's
+     * lowest-degree neighbour are tested.
+     *
+     * @return The dominating vertex, or -1 if there is none
+     */
+    private int findDominator(int v, int[] mark, int stamp) {
+        int pivot = -1;
+        for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+            int w = neighbours[i];
+            if (!removed[w]) {
+                mark[w] = stamp;
+                if (pivot == -1 || remainingDegree[w] < remainingDegree[pivot]) {
+                    pivot = w;
+                }
+            }
+        }
+        if (pivot == -1) {
+            return -1;
+        }
+
+        int degree = remainingDegree[v];
+        for (int i = offsets[pivot]; i < offsets[pivot + 1]; i++) {
+            int u = neighbours[i];
+            if (u == v || removed[u] || mark[u] == stamp || remainingDegree[u] < degree) {
+                continue;
+            }
+            int shared = 0;
+            for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                if (mark[neighbours[k]] == stamp) {
+                    shared++;
+                }
+            }
+            if (shared == degree) {
+                return u;
+            }
+        }
+        return -1;
+    }
+
+    private void remove(int v, int source) {
+        removed[v] = true;
+        undoVertex[undoSize] = v;
+        undoSource[undoSize] = source;
+        undoSize++;
+        for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+            remainingDegree[neighbours[i]]--;
+        }
+    }
+
+    /**
+     * @return Number of vertices removed so far.
+     */
+    public int getRemovedCount() {
+        return undoSize;
+    }
+
+    /**
+     * Returns the graph induced by the remaining vertices, renumbered in increasing order of their original index.
+     * The part of the original graph's maximum clique that remains is carried over, as is the lower bound.
+     *
+     * @return The reduced graph; the original graph itself if nothing was removed
+     */
+    public Graph getReducedGraph() {
+        if (reducedGraph != null) {
+            return reducedGraph;
+        }
+        int[] index = new int[n];
+        int order = 0;
+        for (int v = 0; v < n; v++) {
+            index[v] = removed[v] ? -1 : order++;
+        }
+        vertexMap = new int[order];
+        for (int v = 0; v < n; v++) {
+            if (!removed[v]) {
+                vertexMap[index[v]] = v;
+            }
+        }
+        if (order == n) {
+            reducedGraph = graph;
+            return graph;
+        }
+
+        int[] edgeList = new int[2 * graph.getEdgeCount()];
+        int edges = 0;
+        for (int v = 0; v < n; v++) {
+            if (removed[v]) {
+                continue;
+            }
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int u = neighbours[i];
+                if (v < u && !removed[u]) {
+                    edgeList[2 * edges] = index[v];
+                    edgeList[2 * edges + 1] = index[u];
+                    edges++;
+                }
+            }
+        }
+        reducedGraph = new Graph(CsrGraph.fromEdgeList(order, edgeList, edges));
+
+        int[] clique = graph.getMaxClique();
+        int kept = 0;
+        int[] reducedClique = new int[clique.length];
+        for (int v : clique) {
+            if (!removed[v]) {
+                reducedClique[kept++] = index[v];
+            }
+        }
+        reducedGraph.setMaxClique(Arrays.copyOf(reducedClique, kept));
+        reducedGraph.setLowerBound(lowerBound);
+        return reducedGraph;
+    }
+
+    /**
+     * Extends a coloring of the reduced graph to the full graph by undoing the removals in reverse order.
+     * Peeled vertices take the smallest color free among their colored neighbours, which is below the lower bound;
+     * dominated vertices take the color of their dominator.
+     *
+     * @param reducedColoring Proper coloring of the graph returned by {@link #getReducedGraph()}
+     * @return Proper coloring of the full graph
+     */
+    public int[] extend(int[] reducedColoring) {
+        getReducedGraph();
+        int[] coloring = new int[n];
+        Arrays.fill(coloring, -1);
+        for (int i = 0; i < vertexMap.length; i++) {
+            coloring[vertexMap[i]] = reducedColoring[i];
+        }
+
+        int[] usedBy = new int[n + 1];
+        for (int idx = undoSize - 1; idx >= 0; idx--) {
+            int v = undoVertex[idx];
+            if (undoSource[idx] >= 0) {
+                coloring[v] = coloring[undoSource[idx]];
+                continue;
+            }
+            // usedBy[c] == idx + 1 marks color c as taken by a neighbour of the vertex restored at step idx
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int c = coloring[neighbours[i]];
+                if (c >= 0 && c <= n) {
+                    usedBy[c] = idx + 1;
+                }
+            }
+            int color = 0;
+            while (usedBy[color] == idx + 1) {
+                color++;
+            }
+            coloring[v] = color;
+        }
+        return coloring;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.phase3.phase1algo.algorithms;
+
+import org.example.phase3.phase1algo.data.ReadGraph;
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import org.example.phase3.phase1algo.structures.Graph;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Measures how the exact {@link Backtracking} search scales with the number of threads. Every graph of a directory
+ * is searched from the same clique lower bound and DSATUR upper bound with 1, 2, 4, ... threads up to the number of
+ * processors, and the wall time and speedup over one thread are printed per graph. Graphs whose bounds already meet
+ * need no search and are skipped.
+ */
+public class SpeedupCurve {
+    private static final String DEFAULT_DIRECTORY = "src/main/resources/2425_exampleGraphs";
+    private static final long DEFAULT_TIME_LIMIT = 60000;
+
+    /**
+     * @param args Optional directory of graph files and optional time limit per run in milliseconds
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : DEFAULT_DIRECTORY);
+        long timeLimit = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_TIME_LIMIT;
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < processors; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(processors);
+        System.out.println("Backtracking speedup on " + directory + " with " + threadCounts + " threads, "
+            + timeLimit + " ms per run");
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(Files::isRegularFile).sorted().toList();
+        }
+        for (Path file : files) {
+            Graph graph = load(file);
+            Bounds.LowerBound.lowerBoundLargestClique(graph);
+            int lowerBound = graph.getLowerBound();
+            ChromaticNumber.DSATUR(graph);
+            int upperBound = graph.getChromaticNumber();
+            int[] incumbent = graph.getColoring().clone();
+            if (lowerBound >= upperBound) {
+                System.out.println(file.getFileName() + ": bounds meet at " + upperBound + ", skipped");
+                continue;
+            }
+
+            StringBuilder line = new StringBuilder(file.getFileName() + ":");
+            long single = 0;
+            for (int threads : threadCounts) {
+                TimerCheck timer = new TimerCheck(timeLimit);
+                Backtracking backtracking = new Backtracking(timer, new AtomicInteger(upperBound));
+                backtracking.setParallelism(threads);
+                timer.start();
+                long start = System.nanoTime();
+                backtracking.runBacktracking(graph, upperBound, lowerBound, incumbent.clone());
+                long millis = (System.nanoTime() - start) / 1000000;
+                if (threads == 1) {
+                    single = Math.max(millis, 1);
+                }
+                line.append(' ').append(threads).append(threads == 1 ? " thread " : " threads ").append(millis)
+                    .append(" ms");
+                if (!backtracking.isOptimal()) {
+                    line.append(" (time limit)");
+                } else if (threads > 1) {
+                    line.append(String.format(" (%.2fx)", (double) single / Math.max(millis, 1)));
+                }
+                line.append(',');
+            }
+            line.setLength(line.length() - 1);
+            System.out.println(line);
+        }
+    }
+
+    private static Graph load(Path file) throws IOException {
+        ReadGraph.EdgeList edgeList = ReadGraph.read(file);
+        int[] pairs = edgeList.getEdges();
+        int[] zeroBased = new int[2 * edgeList.getEdgeCount()];
+        for (int i = 0; i < zeroBased.length; i++) {
+            zeroBased[i] = pairs[i] - 1;
+        }
+        return new Graph(CsrGraph.fromEdgeList(edgeList.getVertexCount(), zeroBased));
+    }
+}
@@ -0,0 +1,240 @@
+package org.example.phase3.phase1algo.algorithms;
+
+import org.example.phase3.phase1algo.structures.Graph;
+import org.example.phase3.phase1algo.utils.HelpFunctions;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Tabucol local search for graph coloring (Hertz and de Werra, with the tenure of Galinier and Hao).
+ * For a fixed number of colors k it minimises the number of conflicting edges by recoloring one conflicting vertex
+ * per iteration, forbidding the reverse move for a number of iterations. Move costs are read from a gamma matrix,
+ * gamma[v][c] being the number of neighbours of v colored c, which is updated incrementally after every move.
+ */
+public class Tabucol {
+
+    /**
+     * Number of iterations between two checks of the timer
+     */
+    private static final int TIMER_CHECK_INTERVAL = 1024;
+
+    /**
+     * A search for k colors gives up after STALL_FACTOR * n * k iterations without reducing its best conflict count
+     */
+    private static final int STALL_FACTOR = 20;
+
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final int n;
+    private final long timeLimitMillis;
+    private final TimerCheck parent;
+    private final Random random;
+    private Consumer<int[]> improvementListener;
+
+    /**
+     * Constructs a Tabucol search for a graph.
+     *
+     * @param graph           The analyzed Graph object
+     * @param timeLimitMillis Time slice of {@link #reduce(int[], int)} in milliseconds
+     * @param seed            Seed of the random tie breaking and tenure, so runs are reproducible
+     */
+    public Tabucol(Graph graph, long timeLimitMillis, long seed) {
+        this(graph, timeLimitMillis, seed, null);
+    }
+
+    /**
+     * Constructs a Tabucol search for a graph whose time slices also end when a parent token expires.
+     *
+     * @param graph           The analyzed Graph object
+     * @param timeLimitMillis Time slice of {@link #reduce(int[], int)} in milliseconds
+     * @param seed            Seed of the random tie breaking and tenure, so runs are reproducible
+     * @param parent          Token of the surrounding solve; may be null
+     */
+    public Tabucol(Graph graph, long timeLimitMillis, long seed, TimerCheck parent) {
+        this.offsets = graph.getAdjacency().getOffsets();
+        this.neighbours = graph.getAdjacency().getNeighbours();
+        this.n = graph.getOrder();
+        this.timeLimitMillis = timeLimitMillis;
+        this.parent = parent;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @param improvementListener Called with a copy of every coloring {@link #reduce(int[], int)} finds
+     */
+    public void setImprovementListener(Consumer<int[]> improvementListener) {
+        this.improvementListener = improvementListener;
+    }
+
+    /**
+     * Starting from a proper coloring, repeatedly removes the highest color and repairs the result with tabu search
+     * until the time slice runs out, the lower bound is reached or the repair for some k stalls.
+     *
+     * @param coloring   A proper coloring with colors 0..k-1
+     * @param lowerBound Number of colors below which no coloring can exist
+     * @return The proper coloring with the fewest colors found; the input coloring if none was better
+     */
+    public int[] reduce(int[] coloring, int lowerBound) {
+        TimerCheck timer = new TimerCheck(timeLimitMillis, parent);
+        timer.start();
+        int[] best = coloring.clone();
+        try {
+            int k = HelpFunctions.maxInArray(best) + 1;
+            while (k - 1 >= Math.max(lowerBound, 1) && !timer.hasTimerExpired()) {
+                // Merge the highest color class into the others at random and repair
+                int[] start = best.clone();
+                for (int v = 0; v < n; v++)
+                    if (start[v] == k - 1)
+                        start[v] = random.nextInt(k - 1);
+
+                int[] result = search(start, k - 1, (long) STALL_FACTOR * n * (k - 1), timer);
+                if (result == null)
+                    break;
+                best = result;
+                k--;
+                System.out.println("Tabucol found coloring with " + k + " colors");
+                if (improvementListener != null) {
+                    improvementListener.accept(best.clone());
+                }
+            }
+        } finally {
+            timer.cancel();
+        }
+        return best;
+    }
+
+    /**
+     * Runs tabu search for a k-coloring from a possibly improper start.
+     *
+     * @param start         Initial assignment with colors 0..k-1; not modified
+     * @param k             Number of colors
+     * @param maxStall      Number of iterations without a new best conflict count after which the search gives up
+     * @param timer         Timer stopping the search when expired
+     * @return A proper k-coloring, or null if none was found within the limits
+     */
+    public int[] search(int[] start, int k, long maxStall, TimerCheck timer) {
+        int[] color = start.clone();
+        return improve(color, k, Long.MAX_VALUE, maxStall, timer) == 0 ? color : null;
+    }
+
+    /**
+     * Runs tabu search on a k-color assignment in place, leaving the assignment with the fewest conflicts seen.
+     *
+     * @param coloring      Assignment with colors 0..k-1, overwritten with the best assignment found
+     * @param k             Number of colors
+     * @param maxIterations Iteration limit of the search
+     * @param maxStall      Number of iterations without a new best conflict count after which the search gives up
+     * @param timer         Timer stopping the search when expired
+     * @return Number of conflicting edges of the resulting assignment
+     */
+    public int improve(int[] coloring, int k, long maxIterations, long maxStall, TimerCheck timer) {
+        int[] color = coloring.clone();
+        int[] gamma = new int[n * k];
+        long[] tabu = new long[n * k];
+
+        // Conflicting vertices in an indexed list, so membership changes are O(1)
+        int[] conflicting = new int[n];
+        int[] conflictPos = new int[n];
+        Arrays.fill(conflictPos, -1);
+        int conflictCount = 0;
+
+        int conflicts = 0;
+        for (int v = 0; v < n; v++)
+            for (int i = offsets[v]; i < offsets[v + 1]; i++)
+                gamma[v * k + color[neighbours[i]]]++;
+        for (int v = 0; v < n; v++) {
+            conflicts += gamma[v * k + color[v]];
+            if (gamma[v * k + color[v]] > 0) {
+                conflictPos[v] = conflictCount;
+                conflicting[conflictCount++] = v;
+            }
+        }
+        conflicts /= 2;
+        if (k < 2)
+            return conflicts;
+
+        int bestConflicts = conflicts;
+        long lastImprovement = 0;
+        for (long iteration = 0; conflicts > 0 && iteration < maxIterations && iteration - lastImprovement < maxStall; iteration++) {
+            if (iteration % TIMER_CHECK_INTERVAL == 0 && timer.hasTimerExpired())
+                break;
+
+            // Best non-tabu move among the conflicting vertices; tabu moves are allowed if they beat the best so far
+            int bestDelta = Integer.MAX_VALUE;
+            int moveVertex = -1;
+            int moveColor = -1;
+            int ties = 0;
+            for (int idx = 0; idx < conflictCount; idx++) {
+                int v = conflicting[idx];
+                int base = v * k;
+                int current = gamma[base + color[v]];
+                for (int c = 0; c < k; c++) {
+                    if (c == color[v])
+                        continue;
+                    int delta = gamma[base + c] - current;
+                    if (delta > bestDelta)
+                        continue;
+                    if (tabu[base + c] > iteration && conflicts + delta >= bestConflicts)
+                        continue;
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        ties = 0;
+                    }
+                    // Reservoir sampling picks uniformly among equally good moves
+                    if (random.nextInt(++ties) == 0) {
+                        moveVertex = v;
+                        moveColor = c;
+                    }
+                }
+            }
+
+            if (moveVertex == -1) {
+                // Every move is tabu: recolor a random conflicting vertex
+                moveVertex = conflicting[random.nextInt(conflictCount)];
+                moveColor = (color[moveVertex] + 1 + random.nextInt(k - 1)) % k;
+                bestDelta = gamma[moveVertex * k + moveColor] - gamma[moveVertex * k + color[moveVertex]];
+            }
+
+            int oldColor = color[moveVertex];
+            color[moveVertex] = moveColor;
+            conflicts += bestDelta;
+            tabu[moveVertex * k + oldColor] = iteration + (long) (0.6 * conflictCount) + random.nextInt(10);
+
+            for (int i = offsets[moveVertex]; i < offsets[moveVertex + 1]; i++) {
+                int u = neighbours[i];
+                gamma[u * k + oldColor]--;
+                gamma[u * k + moveColor]++;
+                conflictCount = updateConflicting(u, color, gamma, k, conflicting, conflictPos, conflictCount);
+            }
+            conflictCount = updateConflicting(moveVertex, color, gamma, k, conflicting, conflictPos, conflictCount);
+
+            if (conflicts < bestConflicts) {
+                bestConflicts = conflicts;
+                lastImprovement = iteration;
+                System.arraycopy(color, 0, coloring, 0, n);
+            }
+        }
+
+        return bestConflicts;
+    }
+
+    /**
+     * Adds a vertex to or removes it from the conflicting list according to its current gamma entry.
+     *
+     * @return The new size of the conflicting list
+     */
+    private static int updateConflicting(int v, int[] color, int[] gamma, int k,
+                                         int[] conflicting, int[] conflictPos, int conflictCount) {
+        boolean isConflicting = gamma[v * k + color[v]] > 0;
+        if (isConflicting && conflictPos[v] == -1) {
+            conflictPos[v] = conflictCount;
+            conflicting[conflictCount++] = v;
+        } else if (!isConflicting && conflictPos[v] != -1) {
+            int last = conflicting[--conflictCount];
+            conflicting[conflictPos[v]] = last;
+            conflictPos[last] = conflictPos[v];
+            conflictPos[v] = -1;
+        }
+        return conflictCount;
+    }
+}
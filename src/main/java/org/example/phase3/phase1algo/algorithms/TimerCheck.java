@@ -1,34 +1,125 @@
 package org.example.phase3.phase1algo.algorithms;
 
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Cooperative cancellation token with an optional deadline, polled by the search loops.
+ * The searches poll the token on every node, so the check is a single volatile read: expiry is pushed into the flag
+ * instead of being computed by each check. One daemon thread shared by all tokens cancels a token when its deadline
+ * passes, and cancelling a token cancels the children registered with it, which lets one {@link #cancel()} on a
+ * solve's root token stop every stage and worker below it.
+ */
 public class TimerCheck {
-    private final long timeoutMillis;
-    private long startTime;
+    /**
+     * Cancels tokens at their deadlines; tasks of tokens cancelled earlier are removed from its queue
+     */
+    private static final ScheduledThreadPoolExecutor DEADLINES = createScheduler();
+
+    private final long timeoutNanos;
+    private final TimerCheck parent;
+
+    /**
+     * Live tokens created with this one as parent; a child removes itself when it expires
+     */
+    private final Set<TimerCheck> children = ConcurrentHashMap.newKeySet();
+
+    private volatile ScheduledFuture<?> expiry;
     private volatile boolean timerExpired;
 
+    /**
+     * Creates a token without a deadline, which only expires when cancelled.
+     */
+    public TimerCheck() {
+        this(Long.MAX_VALUE, null);
+    }
+
+    /**
+     * @param timeoutMillis Time after {@link #start()} at which the token expires
+     */
     public TimerCheck(long timeoutMillis) {
-        this.timeoutMillis = timeoutMillis;
-        this.timerExpired = false;
+        this(timeoutMillis, null);
+    }
+
+    /**
+     * @param timeoutMillis Time after {@link #start()} at which the token expires
+     * @param parent        Token whose expiry or cancellation also expires this one; may be null
+     */
+    public TimerCheck(long timeoutMillis, TimerCheck parent) {
+        this.timeoutNanos = timeoutMillis == Long.MAX_VALUE ? Long.MAX_VALUE
+            : TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.parent = parent;
+        if (parent != null) {
+            parent.children.add(this);
+            // The parent may have been cancelled before it saw this child
+            if (parent.timerExpired) {
+                cancel();
+            }
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "TimerCheck deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * @return A new token without a deadline of its own that expires with this one
+     */
+    public TimerCheck child() {
+        return new TimerCheck(Long.MAX_VALUE, this);
+    }
+
+    /**
+     * @param timeoutMillis Time after {@link #start()} at which the child expires
+     * @return A new token that also expires with this one
+     */
+    public TimerCheck child(long timeoutMillis) {
+        return new TimerCheck(timeoutMillis, this);
     }
 
+    /**
+     * Starts the countdown to the deadline.
+     */
     public void start() {
-        startTime = System.currentTimeMillis();
-        new Thread(() -> {
-            while (!timerExpired && System.currentTimeMillis() - startTime < timeoutMillis) {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
+        if (timeoutNanos != Long.MAX_VALUE && !timerExpired) {
+            ScheduledFuture<?> previous = expiry;
+            expiry = DEADLINES.schedule(this::cancel, timeoutNanos, TimeUnit.NANOSECONDS);
+            if (previous != null) {
+                previous.cancel(false);
             }
-            timerExpired = true;
-        }).start();
+        }
     }
 
-    public void stop() {
+    /**
+     * Expires the token and every child below it. A stage cancels its token when it is done, which also releases it:
+     * its deadline is unscheduled and the parent no longer keeps it.
+     */
+    public void cancel() {
+        if (timerExpired) {
+            return;
+        }
         timerExpired = true;
+        ScheduledFuture<?> scheduled = expiry;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        if (parent != null) {
+            parent.children.remove(this);
+        }
+        for (TimerCheck child : children) {
+            child.cancel();
+        }
     }
 
+    /**
+     * @return True once the deadline has passed or this token or one of its ancestors was cancelled
+     */
     public boolean hasTimerExpired() {
         return timerExpired;
     }
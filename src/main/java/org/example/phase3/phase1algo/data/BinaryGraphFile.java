@@ -0,0 +1,217 @@
+package org.example.phase3.phase1algo.data;
+
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary graph file holding the CSR arrays as they are in memory, so loading a graph is a bulk copy out of a
+ * memory-mapped file instead of parsing text. All values are little-endian:
+ * <pre>
+ *   header (32 bytes)  int magic "CSRG", short version, short flags, int n, int reserved,
+ *                      long number of neighbour entries (2m), int reserved, int reserved
+ *   offsets            n + 1 ints
+ *   neighbours         2m ints, every row sorted ascending
+ *   checksum           int CRC32C of everything before it
+ * </pre>
+ * Vertices are 0-based; vertex v is vertex v + 1 of the text formats. Readers reject versions and flags they do not
+ * know; reserved fields are written as 0.
+ */
+public class BinaryGraphFile {
+    private static final int MAGIC = 'C' | 'S' << 8 | 'R' << 16 | 'G' << 24;
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    /**
+     * Largest part of the file mapped at once
+     */
+    private static final int WINDOW_BYTES = 1 << 30;
+
+    /**
+     * Bytes written per buffer flush
+     */
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    /**
+     * @return True if the file starts like a binary graph file
+     */
+    public static boolean isBinaryGraphFile(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer start = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            return channel.read(start, 0) == 4 && start.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a graph, replacing the file if it exists.
+     *
+     * @param file  Target file
+     * @param graph The graph
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Path file, CsrGraph graph) throws IOException {
+        int[] offsets = graph.getOffsets();
+        int[] neighbours = graph.getNeighbours();
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                .putInt(graph.getOrder()).putInt(0)
+                .putLong(neighbours.length).putInt(0).putInt(0);
+            for (int[] array : new int[][]{offsets, neighbours}) {
+                int done = 0;
+                while (done < array.length) {
+                    if (buffer.remaining() < Integer.BYTES) {
+                        flush(channel, buffer, crc);
+                    }
+                    int count = Math.min(array.length - done, buffer.remaining() / Integer.BYTES);
+                    buffer.asIntBuffer().put(array, done, count);
+                    buffer.position(buffer.position() + count * Integer.BYTES);
+                    done += count;
+                }
+            }
+            flush(channel, buffer, crc);
+            buffer.putInt((int) crc.getValue());
+            flush(channel, buffer, null);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        if (crc != null) {
+            crc.update(buffer.duplicate());
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Loads a graph by mapping the file and copying the CSR arrays out of it in bulk. The checksum is verified on the
+     * way, and the arrays are checked to form a valid CSR structure before they are handed out.
+     *
+     * @param file The binary graph file
+     * @return The graph
+     * @throws IOException If the file cannot be read, is not a binary graph file, has an unknown version or flags or
+     *                     a wrong checksum
+     */
+    public static CsrGraph read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES + Integer.BYTES) {
+                throw new IOException(file + " is too short to be a binary graph file");
+            }
+            CRC32C crc = new CRC32C();
+            ByteBuffer header = map(channel, 0, HEADER_BYTES, crc);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a binary graph file");
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary graph file version " + version + " in " + file);
+            }
+            short flags = header.getShort();
+            if (flags != 0) {
+                throw new IOException("Unsupported flags " + flags + " in binary graph file " + file);
+            }
+            int n = header.getInt();
+            header.getInt();
+            long entries = header.getLong();
+            long expectedSize = HEADER_BYTES + 4L * (n + 1) + 4L * entries + Integer.BYTES;
+            if (n < 0 || entries < 0 || entries > Integer.MAX_VALUE - 8 || channel.size() != expectedSize) {
+                throw new IOException("Binary graph file " + file + " is truncated or has a corrupt header");
+            }
+
+            long position = HEADER_BYTES;
+            int[] offsets = new int[n + 1];
+            position = readInts(channel, position, offsets, crc);
+            int[] neighbours = new int[(int) entries];
+            position = readInts(channel, position, neighbours, crc);
+            int checksum = map(channel, position, Integer.BYTES, null).getInt();
+            if (checksum != (int) crc.getValue()) {
+                throw new IOException("Checksum mismatch in binary graph file " + file);
+            }
+
+            try {
+                return CsrGraph.fromCsr(n, offsets, neighbours);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Binary graph file " + file + " holds no valid graph: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Converts a text graph file, in the VERTICES/EDGES format or as a plain edge list with an "edges:" section,
+     * to a binary graph file.
+     *
+     * @param textFile   The text file
+     * @param binaryFile The binary file to write
+     * @throws IOException If either file cannot be accessed
+     */
+    public static void convert(Path textFile, Path binaryFile) throws IOException {
+        ReadGraph.EdgeList edgeList = ReadGraph.read(textFile);
+        int[] pairs = edgeList.getEdges();
+        int[] zeroBased = new int[2 * edgeList.getEdgeCount()];
+        for (int i = 0; i < zeroBased.length; i++) {
+            zeroBased[i] = pairs[i] - 1;
+        }
+        write(binaryFile, CsrGraph.fromEdgeList(edgeList.getVertexCount(), zeroBased));
+    }
+
+    /**
+     * Converts text graph files to binary ones next to them, with the extension replaced by .csrg.
+     *
+     * @param args The text files to convert
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: BinaryGraphFile <graph file> ...");
+            return;
+        }
+        for (String arg : args) {
+            Path textFile = Paths.get(arg);
+            String name = textFile.getFileName().toString();
+            int dot = name.lastIndexOf('.');
+            Path binaryFile = textFile.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".csrg");
+            convert(textFile, binaryFile);
+            System.out.println("Converted " + textFile + " to " + binaryFile);
+        }
+    }
+
+    /**
+     * Copies ints out of the file window by window.
+     *
+     * @return Position after the ints
+     */
+    private static long readInts(FileChannel channel, long position, int[] target, CRC32C crc) throws IOException {
+        int done = 0;
+        while (done < target.length) {
+            int count = Math.min(target.length - done, WINDOW_BYTES / Integer.BYTES);
+            IntBuffer ints = map(channel, position, count * Integer.BYTES, crc).asIntBuffer();
+            ints.get(target, done, count);
+            done += count;
+            position += (long) count * Integer.BYTES;
+        }
+        return position;
+    }
+
+    /**
+     * Maps a read-only part of the file, adding it to the checksum if one is given.
+     */
+    private static ByteBuffer map(FileChannel channel, long position, int length, CRC32C crc) throws IOException {
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length).order(ByteOrder.LITTLE_ENDIAN);
+        if (crc != null) {
+            crc.update(buffer.duplicate());
+        }
+        return buffer;
+    }
+}
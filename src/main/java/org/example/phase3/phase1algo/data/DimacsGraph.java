@@ -0,0 +1,290 @@
+package org.example.phase3.phase1algo.data;
+
+import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.Evaluation.Graph;
+import org.example.phase3.Generation.ChromaticNumberSolver;
+import org.example.phase3.phase1algo.algorithms.Bounds;
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Reads graphs in the DIMACS .col format of the graph coloring benchmarks and writes colorings in the matching
+ * solution format.
+ * <p>
+ * An instance has comment lines starting with 'c', one problem line "p edge n m" (or "p col n m") and one
+ * "e u v" line per edge with 1-based vertices. The reader streams the file through a fixed buffer and writes the
+ * vertex pairs straight into the int array the CSR graph is built from; edges listed twice, in either direction,
+ * are merged when the CSR rows are deduplicated.
+ * <p>
+ * A solution has a line "s col k" followed by one line "l v c" per vertex with 1-based vertex and color.
+ * Certificates are added as comments: the lower bound, and a clique, which proves a lower bound of its own size.
+ */
+public class DimacsGraph {
+    /**
+     * Size of the read buffer, the only memory the reader needs besides the edge array
+     */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * @return True if the first line of the file that is not empty is a DIMACS comment or problem line
+     */
+    public static boolean isDimacsFile(Path file) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    return line.startsWith("c ") || line.equals("c") || line.startsWith("p ");
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return false;
+    }
+
+    /**
+     * Reads a DIMACS instance in a single pass.
+     *
+     * @param file The .col file
+     * @return The graph, with DIMACS vertex v as vertex v - 1
+     * @throws IOException              If the file cannot be read
+     * @throws IllegalArgumentException If the file has no problem line, an edge before it, or a vertex out of range
+     */
+    public static CsrGraph read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return new Reader(in).read();
+        }
+    }
+
+    /**
+     * Writes a coloring in DIMACS solution format, after checking that it is proper and that the clique is one.
+     *
+     * @param file   Target file, replaced if it exists
+     * @param graph  The colored graph
+     * @param result Coloring of the graph, with 1-based vertices and colors
+     * @param clique 0-based vertices of a clique of the graph certifying a lower bound; may be null
+     * @throws IOException              If the file cannot be written
+     * @throws IllegalArgumentException If the coloring is not proper or leaves a vertex out, or the clique is not one
+     */
+    public static void writeSolution(Path file, CsrGraph graph, ColoringResult result, int[] clique) throws IOException {
+        int n = graph.getOrder();
+        int[] coloring = new int[n];
+        for (int v = 0; v < n; v++) {
+            Integer color = result.getColorAssignments().get(v + 1);
+            if (color == null) {
+                throw new IllegalArgumentException("Vertex " + (v + 1) + " has no color");
+            }
+            coloring[v] = color;
+        }
+        int[] offsets = graph.getOffsets();
+        int[] neighbours = graph.getNeighbours();
+        Set<Integer> colors = new HashSet<>();
+        for (int v = 0; v < n; v++) {
+            colors.add(coloring[v]);
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                if (coloring[neighbours[k]] == coloring[v]) {
+                    throw new IllegalArgumentException("Vertices " + (v + 1) + " and " + (neighbours[k] + 1)
+                        + " are adjacent but both have color " + coloring[v]);
+                }
+            }
+        }
+        if (clique != null) {
+            for (int i = 0; i < clique.length; i++) {
+                for (int j = i + 1; j < clique.length; j++) {
+                    if (!graph.isAdjacent(clique[i], clique[j])) {
+                        throw new IllegalArgumentException("Vertices " + (clique[i] + 1) + " and " + (clique[j] + 1)
+                            + " of the clique are not adjacent");
+                    }
+                }
+            }
+        }
+
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            out.write("c " + result.getAlgorithmName().replace('\n', ' '));
+            out.newLine();
+            int lowerBound = Math.max(result.getLowerBound(), clique == null ? 0 : clique.length);
+            if (lowerBound > 0) {
+                out.write("c lower bound " + lowerBound);
+                out.newLine();
+            }
+            if (clique != null && clique.length > 0) {
+                StringBuilder line = new StringBuilder("c clique " + clique.length);
+                for (int v : clique) {
+                    line.append(' ').append(v + 1);
+                }
+                out.write(line.toString());
+                out.newLine();
+            }
+            out.write("s col " + colors.size());
+            out.newLine();
+            for (int v = 0; v < n; v++) {
+                out.write("l " + (v + 1) + " " + coloring[v]);
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Solves DIMACS instances one after the other and writes each solution next to its instance, with the
+     * extension replaced by .sol.
+     *
+     * @param args The .col files to solve
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: DimacsGraph <instance.col> ...");
+            return;
+        }
+        for (String arg : args) {
+            Path instance = Paths.get(arg);
+            CsrGraph adjacency = read(instance);
+            System.out.println("Solving " + instance + ": " + adjacency.getOrder() + " vertices, "
+                + adjacency.getEdgeCount() + " edges");
+            ColoringResult result = ChromaticNumberSolver.solve(new Graph(adjacency));
+
+            org.example.phase3.phase1algo.structures.Graph cliqueGraph =
+                new org.example.phase3.phase1algo.structures.Graph(adjacency);
+            Bounds.LowerBound.lowerBoundLargestClique(cliqueGraph);
+            int[] clique = cliqueGraph.getMaxClique();
+
+            String name = instance.getFileName().toString();
+            int dot = name.lastIndexOf('.');
+            Path solution = instance.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".sol");
+            writeSolution(solution, adjacency, result, clique);
+            System.out.println("Wrote " + solution + ": " + result.getChromaticNumber() + " colors, lower bound "
+                + Math.max(result.getLowerBound(), clique.length));
+        }
+    }
+
+    /**
+     * Single-pass tokenizer over a fixed byte buffer
+     */
+    private static class Reader {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_BYTES];
+        private int position;
+        private int limit;
+        private long line = 1;
+
+        Reader(InputStream in) {
+            this.in = in;
+        }
+
+        CsrGraph read() throws IOException {
+            int n = -1;
+            int[] edges = null;
+            int count = 0;
+            int c;
+            while ((c = next()) != -1) {
+                if (c == 'e') {
+                    if (edges == null) {
+                        throw error("Edge before the problem line");
+                    }
+                    int u = readInt(n);
+                    int v = readInt(n);
+                    if (2 * count + 2 > edges.length) {
+                        edges = Arrays.copyOf(edges, (int) Math.min(Integer.MAX_VALUE - 8, 2L * edges.length + 2));
+                    }
+                    edges[2 * count] = u - 1;
+                    edges[2 * count + 1] = v - 1;
+                    count++;
+                } else if (c == 'p') {
+                    if (edges != null) {
+                        throw error("Second problem line");
+                    }
+                    skipWord();
+                    n = readInt(Integer.MAX_VALUE);
+                    int m = readInt(Integer.MAX_VALUE);
+                    // Some instances list every edge in both directions, so m only sizes the first allocation
+                    edges = new int[(int) Math.min(Integer.MAX_VALUE - 8, 2L * m)];
+                }
+                if (c != '\n') {
+                    skipLine();
+                }
+                line++;
+            }
+            if (edges == null) {
+                throw error("No problem line");
+            }
+            return CsrGraph.fromEdgeList(n, edges, count);
+        }
+
+        private int next() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        private int peek() throws IOException {
+            int c = next();
+            if (c != -1) {
+                position--;
+            }
+            return c;
+        }
+
+        private void skipBlanks() throws IOException {
+            int c;
+            while ((c = peek()) == ' ' || c == '\t' || c == '\r') {
+                position++;
+            }
+        }
+
+        /**
+         * Skips the word after the line type, e.g. "edge" in the problem line.
+         */
+        private void skipWord() throws IOException {
+            skipBlanks();
+            int c;
+            while ((c = peek()) != -1 && c != ' ' && c != '\t' && c != '\n') {
+                position++;
+            }
+        }
+
+        /**
+         * @param max Largest value allowed; vertices must lie in 1..max
+         */
+        private int readInt(int max) throws IOException {
+            skipBlanks();
+            long value = 0;
+            int digits = 0;
+            int c;
+            while ((c = peek()) >= '0' && c <= '9') {
+                position++;
+                value = value * 10 + (c - '0');
+                if (value > max) {
+                    throw error("Number out of range 1.." + max);
+                }
+                digits++;
+            }
+            if (digits == 0) {
+                throw error("Expected a number");
+            }
+            if (max != Integer.MAX_VALUE && value < 1) {
+                throw error("Vertex 0 in a 1-based instance");
+            }
+            return (int) value;
+        }
+
+        private void skipLine() throws IOException {
+            int c;
+            while ((c = next()) != -1 && c != '\n') {
+                // Skip the rest of the line
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " on line " + line);
+        }
+    }
+}
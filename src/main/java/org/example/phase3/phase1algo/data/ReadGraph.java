@@ -1,9 +1,23 @@
 package org.example.phase3.phase1algo.data;
 
-import com.sun.tools.javac.Main;
-
 import java.io.*;
-
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Reads graphs in the VERTICES/EDGES text format: optional comment lines, a "VERTICES = n" and an "EDGES = m" line,
+ * then one "u v" line per edge with 1-based vertices.
+ * Files are memory-mapped and the integers are tokenized straight from the mapped bytes into a flat int array,
+ * without building a String or an edge object per line. Large files are cut into chunks at line boundaries that are
+ * mapped and parsed in parallel.
+ * The parser is lenient like the file loader of the interface used to be: a line whose first two tokens are integers
+ * is an edge, whatever follows them, and every other line (comments, headers, "edges:" markers) is skipped. Only
+ * vertices that are not positive are rejected, with the byte offset of the vertex in the file.
+ */
 public class ReadGraph {
     public static class ColEdge {
         int u;
@@ -13,101 +27,303 @@ public class ReadGraph {
     public final static boolean DEBUG = false;
     public final static String COMMENT = "//";
 
+    /**
+     * Files from this size on are parsed in parallel chunks
+     */
+    private static final long PARALLEL_THRESHOLD = 16L << 20;
+
+    /**
+     * Largest chunk mapped at once; a single mapping cannot exceed 2 GB
+     */
+    private static final long MAX_CHUNK = 1L << 30;
+
+    /**
+     * Edges of a parsed graph file
+     */
+    public static class EdgeList {
+        private final int vertexCount;
+        private final int[] edges;
+        private final int edgeCount;
+
+        EdgeList(int vertexCount, int[] edges, int edgeCount) {
+            this.vertexCount = vertexCount;
+            this.edges = edges;
+            this.edgeCount = edgeCount;
+        }
 
-    public static int[][] read(String graphText) {
-        boolean[] seen = null;
-
-        //! n is the number of vertices in the graph
-        int n = -1;
-
-        //! m is the number of edges in the graph
-        int m = -1;
-
-        //! e will contain the edges of the graph
-        ColEdge[] e = null;
+        /**
+         * @return The declared number of vertices, or the largest vertex if that is larger or nothing was declared
+         */
+        public int getVertexCount() {
+            return vertexCount;
+        }
 
-        try {
-            InputStream inputStream = new ByteArrayInputStream(graphText.getBytes());
+        public int getEdgeCount() {
+            return edgeCount;
+        }
 
-            assert inputStream != null;
-            BufferedReader br = new BufferedReader(new InputStreamReader(inputStream));
+        /**
+         * @return Consecutive vertex pairs, one pair per edge, 1-based as in the file; may be longer than
+         * 2 * {@link #getEdgeCount()}
+         */
+        public int[] getEdges() {
+            return edges;
+        }
+    }
 
+    /**
+     * Parses a graph file by memory-mapping it.
+     *
+     * @param file The graph file
+     * @return Its edges
+     * @throws IOException              If the file cannot be read
+     * @throws IllegalArgumentException If an edge has a vertex that is not positive or out of range
+     */
+    public static EdgeList read(Path file) throws IOException {
+        long size = Files.size(file);
+        return read(file, size < PARALLEL_THRESHOLD ? 1
+            : (int) Math.max(Runtime.getRuntime().availableProcessors(), (size + MAX_CHUNK - 1) / MAX_CHUNK));
+    }
 
+    /**
+     * Parses a graph file in the given number of chunks, which lets the tests split small files as well.
+     *
+     * @param chunks Number of chunks, at least 1; each must be smaller than {@link #MAX_CHUNK}
+     */
+    static EdgeList read(Path file, int chunks) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel, channel.size(), chunks);
+
+            Chunk[] parsed;
+            try {
+                parsed = IntStream.range(0, chunks).parallel().mapToObj(i -> {
+                    try {
+                        long length = bounds[i + 1] - bounds[i];
+                        return new Chunk(channel.map(FileChannel.MapMode.READ_ONLY, bounds[i], length), bounds[i],
+                            chunks == 1);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }).toArray(Chunk[]::new);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return merge(parsed);
+        }
+    }
 
-            String record = new String();
+    /**
+     * Parses a graph given as text.
+     *
+     * @param graphText Contents of a graph file
+     * @return Row 0 holds the number of vertices and -1, every further row one edge with 0-based vertices
+     */
+    public static int[][] read(String graphText) {
+        EdgeList edgeList = merge(new Chunk[]{new Chunk(ByteBuffer.wrap(graphText.getBytes(StandardCharsets.US_ASCII)), 0, true)});
+        if (DEBUG) System.out.println(COMMENT + " Number of vertices = " + edgeList.vertexCount);
 
-            //! The first few lines of the file are allowed to be comments, staring with a // symbol.
-            //! These comments are only allowed at the top of the file.
+        int[][] result = new int[edgeList.edgeCount + 1][2];
+        result[0][0] = edgeList.vertexCount;
+        result[0][1] = -1;
+        for (int x = 1; x <= edgeList.edgeCount; x++) {
+            result[x][0] = edgeList.edges[2 * x - 2] - 1;
+            result[x][1] = edgeList.edges[2 * x - 1] - 1;
+        }
+        return result;
+    }
 
-            //! -----------------------------------------
-            while ((record = br.readLine()) != null) {
-                if (record.startsWith("//")) continue;
-                break; // Saw a line that did not start with a comment -- time to start reading the data in!
+    /**
+     * Splits the file into chunks of about equal size, moving every boundary past the next newline so no line is cut.
+     */
+    private static long[] chunkBounds(FileChannel channel, long size, int chunks) throws IOException {
+        long[] bounds = new long[chunks + 1];
+        bounds[chunks] = size;
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        for (int i = 1; i < chunks; i++) {
+            long position = Math.max(bounds[i - 1], size / chunks * i);
+            boolean found = false;
+            while (!found && position < size) {
+                window.clear();
+                int read = channel.read(window, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int k = 0; k < read && !found; k++) {
+                    found = window.get(k) == '\n';
+                    position++;
+                }
             }
+            bounds[i] = Math.min(position, size);
+        }
+        return bounds;
+    }
 
-            assert record != null;
-            if (record.startsWith("VERTICES = ")) {
-                n = Integer.parseInt(record.substring(11));
-                if (DEBUG) System.out.println(COMMENT + " Number of vertices = " + n);
+    private static EdgeList merge(Chunk[] chunks) {
+        int declaredVertices = -1;
+        int maxVertex = 0;
+        long total = 0;
+        for (Chunk chunk : chunks) {
+            declaredVertices = Math.max(declaredVertices, chunk.declaredVertices);
+            maxVertex = Math.max(maxVertex, chunk.maxVertex);
+            total += chunk.count;
+        }
+        if (2 * total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Graph has too many edges for one array: " + total);
+        }
+        int[] edges;
+        if (chunks.length == 1) {
+            edges = chunks[0].edges;
+        } else {
+            edges = new int[(int) (2 * total)];
+            int offset = 0;
+            for (Chunk chunk : chunks) {
+                System.arraycopy(chunk.edges, 0, edges, offset, 2 * chunk.count);
+                offset += 2 * chunk.count;
             }
+        }
+        return new EdgeList(Math.max(declaredVertices, maxVertex), edges, (int) total);
+    }
 
-            seen = new boolean[n + 1];
-
-            record = br.readLine();
+    /**
+     * Edges tokenized from one range of the file. The buffer is read with absolute gets only, so it is never copied.
+     */
+    private static class Chunk {
+        private int[] edges;
+        private int count;
+        private int maxVertex;
+        private int declaredVertices = -1;
+
+        private final ByteBuffer bytes;
+        private final long start;
+        private final int limit;
+        private final boolean wholeFile;
+        private int position;
+
+        /**
+         * @param start     Offset of the chunk in the file, for error messages
+         * @param wholeFile True if the chunk is the whole file, so its EDGES header gives the size of the edge array
+         */
+        Chunk(ByteBuffer bytes, long start, boolean wholeFile) {
+            this.bytes = bytes;
+            this.start = start;
+            this.limit = bytes.limit();
+            this.wholeFile = wholeFile;
+            // Guess about a dozen bytes per edge line; the array grows if the lines are shorter
+            this.edges = new int[Math.max(16, limit / 6)];
+            parse();
+        }
 
-            if (record.startsWith("EDGES = ")) {
-                m = Integer.parseInt(record.substring(8));
-                if (DEBUG) System.out.println(COMMENT + " Expected number of edges = " + m);
+        private void parse() {
+            while (position < limit) {
+                skipBlanks();
+                if (position >= limit) {
+                    break;
+                }
+                byte first = bytes.get(position);
+                if (isDigit(first)) {
+                    int u = readVertex();
+                    skipBlanks();
+                    rejectNegative();
+                    if (position < limit && isDigit(bytes.get(position))) {
+                        addEdge(u, readVertex());
+                    }
+                } else if (first == '-') {
+                    rejectNegative();
+                } else if (startsWith("VERTICES")) {
+                    declaredVertices = readDeclaredCount();
+                } else if (startsWith("EDGES")) {
+                    int declaredEdges = readDeclaredCount();
+                    if (wholeFile && 2L * declaredEdges > edges.length && 2L * declaredEdges < Integer.MAX_VALUE) {
+                        edges = Arrays.copyOf(edges, 2 * declaredEdges);
+                    }
+                }
+                skipLine();
             }
+        }
 
-            e = new ColEdge[m];
+        private void addEdge(int u, int v) {
+            if (2 * count + 2 > edges.length) {
+                edges = Arrays.copyOf(edges, (int) Math.min(Integer.MAX_VALUE - 8, 2L * edges.length));
+            }
+            edges[2 * count] = u;
+            edges[2 * count + 1] = v;
+            count++;
+            maxVertex = Math.max(maxVertex, Math.max(u, v));
+        }
 
-            for (int d = 0; d < m; d++) {
-                if (DEBUG) System.out.println(COMMENT + " Reading edge " + (d + 1));
-                record = br.readLine();
-                String data[] = record.split(" ");
-                if (data.length != 2) {
-                    System.out.println("Error! Malformed edge line: " + record);
-                    System.exit(0);
+        private int readInt() {
+            long value = 0;
+            while (position < limit && isDigit(bytes.get(position))) {
+                value = value * 10 + (bytes.get(position++) - '0');
+                if (value > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Vertex number out of range near byte " + (start + position));
                 }
-                e[d] = new ColEdge();
-
-                e[d].u = Integer.parseInt(data[0]);
-                e[d].v = Integer.parseInt(data[1]);
-
-                seen[e[d].u] = true;
-                seen[e[d].v] = true;
+            }
+            return (int) value;
+        }
 
-                if (DEBUG) System.out.println(COMMENT + " Edge: " + e[d].u + " " + e[d].v);
+        /**
+         * Reads a vertex of an edge line, which must be positive since vertices are 1-based
+         */
+        private int readVertex() {
+            long offset = start + position;
+            int vertex = readInt();
+            if (vertex == 0) {
+                throw new IllegalArgumentException("Vertex 0 at byte " + offset + " is not positive; vertices are 1-based");
+            }
+            return vertex;
+        }
 
+        /**
+         * Rejects a negative number where a vertex is expected, instead of skipping the line as a comment
+         */
+        private void rejectNegative() {
+            if (position + 1 < limit && bytes.get(position) == '-' && isDigit(bytes.get(position + 1))) {
+                throw new IllegalArgumentException("Negative vertex at byte " + (start + position)
+                    + " is not positive; vertices are 1-based");
             }
+        }
 
-            String surplus = br.readLine();
-            if (surplus != null) {
-                if (surplus.length() >= 2) if (DEBUG) System.out.println(COMMENT + " Warning: there appeared to be data in your file after the last edge: '" + surplus + "'");
+        /**
+         * @return The number after the '=' of a header line, or -1 if there is none
+         */
+        private int readDeclaredCount() {
+            while (position < limit && bytes.get(position) != '\n' && !isDigit(bytes.get(position))) {
+                position++;
             }
+            return position < limit && isDigit(bytes.get(position)) ? readInt() : -1;
+        }
 
-        } catch (IOException ex) {
-            // catch possible io errors from readLine()
-            System.out.println("Error! Problem reading file " + graphText);
-            System.exit(0);
+        private boolean startsWith(String keyword) {
+            if (position + keyword.length() > limit) {
+                return false;
+            }
+            for (int i = 0; i < keyword.length(); i++) {
+                if (bytes.get(position + i) != keyword.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
         }
 
-        for (int x = 1; x <= n; x++) {
-            if (!seen[x]) {
-                if (DEBUG) System.out.println(COMMENT + " Warning: vertex " + x + " didn't appear in any edge : it will be considered a disconnected vertex on its own.");
+        private void skipBlanks() {
+            while (position < limit) {
+                byte b = bytes.get(position);
+                if (b != ' ' && b != '\t' && b != '\r') {
+                    break;
+                }
+                position++;
             }
         }
 
-        int[][] result = new int[m + 1][2];
-        result[0][0] = n;
-        result[0][1] = -1;
-        for (int x = 1; x <= m; x++) {
-            result[x][0] = e[x - 1].u - 1;
-            result[x][1] = e[x - 1].v - 1;
+        private void skipLine() {
+            while (position < limit && bytes.get(position++) != '\n') {
+                // Skip the rest of the line
+            }
         }
 
-        return result;
+        private static boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
     }
-
 }
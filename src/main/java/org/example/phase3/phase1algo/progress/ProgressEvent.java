@@ -0,0 +1,92 @@
+package org.example.phase3.phase1algo.progress;
+
+/**
+ * Snapshot of a running solve, published whenever the lower bound rises or a coloring with fewer colors is found.
+ */
+public class ProgressEvent {
+
+    /**
+     * Stage of the solve that produced an event
+     */
+    public enum Phase {
+        CLIQUE_BOUND,
+        SPECTRAL_BOUND,
+        REDUCTION,
+        GREEDY,
+        DSATUR,
+        TABUCOL,
+        BACKTRACKING,
+        BRANCH_AND_BOUND,
+        SAT,
+        HYBRID_EVOLUTIONARY
+    }
+
+    private final Phase phase;
+    private final int lowerBound;
+    private final int upperBound;
+    private final int[] coloring;
+    private final long elapsedMillis;
+
+    /**
+     * @param phase         Stage that produced the event
+     * @param lowerBound    Best lower bound on the chromatic number so far
+     * @param upperBound    Number of colors of the best coloring so far, -1 if there is none yet
+     * @param coloring      Best coloring so far with 0-based vertices and colors, null if there is none yet
+     * @param elapsedMillis Time since the solve started in milliseconds
+     */
+    public ProgressEvent(Phase phase, int lowerBound, int upperBound, int[] coloring, long elapsedMillis) {
+        this.phase = phase;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.coloring = coloring;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return Stage that produced the event
+     */
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return Best lower bound on the chromatic number so far
+     */
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * @return Number of colors of the best coloring so far, -1 if there is none yet
+     */
+    public int getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return Best coloring so far with 0-based vertices and colors, null if there is none yet.
+     * The array belongs to the event and is not changed by the solver afterwards.
+     */
+    public int[] getColoring() {
+        return coloring;
+    }
+
+    /**
+     * @return Time since the solve started in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return True once the bounds meet, so the coloring is optimal
+     */
+    public boolean isOptimal() {
+        return upperBound != -1 && upperBound <= lowerBound;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s after %d ms (LB: %d, UB: %d)", phase, elapsedMillis, lowerBound, upperBound);
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.phase3.phase1algo.progress;
+
+/**
+ * Receives the improving bounds and colorings of a running solve.
+ * Events are delivered on the solver's threads, one at a time and in order of improvement, so implementations
+ * should return quickly; a listener that is satisfied with the gap can cancel the solver from inside the callback.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    /**
+     * @param event Snapshot with the current best bounds and coloring
+     */
+    void onProgress(ProgressEvent event);
+}
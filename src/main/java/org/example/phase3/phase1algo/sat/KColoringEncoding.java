@@ -0,0 +1,116 @@
+package org.example.phase3.phase1algo.sat;
+
+import org.example.phase3.phase1algo.algorithms.TimerCheck;
+import org.example.phase3.phase1algo.structures.Graph;
+
+/**
+ * Incremental SAT encoding of graph k-colorability for every k up to a fixed maximum.
+ * Variable x(v, c) states that vertex v takes color c, and the selector e(c) states that color c may be used.
+ * The clauses are
+ * <ul>
+ *     <li>every vertex takes at least one color: x(v, 0) or ... or x(v, maxColors - 1);</li>
+ *     <li>adjacent vertices never share a color: not x(u, c) or not x(v, c);</li>
+ *     <li>a color is only taken if enabled: not x(v, c) or e(c);</li>
+ *     <li>colors are enabled in order, which breaks the symmetry between disabled colors: not e(c + 1) or e(c);</li>
+ *     <li>the vertices of a clique are fixed to the first colors, which breaks the symmetry between enabled colors.</li>
+ * </ul>
+ * Asking for k colors assumes not e(c) for every c &gt;= k, so everything the solver learnt for one k is reused
+ * for the next instead of encoding the graph again.
+ */
+public class KColoringEncoding {
+    private final SatSolver solver = new SatSolver();
+    private final int n;
+    private final int maxColors;
+    private final int firstSelector;
+
+    /**
+     * @param graph     The analyzed Graph object
+     * @param maxColors Largest number of colors that will be asked for
+     * @param clique    Vertices of a clique of the graph, pre-colored 0, 1, ... in the given order
+     * @throws IllegalArgumentException If the clique is larger than maxColors
+     */
+    public KColoringEncoding(Graph graph, int maxColors, int[] clique) {
+        if (clique.length > maxColors) {
+            throw new IllegalArgumentException("Clique of size " + clique.length + " cannot be colored with " + maxColors + " colors");
+        }
+        this.n = graph.getOrder();
+        this.maxColors = maxColors;
+        for (int i = 0; i < n * maxColors + maxColors; i++) {
+            solver.newVariable();
+        }
+        this.firstSelector = n * maxColors + 1;
+
+        int[] offsets = graph.getAdjacency().getOffsets();
+        int[] neighbours = graph.getAdjacency().getNeighbours();
+        int[] atLeastOne = new int[maxColors];
+        for (int v = 0; v < n; v++) {
+            for (int c = 0; c < maxColors; c++) {
+                atLeastOne[c] = x(v, c);
+                solver.addClause(-x(v, c), selector(c));
+            }
+            solver.addClause(atLeastOne);
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int u = neighbours[i];
+                if (v < u) {
+                    for (int c = 0; c < maxColors; c++) {
+                        solver.addClause(-x(v, c), -x(u, c));
+                    }
+                }
+            }
+        }
+        for (int c = 0; c + 1 < maxColors; c++) {
+            solver.addClause(-selector(c + 1), selector(c));
+        }
+        for (int i = 0; i < clique.length; i++) {
+            solver.addClause(x(clique[i], i));
+        }
+    }
+
+    /**
+     * Decides whether the graph can be colored with k colors.
+     *
+     * @param k     Number of colors, at most the maximum given on construction
+     * @param timer Timer aborting the search when expired
+     * @return TRUE if a k-coloring exists (see {@link #getColoring()}), FALSE if none exists, null on timeout
+     */
+    public Boolean isColorable(int k, TimerCheck timer) {
+        if (k > maxColors) {
+            throw new IllegalArgumentException("At most " + maxColors + " colors are encoded, " + k + " requested");
+        }
+        int[] assumptions = new int[maxColors - k];
+        for (int c = k; c < maxColors; c++) {
+            assumptions[c - k] = -selector(c);
+        }
+        return solver.solve(assumptions, timer);
+    }
+
+    /**
+     * @return The coloring found by the last satisfiable {@link #isColorable} call, with 0-based colors.
+     */
+    public int[] getColoring() {
+        int[] coloring = new int[n];
+        for (int v = 0; v < n; v++) {
+            int c = 0;
+            while (!solver.modelValue(x(v, c))) {
+                c++;
+            }
+            coloring[v] = c;
+        }
+        return coloring;
+    }
+
+    /**
+     * @return The underlying solver, for statistics.
+     */
+    public SatSolver getSolver() {
+        return solver;
+    }
+
+    private int x(int vertex, int color) {
+        return vertex * maxColors + color + 1;
+    }
+
+    private int selector(int color) {
+        return firstSelector + color;
+    }
+}
@@ -0,0 +1,606 @@
+package org.example.phase3.phase1algo.sat;
+
+import org.example.phase3.phase1algo.algorithms.TimerCheck;
+import java.util.*;
+
+/**
+ * Incremental CDCL SAT solver in the style of MiniSat: two watched literals, VSIDS decisions with phase saving,
+ * first-UIP clause learning with local minimisation, Luby restarts and periodic removal of learnt clauses with a
+ * high literal block distance (LBD). Clauses added between calls stay valid, and learnt clauses are kept from one
+ * {@link #solve} call to the next, so a sequence of related queries is answered with assumptions instead of
+ * rebuilding the formula.
+ * <p>
+ * The public interface uses DIMACS literals: variable v (starting at 1) is the literal v, its negation is -v.
+ * Internally literal 2 * (v - 1) is positive and 2 * (v - 1) + 1 is negative.
+ */
+public class SatSolver {
+    private static final double VAR_DECAY = 0.95;
+    private static final int RESTART_UNIT = 100;
+    private static final int TIMER_CHECK_INTERVAL = 1024;
+    private static final int FIRST_REDUCE = 2000;
+    private static final double REDUCE_GROWTH = 1.1;
+
+    private int variableCount;
+    private byte[] value = new byte[0];       // per internal literal: 1 true, -1 false, 0 unassigned
+    private int[] level = new int[0];
+    private Clause[] reason = new Clause[0];
+    private boolean[] polarity = new boolean[0];  // saved phase, true means the negative literal
+    private boolean[] seen = new boolean[0];
+    private double[] activity = new double[0];
+    private double activityIncrement = 1;
+    private VariableHeap order = new VariableHeap();
+    private WatchList[] watches = new WatchList[0];
+
+    private int[] trail = new int[0];
+    private int trailSize;
+    private int propagationHead;
+    private int[] trailLimits = new int[0];
+    private int decisionLevel;
+
+    private final List<Clause> learnts = new ArrayList<>();
+    private int problemClauses;
+    private double maxLearnts = FIRST_REDUCE;
+    private boolean ok = true;
+    private boolean[] model = new boolean[0];
+    private long conflicts;
+
+    /**
+     * @return A fresh variable, numbered from 1.
+     */
+    public int newVariable() {
+        int v = variableCount++;
+        if (v == level.length) {
+            int capacity = Math.max(16, level.length * 2);
+            value = Arrays.copyOf(value, 2 * capacity);
+            level = Arrays.copyOf(level, capacity);
+            reason = Arrays.copyOf(reason, capacity);
+            polarity = Arrays.copyOf(polarity, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            activity = Arrays.copyOf(activity, capacity);
+            trail = Arrays.copyOf(trail, capacity);
+            trailLimits = Arrays.copyOf(trailLimits, capacity + 1);
+            watches = Arrays.copyOf(watches, 2 * capacity);
+        }
+        polarity[v] = true;
+        watches[2 * v] = new WatchList();
+        watches[2 * v + 1] = new WatchList();
+        order.insert(v, activity);
+        return v + 1;
+    }
+
+    /**
+     * @return Number of variables created so far.
+     */
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    /**
+     * @return Number of conflicts over all {@link #solve} calls.
+     */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Adds a clause permanently. Must not be called while {@link #solve} is running.
+     *
+     * @param literals DIMACS literals of the clause
+     * @return False if the formula is now known to be unsatisfiable
+     * @throws IllegalArgumentException If a literal refers to a variable that does not exist
+     */
+    public boolean addClause(int... literals) {
+        if (!ok) {
+            return false;
+        }
+        int[] lits = new int[literals.length];
+        int size = 0;
+        for (int literal : literals) {
+            int lit = toInternal(literal);
+            if (value[lit] == 1 || contains(lits, size, lit ^ 1)) {
+                return true;  // satisfied at level 0 or a tautology
+            }
+            if (value[lit] == 0 && !contains(lits, size, lit)) {
+                lits[size++] = lit;
+            }
+        }
+
+        if (size == 0) {
+            ok = false;
+        } else if (size == 1) {
+            enqueue(lits[0], null);
+            ok = propagate() == null;
+        } else {
+            attach(new Clause(Arrays.copyOf(lits, size)));
+            problemClauses++;
+        }
+        return ok;
+    }
+
+    /**
+     * Decides satisfiability under the given assumptions.
+     *
+     * @param assumptions DIMACS literals that must hold in this call only
+     * @param timer       Timer aborting the search when expired
+     * @return TRUE if satisfiable (see {@link #modelValue}), FALSE if unsatisfiable under the assumptions,
+     *         null if the timer expired first
+     */
+    public Boolean solve(int[] assumptions, TimerCheck timer) {
+        if (!ok) {
+            return false;
+        }
+        maxLearnts = Math.max(maxLearnts, problemClauses / 3.0);
+        int[] assumed = new int[assumptions.length];
+        for (int i = 0; i < assumptions.length; i++) {
+            assumed[i] = toInternal(assumptions[i]);
+        }
+
+        Boolean result = null;
+        for (int restart = 0; result == null; restart++) {
+            if (timer.hasTimerExpired()) {
+                break;
+            }
+            result = search(RESTART_UNIT * luby(restart), assumed, timer);
+            if (result == null && timer.hasTimerExpired()) {
+                break;
+            }
+        }
+        cancelUntil(0);
+        return result;
+    }
+
+    /**
+     * @param variable A variable, numbered from 1
+     * @return The variable's value in the model of the last satisfiable {@link #solve} call
+     */
+    public boolean modelValue(int variable) {
+        return model[variable - 1];
+    }
+
+    /**
+     * Runs CDCL until a result is found or the conflict budget of this restart is used up.
+     *
+     * @return TRUE, FALSE, or null when the restart budget or the timer ran out
+     */
+    private Boolean search(long conflictBudget, int[] assumptions, TimerCheck timer) {
+        long conflictsHere = 0;
+        List<Integer> learnt = new ArrayList<>();
+        for (long step = 0; ; step++) {
+            Clause conflict = propagate();
+            if (conflict != null) {
+                conflicts++;
+                conflictsHere++;
+                if (decisionLevel == 0) {
+                    ok = false;
+                    return false;
+                }
+
+                int backjumpLevel = analyze(conflict, learnt);
+                cancelUntil(backjumpLevel);
+                if (learnt.size() == 1) {
+                    enqueue(learnt.get(0), null);
+                } else {
+                    int[] lits = new int[learnt.size()];
+                    for (int i = 0; i < lits.length; i++) {
+                        lits[i] = learnt.get(i);
+                    }
+                    Clause clause = new Clause(lits);
+                    clause.lbd = computeLbd(lits);
+                    attach(clause);
+                    learnts.add(clause);
+                    enqueue(lits[0], clause);
+                }
+                activityIncrement /= VAR_DECAY;
+                continue;
+            }
+
+            if (step % TIMER_CHECK_INTERVAL == 0 && timer.hasTimerExpired()) {
+                return null;
+            }
+            if (conflictsHere >= conflictBudget) {
+                cancelUntil(0);
+                return null;
+            }
+            if (learnts.size() - trailSize >= maxLearnts) {
+                reduceLearnts();
+            }
+
+            // Assumptions are decided first, one per level
+            int next = -1;
+            while (decisionLevel < assumptions.length) {
+                int p = assumptions[decisionLevel];
+                if (value[p] == 1) {
+                    newDecisionLevel();
+                } else if (value[p] == -1) {
+                    return false;
+                } else {
+                    next = p;
+                    break;
+                }
+            }
+
+            if (next == -1) {
+                int v;
+                do {
+                    if (order.isEmpty()) {
+                        saveModel();
+                        return true;
+                    }
+                    v = order.removeMax(activity);
+                } while (value[2 * v] != 0);
+                next = 2 * v + (polarity[v] ? 1 : 0);
+            }
+
+            newDecisionLevel();
+            enqueue(next, null);
+        }
+    }
+
+    /**
+     * First-UIP conflict analysis. Writes the learnt clause, asserting literal first and a literal of the
+     * backjump level second, and bumps the activity of every variable involved.
+     *
+     * @return The level to backjump to
+     */
+    private int analyze(Clause conflict, List<Integer> learnt) {
+        learnt.clear();
+        learnt.add(-1);
+        int pathCount = 0;
+        int p = -1;
+        int index = trailSize - 1;
+        Clause clause = conflict;
+
+        do {
+            int[] lits = clause.lits;
+            for (int i = p == -1 ? 0 : 1; i < lits.length; i++) {
+                int q = lits[i];
+                int v = q >> 1;
+                if (!seen[v] && level[v] > 0) {
+                    seen[v] = true;
+                    bump(v);
+                    if (level[v] >= decisionLevel) {
+                        pathCount++;
+                    } else {
+                        learnt.add(q);
+                    }
+                }
+            }
+            while (!seen[trail[index] >> 1]) {
+                index--;
+            }
+            p = trail[index--];
+            clause = reason[p >> 1];
+            seen[p >> 1] = false;
+            pathCount--;
+        } while (pathCount > 0);
+        learnt.set(0, p ^ 1);
+
+        // Drop literals implied by the rest of the clause through their reason
+        int[] marked = new int[learnt.size() - 1];
+        for (int i = 1; i < learnt.size(); i++) {
+            marked[i - 1] = learnt.get(i);
+        }
+        int kept = 1;
+        for (int i = 1; i < learnt.size(); i++) {
+            int q = learnt.get(i);
+            Clause r = reason[q >> 1];
+            boolean redundant = r != null;
+            if (r != null) {
+                for (int j = 1; j < r.lits.length && redundant; j++) {
+                    int u = r.lits[j] >> 1;
+                    redundant = seen[u] || level[u] == 0;
+                }
+            }
+            if (!redundant) {
+                learnt.set(kept++, q);
+            }
+        }
+        for (int q : marked) {
+            seen[q >> 1] = false;
+        }
+        while (learnt.size() > kept) {
+            learnt.remove(learnt.size() - 1);
+        }
+
+        if (learnt.size() == 1) {
+            return 0;
+        }
+        int maxIndex = 1;
+        for (int i = 2; i < learnt.size(); i++) {
+            if (level[learnt.get(i) >> 1] > level[learnt.get(maxIndex) >> 1]) {
+                maxIndex = i;
+            }
+        }
+        int second = learnt.get(maxIndex);
+        learnt.set(maxIndex, learnt.get(1));
+        learnt.set(1, second);
+        return level[second >> 1];
+    }
+
+    /**
+     * Propagates every literal on the trail that has not been processed yet.
+     *
+     * @return A clause whose literals are all false, or null if there is no conflict
+     */
+    private Clause propagate() {
+        while (propagationHead < trailSize) {
+            int falseLit = trail[propagationHead++] ^ 1;
+            WatchList list = watches[falseLit];
+            Clause[] clauses = list.clauses;
+            int size = list.size;
+            int i = 0;
+            int j = 0;
+
+            while (i < size) {
+                Clause clause = clauses[i++];
+                if (clause.deleted) {
+                    continue;
+                }
+                int[] lits = clause.lits;
+                if (lits[0] == falseLit) {
+                    lits[0] = lits[1];
+                    lits[1] = falseLit;
+                }
+                if (value[lits[0]] == 1) {
+                    clauses[j++] = clause;
+                    continue;
+                }
+
+                boolean moved = false;
+                for (int k = 2; k < lits.length; k++) {
+                    if (value[lits[k]] != -1) {
+                        lits[1] = lits[k];
+                        lits[k] = falseLit;
+                        watches[lits[1]].add(clause);
+                        moved = true;
+                        break;
+                    }
+                }
+                if (moved) {
+                    continue;
+                }
+
+                clauses[j++] = clause;
+                if (value[lits[0]] == -1) {
+                    while (i < size) {
+                        clauses[j++] = clauses[i++];
+                    }
+                    list.size = j;
+                    propagationHead = trailSize;
+                    return clause;
+                }
+                enqueue(lits[0], clause);
+            }
+            list.size = j;
+        }
+        return null;
+    }
+
+    /**
+     * Deletes the less useful half of the learnt clauses, keeping clauses with LBD 2 or less and those that are
+     * currently the reason of an assignment. Deleted clauses are dropped from the watch lists lazily.
+     */
+    private void reduceLearnts() {
+        learnts.sort((a, b) -> Integer.compare(b.lbd, a.lbd));
+        int target = learnts.size() / 2;
+        int removed = 0;
+        List<Clause> kept = new ArrayList<>();
+        for (Clause clause : learnts) {
+            boolean locked = reason[clause.lits[0] >> 1] == clause && value[clause.lits[0]] == 1;
+            if (removed < target && clause.lbd > 2 && !locked) {
+                clause.deleted = true;
+                removed++;
+            } else {
+                kept.add(clause);
+            }
+        }
+        learnts.clear();
+        learnts.addAll(kept);
+        maxLearnts *= REDUCE_GROWTH;
+    }
+
+    private int computeLbd(int[] lits) {
+        Set<Integer> levels = new HashSet<>();
+        for (int lit : lits) {
+            levels.add(level[lit >> 1]);
+        }
+        return levels.size();
+    }
+
+    private void attach(Clause clause) {
+        watches[clause.lits[0]].add(clause);
+        watches[clause.lits[1]].add(clause);
+    }
+
+    private void enqueue(int lit, Clause from) {
+        int v = lit >> 1;
+        value[lit] = 1;
+        value[lit ^ 1] = -1;
+        level[v] = decisionLevel;
+        reason[v] = from;
+        trail[trailSize++] = lit;
+    }
+
+    private void newDecisionLevel() {
+        trailLimits[decisionLevel++] = trailSize;
+    }
+
+    private void cancelUntil(int target) {
+        if (decisionLevel <= target) {
+            return;
+        }
+        for (int i = trailSize - 1; i >= trailLimits[target]; i--) {
+            int lit = trail[i];
+            int v = lit >> 1;
+            value[lit] = 0;
+            value[lit ^ 1] = 0;
+            reason[v] = null;
+            polarity[v] = (lit & 1) == 1;
+            if (!order.contains(v)) {
+                order.insert(v, activity);
+            }
+        }
+        trailSize = trailLimits[target];
+        propagationHead = trailSize;
+        decisionLevel = target;
+    }
+
+    private void bump(int v) {
+        activity[v] += activityIncrement;
+        if (activity[v] > 1e100) {
+            for (int u = 0; u < variableCount; u++) {
+                activity[u] *= 1e-100;
+            }
+            activityIncrement *= 1e-100;
+        }
+        if (order.contains(v)) {
+            order.increased(v, activity);
+        }
+    }
+
+    private void saveModel() {
+        model = new boolean[variableCount];
+        for (int v = 0; v < variableCount; v++) {
+            model[v] = value[2 * v] == 1;
+        }
+    }
+
+    private int toInternal(int literal) {
+        int v = Math.abs(literal) - 1;
+        if (literal == 0 || v >= variableCount) {
+            throw new IllegalArgumentException("Unknown literal: " + literal);
+        }
+        return 2 * v + (literal < 0 ? 1 : 0);
+    }
+
+    private static boolean contains(int[] lits, int size, int lit) {
+        for (int i = 0; i < size; i++) {
+            if (lits[i] == lit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The i-th element (from 0) of the Luby sequence 1, 1, 2, 1, 1, 2, 4, ...
+     */
+    private static long luby(int i) {
+        int size = 1;
+        int sequence = 0;
+        while (size < i + 1) {
+            sequence++;
+            size = 2 * size + 1;
+        }
+        int x = i;
+        while (size - 1 != x) {
+            size = (size - 1) >> 1;
+            sequence--;
+            x = x % size;
+        }
+        return 1L << sequence;
+    }
+
+    private static final class Clause {
+        final int[] lits;
+        int lbd;
+        boolean deleted;
+
+        Clause(int[] lits) {
+            this.lits = lits;
+        }
+    }
+
+    private static final class WatchList {
+        Clause[] clauses = new Clause[4];
+        int size;
+
+        void add(Clause clause) {
+            if (size == clauses.length) {
+                clauses = Arrays.copyOf(clauses, size * 2);
+            }
+            clauses[size++] = clause;
+        }
+    }
+
+    /**
+     * Binary max-heap of variables ordered by activity, with the heap position of each variable stored.
+     */
+    private static final class VariableHeap {
+        private int[] heap = new int[16];
+        private int[] position = new int[16];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean contains(int v) {
+            return v < position.length && position[v] >= 0 && position[v] < size && heap[position[v]] == v;
+        }
+
+        void insert(int v, double[] activity) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            if (v >= position.length) {
+                position = Arrays.copyOf(position, Math.max(v + 1, position.length * 2));
+            }
+            heap[size] = v;
+            position[v] = size;
+            siftUp(size++, activity);
+        }
+
+        int removeMax(double[] activity) {
+            int top = heap[0];
+            position[top] = -1;
+            size--;
+            if (size > 0) {
+                heap[0] = heap[size];
+                position[heap[0]] = 0;
+                siftDown(0, activity);
+            }
+            return top;
+        }
+
+        void increased(int v, double[] activity) {
+            siftUp(position[v], activity);
+        }
+
+        private void siftUp(int i, double[] activity) {
+            int v = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (activity[heap[parent]] >= activity[v]) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                position[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = v;
+            position[v] = i;
+        }
+
+        private void siftDown(int i, double[] activity) {
+            int v = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && activity[heap[child + 1]] > activity[heap[child]]) {
+                    child++;
+                }
+                if (activity[heap[child]] <= activity[v]) {
+                    break;
+                }
+                heap[i] = heap[child];
+                position[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = v;
+            position[v] = i;
+        }
+    }
+}
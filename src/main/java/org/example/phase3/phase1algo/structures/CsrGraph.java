@@ -0,0 +1,201 @@
+package org.example.phase3.phase1algo.structures;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed-sparse-row adjacency structure shared by every stage of a solve.
+ * The neighbours of vertex v are stored in {@code neighbours[offsets[v]] .. neighbours[offsets[v + 1] - 1]},
+ * sorted ascending and without duplicates or self-loops. Vertices are 0-based.
+ */
+public final class CsrGraph {
+    private final int order;
+    private final int[] offsets;
+    private final int[] neighbours;
+
+    private CsrGraph(int order, int[] offsets, int[] neighbours) {
+        this.order = order;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+    }
+
+    /**
+     * Builds the CSR structure from an edge list. Duplicate edges and self-loops are dropped.
+     *
+     * @param order    Number of vertices in the graph.
+     * @param edgeList Consecutive 0-based vertex pairs, one pair per edge.
+     * @return The sorted, deduplicated CSR graph.
+     * @throws IllegalArgumentException If an edge references a vertex outside 0..order-1.
+     */
+    public static CsrGraph fromEdgeList(int order, int[] edgeList) {
+        return fromEdgeList(order, edgeList, edgeList.length / 2);
+    }
+
+    /**
+     * Builds the CSR structure from the first edgeCount pairs of an edge list.
+     *
+     * @param order     Number of vertices in the graph.
+     * @param edgeList  Consecutive 0-based vertex pairs, one pair per edge.
+     * @param edgeCount Number of pairs to read from the edge list.
+     * @return The sorted, deduplicated CSR graph.
+     * @throws IllegalArgumentException If an edge references a vertex outside 0..order-1.
+     */
+    public static CsrGraph fromEdgeList(int order, int[] edgeList, int edgeCount) {
+        int[] offsets = new int[order + 1];
+        for (int i = 0; i < 2 * edgeCount; i += 2) {
+            int u = edgeList[i];
+            int v = edgeList[i + 1];
+            if (u < 0 || u >= order || v < 0 || v >= order) {
+                throw new IllegalArgumentException("Invalid vertex indices in edge: " + u + " " + v);
+            }
+            if (u != v) {
+                offsets[u + 1]++;
+                offsets[v + 1]++;
+            }
+        }
+        for (int v = 0; v < order; v++)
+            offsets[v + 1] += offsets[v];
+
+        int[] neighbours = new int[offsets[order]];
+        int[] fill = Arrays.copyOf(offsets, order);
+        for (int i = 0; i < 2 * edgeCount; i += 2) {
+            int u = edgeList[i];
+            int v = edgeList[i + 1];
+            if (u != v) {
+                neighbours[fill[u]++] = v;
+                neighbours[fill[v]++] = u;
+            }
+        }
+
+        return sortAndCompact(order, offsets, neighbours);
+    }
+
+    /**
+     * Wraps arrays that are already in CSR form, e.g. read from a binary graph file, without copying or sorting them.
+     * The layout is checked in linear time; symmetry of the rows is trusted, as checking it costs a search per edge.
+     *
+     * @param order      Number of vertices in the graph.
+     * @param offsets    Row offsets, of length order + 1.
+     * @param neighbours Concatenated rows, each sorted ascending without duplicates or self-loops.
+     * @return The CSR graph sharing the given arrays.
+     * @throws IllegalArgumentException If the arrays are not a valid CSR structure.
+     */
+    public static CsrGraph fromCsr(int order, int[] offsets, int[] neighbours) {
+        if (offsets.length != order + 1 || offsets[0] != 0 || offsets[order] != neighbours.length
+                || neighbours.length % 2 != 0) {
+            throw new IllegalArgumentException("Offsets do not match " + order + " vertices and "
+                + neighbours.length + " neighbour entries");
+        }
+        for (int v = 0; v < order; v++) {
+            if (offsets[v + 1] < offsets[v]) {
+                throw new IllegalArgumentException("Decreasing offset at vertex " + v);
+            }
+            int previous = -1;
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int u = neighbours[i];
+                if (u <= previous || u >= order || u == v) {
+                    throw new IllegalArgumentException("Invalid neighbour " + u + " in the row of vertex " + v);
+                }
+                previous = u;
+            }
+        }
+        return new CsrGraph(order, offsets, neighbours);
+    }
+
+    /**
+     * Sorts every row and removes duplicate neighbours, compacting the arrays in place.
+     */
+    private static CsrGraph sortAndCompact(int order, int[] offsets, int[] neighbours) {
+        int write = 0;
+        int start = 0;
+        for (int v = 0; v < order; v++) {
+            int end = offsets[v + 1];
+            Arrays.sort(neighbours, start, end);
+            offsets[v] = write;
+            int previous = -1;
+            for (int i = start; i < end; i++) {
+                if (neighbours[i] != previous) {
+                    previous = neighbours[i];
+                    neighbours[write++] = previous;
+                }
+            }
+            start = end;
+        }
+        offsets[order] = write;
+
+        return new CsrGraph(order, offsets, write == neighbours.length ? neighbours : Arrays.copyOf(neighbours, write));
+    }
+
+    /**
+     * @return Number of vertices.
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * @return Number of distinct undirected edges.
+     */
+    public int getEdgeCount() {
+        return neighbours.length / 2;
+    }
+
+    /**
+     * @param vertex The vertex to consider.
+     * @return Number of distinct neighbours of the vertex.
+     */
+    public int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /**
+     * @return The largest degree in the graph, or 0 for a graph without edges.
+     */
+    public int maxDegree() {
+        int max = 0;
+        for (int v = 0; v < order; v++)
+            max = Math.max(max, degree(v));
+        return max;
+    }
+
+    /**
+     * Row offsets, of length order + 1. The array is shared and must not be modified.
+     *
+     * @return The offsets array.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Concatenated sorted neighbour rows. The array is shared and must not be modified.
+     *
+     * @return The neighbours array.
+     */
+    public int[] getNeighbours() {
+        return neighbours;
+    }
+
+    /**
+     * @param u First vertex.
+     * @param v Second vertex.
+     * @return True if u and v are adjacent, found by binary search in the row of u.
+     */
+    public boolean isAdjacent(int u, int v) {
+        return Arrays.binarySearch(neighbours, offsets[u], offsets[u + 1], v) >= 0;
+    }
+
+    /**
+     * @return Every edge once as consecutive 0-based pairs (u, v) with u &lt; v.
+     */
+    public int[] toEdgeList() {
+        int[] edgeList = new int[neighbours.length];
+        int idx = 0;
+        for (int u = 0; u < order; u++)
+            for (int i = offsets[u]; i < offsets[u + 1]; i++)
+                if (u < neighbours[i]) {
+                    edgeList[idx++] = u;
+                    edgeList[idx++] = neighbours[i];
+                }
+        return edgeList;
+    }
+}
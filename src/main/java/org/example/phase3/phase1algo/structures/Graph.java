@@ -1,60 +1,80 @@
 package org.example.phase3.phase1algo.structures;
 
 import org.example.phase3.phase1algo.data.ReadGraph;
-import org.example.phase3.phase1algo.utils.HelpFunctions;
 import java.util.*;
 
 /**
  * Represents a graph structure with various properties and characteristics.
- * Stores the graph's order, matrix representation, edge list, and various
- * computed properties such as bounds and chromatic number.
+ * Wraps the shared CSR adjacency of the graph and various computed properties such as bounds and chromatic number.
  */
 public class Graph {
     private final int ORDER;
-    private final int[][] matrix;
-    private final int[] edgeList;
+    private final CsrGraph adjacency;
     private List<Set<Integer>> subgraphs;
     private int lowerBound;
     private int upperBound;
     private int chromaticNumber;
-    private List<Integer>[] adjacencyList;
     private int[] coloring;
+    private int[] maxClique;
 
     /**
-     * Constructs a new Graph with the specified parameters.
-     * Initializes the graph structure and converts the edge list to an adjacency list.
+     * Constructs a new Graph around an already built CSR adjacency structure.
      *
-     * @param order The number of vertices in the graph
-     * @param matrix The adjacency matrix representation
-     * @param edgeList The list of edges in the graph
+     * @param adjacency The CSR adjacency of the graph, with 0-based vertices
      */
-    public Graph(int order, int[][] matrix, int[] edgeList) {
-        this.ORDER = order;
-        this.matrix = matrix;
-        this.edgeList = edgeList;
+    public Graph(CsrGraph adjacency) {
+        this.ORDER = adjacency.getOrder();
+        this.adjacency = adjacency;
         this.lowerBound = -1;
         this.upperBound = -1;
         this.chromaticNumber = -1;
-        // Convert edgeList to proper format for adjacencyList initialization
-        int[][] edgeArray = new int[edgeList.length/2][2];
-        for (int i = 0; i < edgeList.length; i += 2) {
-            edgeArray[i/2][0] = edgeList[i];
-            edgeArray[i/2][1] = edgeList[i + 1];
-        }
-        this.adjacencyList = HelpFunctions.edgeListToAdjacencyList(edgeArray, order);
-        this.coloring = new int[order];
+        this.coloring = new int[ORDER];
+        this.maxClique = new int[0];
+    }
+
+    /**
+     * Constructs a new Graph with the specified parameters.
+     *
+     * @param order The number of vertices in the graph
+     * @param edgeList The list of edges in the graph, stored as consecutive 0-based vertex pairs
+     */
+    public Graph(int order, int[] edgeList) {
+        this(CsrGraph.fromEdgeList(order, edgeList));
+    }
+
+    /**
+     * @param order Number of vertices.
+     * @return Number of longs needed to hold one bit per vertex.
+     */
+    public static int wordCount(int order) {
+        return (order + 63) >>> 6;
     }
 
     public int getOrder() {
         return ORDER;
     }
 
-    public int[][] getMatrix() {
-        return matrix;
+    /**
+     * @return The CSR adjacency of the graph.
+     */
+    public CsrGraph getAdjacency() {
+        return adjacency;
     }
 
-    public int[] getEdgeList() {
-        return edgeList;
+    /**
+     * @return Number of distinct edges in the graph.
+     */
+    public int getEdgeCount() {
+        return adjacency.getEdgeCount();
+    }
+
+    /**
+     * @param u First vertex.
+     * @param v Second vertex.
+     * @return True if u and v are adjacent, found by binary search in the CSR row of u.
+     */
+    public boolean isAdjacent(int u, int v) {
+        return adjacency.isAdjacent(u, v);
     }
 
     public List<Set<Integer>> getSubgraphs() {
@@ -93,14 +113,6 @@ public class Graph {
         this.chromaticNumber = chromaticNumber;
     }
 
-    public List<Integer>[] getAdjacencyList() {
-        return adjacencyList;
-    }
-
-    public void setAdjacencyList(List<Integer>[] adjacencyList) {
-        this.adjacencyList = adjacencyList;
-    }
-
     public int[] getColoring() {
         return coloring;
     }
@@ -109,8 +121,19 @@ public class Graph {
         this.coloring = coloring;
     }
 
+    /**
+     * @return Vertices of the largest clique found by the lower bound search, sorted ascending.
+     */
+    public int[] getMaxClique() {
+        return maxClique;
+    }
+
+    public void setMaxClique(int[] maxClique) {
+        this.maxClique = maxClique;
+    }
+
     public double getDensity() {
-        int edges = edgeList.length / 2;
+        int edges = adjacency.getEdgeCount();
         return (2.0 * edges) / (ORDER * (ORDER - 1));
     }
 }
@@ -21,7 +21,7 @@ public class GraphCharacteristics {
     public static boolean connected(Graph graph) {
         Set<Integer> visited = new HashSet<>();
 
-        ConnectedHelp.depthFirstSearch(0, visited, graph.getAdjacencyList());
+        ConnectedHelp.depthFirstSearch(0, visited, graph.getAdjacency());
 
         if (visited.size() < graph.getOrder()) {
             ConnectedHelp.subgraphs(graph, visited);
@@ -37,13 +37,15 @@ public class GraphCharacteristics {
          *
          * @param vertex        Integer representing the starting vertex.
          * @param visited       Set storing all visited neighbors.
-         * @param adjacencyList Adjacency list of the analyzed graph.
+         * @param adjacency     CSR adjacency of the analyzed graph.
          */
-        private static void depthFirstSearch(int vertex, Set<Integer> visited, List<Integer>[] adjacencyList) {
+        private static void depthFirstSearch(int vertex, Set<Integer> visited, CsrGraph adjacency) {
             visited.add(vertex);
-            for (int i : adjacencyList[vertex])
-                if (!visited.contains(i))
-                    depthFirstSearch(i, visited, adjacencyList);
+            int[] offsets = adjacency.getOffsets();
+            int[] neighbours = adjacency.getNeighbours();
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++)
+                if (!visited.contains(neighbours[i]))
+                    depthFirstSearch(neighbours[i], visited, adjacency);
         }
 
         /**
@@ -66,7 +68,7 @@ public class GraphCharacteristics {
 
                 if (!evaluated) {
                     Set<Integer> newSubgraph = new HashSet<>();
-                    depthFirstSearch(i, newSubgraph, graph.getAdjacencyList());
+                    depthFirstSearch(i, newSubgraph, graph.getAdjacency());
                     result.add(newSubgraph);
                 }
             }
@@ -81,11 +83,8 @@ public class GraphCharacteristics {
      * @return True if the graph is complete, false otherwise.
      */
     public static boolean complete(Graph graph) {
-        for (int i = 0; i < graph.getOrder(); i++)
-            for (int j = i + 1; j < graph.getOrder(); j++)
-                if (i != j)
-                    if (graph.getMatrix()[i][j] == 0) return false;
-
-        return true;
+        // The CSR structure holds every edge once, so all pairs are adjacent exactly when there are n(n-1)/2 edges
+        long order = graph.getOrder();
+        return graph.getEdgeCount() == order * (order - 1) / 2;
     }
 }
@@ -45,6 +45,47 @@ public class HelpFunctions {
         return matrix;
     }
 
+    /**
+     * Intersects a bit-packed vertex set with another one in place.
+     *
+     * @param target Set that is narrowed down to the intersection.
+     * @param other  Set of the same width to intersect with.
+     */
+    public static void intersect(long[] target, long[] other) {
+        for (int w = 0; w < target.length; w++)
+            target[w] &= other[w];
+    }
+
+    /**
+     * @param set Bit-packed vertex set.
+     * @return Number of vertices in the set.
+     */
+    public static int cardinality(long[] set) {
+        int count = 0;
+        for (long word : set)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * @param set  Bit-packed vertex set.
+     * @param from First vertex to consider.
+     * @return The smallest vertex in the set that is at least from, or -1 if there is none.
+     */
+    public static int nextSetBit(long[] set, int from) {
+        int w = from >>> 6;
+        if (w >= set.length)
+            return -1;
+        long word = set[w] & (-1L << from);
+        while (true) {
+            if (word != 0)
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w == set.length)
+                return -1;
+            word = set[w];
+        }
+    }
+
     /**
      * @param array Array to be considered.
      * @return Greatest int in the array.
@@ -24,7 +24,7 @@ public class VertexOrdering {
 
         List<Pair> pairs = new ArrayList<>();
         for (int vertex = 0; vertex < graph.getOrder(); vertex++)
-            pairs.add(new Pair(vertex, graph.getAdjacencyList()[vertex].size()));
+            pairs.add(new Pair(vertex, graph.getAdjacency().degree(vertex)));
 
         pairs.sort((pair1, pair2) -> pair2.degree.compareTo(pair1.degree));
 
@@ -34,4 +34,70 @@ public class VertexOrdering {
 
         return sortedVertices;
     }
+
+    /**
+     * Computes a smallest-last (degeneracy) ordering: vertices are repeatedly removed by minimum remaining degree,
+     * and the result lists them in reverse removal order. Every vertex then has at most degeneracy neighbours
+     * before it, so the densest core of the graph comes first.
+     *
+     * @param graph The analyzed Graph object.
+     * @return Array of vertices in smallest-last order.
+     */
+    public static int[] smallestLast(Graph graph) {
+        int n = graph.getOrder();
+        int[] offsets = graph.getAdjacency().getOffsets();
+        int[] neighbours = graph.getAdjacency().getNeighbours();
+        int maxDegree = graph.getAdjacency().maxDegree();
+
+        // Vertices bucketed by remaining degree: doubly linked lists through next and prev
+        int[] degree = new int[n];
+        int[] head = new int[maxDegree + 1];
+        int[] next = new int[n];
+        int[] prev = new int[n];
+        Arrays.fill(head, -1);
+        for (int v = 0; v < n; v++) {
+            degree[v] = offsets[v + 1] - offsets[v];
+            next[v] = head[degree[v]];
+            prev[v] = -1;
+            if (head[degree[v]] != -1)
+                prev[head[degree[v]]] = v;
+            head[degree[v]] = v;
+        }
+
+        boolean[] removed = new boolean[n];
+        int[] order = new int[n];
+        int lowest = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            while (head[lowest] == -1)
+                lowest++;
+            int v = head[lowest];
+            head[lowest] = next[v];
+            if (next[v] != -1)
+                prev[next[v]] = -1;
+            removed[v] = true;
+            order[i] = v;
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int u = neighbours[k];
+                if (removed[u])
+                    continue;
+                // Unlink u from its bucket and move it one bucket down
+                if (prev[u] != -1)
+                    next[prev[u]] = next[u];
+                else
+                    head[degree[u]] = next[u];
+                if (next[u] != -1)
+                    prev[next[u]] = prev[u];
+                degree[u]--;
+                next[u] = head[degree[u]];
+                prev[u] = -1;
+                if (head[degree[u]] != -1)
+                    prev[head[degree[u]]] = u;
+                head[degree[u]] = u;
+            }
+            lowest = Math.max(0, lowest - 1);
+        }
+
+        return order;
+    }
 }
@@ -0,0 +1,231 @@
+package org.example.phase3.Algorithms;
+
+import org.example.phase3.Evaluation.Graph;
+import org.example.phase3.phase1algo.algorithms.ChromaticNumber;
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stores results in a cache file of its own and checks that relabeled copies of a solved graph get a proper coloring
+ * back, that damaged files are cut back to their last intact record, and that a worse result never replaces a better
+ * one, in memory and after the file is opened again.
+ */
+class ResultCacheTest {
+    private static final int GRAPHS = 50;
+
+    @Test
+    void relabeledCopyGetsProperColoring() throws IOException {
+        Path file = Files.createTempFile("results", ".bin");
+        try {
+            Random random = new Random(1);
+            List<Graph> graphs = new ArrayList<>();
+            ResultCache cache = new ResultCache(file);
+            for (int trial = 0; trial < GRAPHS; trial++) {
+                Graph graph = randomGraph(random);
+                graphs.add(graph);
+                cache.store(graph, dsaturResult(graph, 1));
+            }
+            ResultCache reopened = new ResultCache(file);
+            for (int trial = 0; trial < GRAPHS; trial++) {
+                Graph graph = graphs.get(trial);
+                int colors = dsaturResult(graph, 1).getChromaticNumber();
+                for (ResultCache source : List.of(cache, reopened)) {
+                    Graph copy = relabel(graph, random);
+                    ColoringResult hit = source.lookup(copy);
+                    assertNotNull(hit, "Relabeled copy of graph " + trial + " missed");
+                    assertEquals(colors, hit.getChromaticNumber(), "Graph " + trial);
+                    assertProperColoring(copy, hit, "Relabeled copy of graph " + trial);
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void damagedFileIsCutBackToLastIntactRecord() throws IOException {
+        Path file = Files.createTempFile("results", ".bin");
+        try {
+            Random random = new Random(2);
+            List<Graph> graphs = new ArrayList<>();
+            List<Long> ends = new ArrayList<>();
+            ResultCache cache = new ResultCache(file);
+            for (int i = 0; i < 3; i++) {
+                Graph graph = randomGraph(random);
+                graphs.add(graph);
+                cache.store(graph, dsaturResult(graph, 1));
+                ends.add(Files.size(file));
+            }
+
+            // A crash while appending the last record leaves it cut short
+            truncate(file, ends.get(2) - 5);
+            assertCached(new ResultCache(file), graphs, 2);
+            assertEquals((long) ends.get(1), Files.size(file), "The partial record was not cut off");
+
+            // A flipped byte in the middle of the second record fails its checksum
+            byte[] bytes = Files.readAllBytes(file);
+            int flipped = (int) ((ends.get(0) + ends.get(1)) / 2);
+            bytes[flipped] ^= 0x10;
+            Files.write(file, bytes);
+            assertCached(new ResultCache(file), graphs, 1);
+            assertEquals((long) ends.get(0), Files.size(file), "The damaged record was not cut off");
+
+            // New records follow the last intact one and survive reopening
+            ResultCache recovered = new ResultCache(file);
+            recovered.store(graphs.get(2), dsaturResult(graphs.get(2), 1));
+            ColoringResult hit = new ResultCache(file).lookup(graphs.get(2));
+            assertNotNull(hit, "Record stored after the recovery missed");
+            assertProperColoring(graphs.get(2), hit, "Graph stored after the recovery");
+            assertNull(new ResultCache(file).lookup(graphs.get(1)));
+
+            // A file that is no cache at all is discarded as a whole
+            Files.write(file, "not a result cache".getBytes());
+            assertNull(new ResultCache(file).lookup(graphs.get(0)));
+            assertEquals(0, Files.size(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void storeNeverReplacesBetterBounds() throws IOException {
+        Path file = Files.createTempFile("results", ".bin");
+        try {
+            Graph graph = randomGraph(new Random(3));
+            ColoringResult dsatur = dsaturResult(graph, 2);
+            int colors = dsatur.getChromaticNumber();
+            ResultCache cache = new ResultCache(file);
+            cache.store(graph, dsatur);
+
+            // More colors and a weaker lower bound: the cached coloring and the stronger lower bound are kept
+            ColoringResult worse = new ColoringResult(oneColorPerVertex(graph), graph.getVertexCount(), "Worse", 1);
+            ColoringResult merged = cache.store(graph, worse);
+            assertEquals(colors, merged.getChromaticNumber());
+            assertEquals(2, merged.getLowerBound());
+            assertProperColoring(graph, merged, "Merged result");
+            long size = Files.size(file);
+
+            // A stronger lower bound with more colors only raises the lower bound
+            ColoringResult stronger = new ColoringResult(oneColorPerVertex(graph), graph.getVertexCount(), "Stronger",
+                colors);
+            merged = cache.store(graph, stronger);
+            assertEquals(colors, merged.getChromaticNumber());
+            assertEquals(colors, merged.getLowerBound());
+            assertTrue(Files.size(file) > size, "The improved lower bound was not written");
+
+            for (ResultCache source : List.of(cache, new ResultCache(file))) {
+                ColoringResult known = source.lookup(graph);
+                assertEquals(colors, known.getChromaticNumber());
+                assertEquals(colors, known.getLowerBound());
+                assertTrue(known.isExact());
+                assertProperColoring(graph, known, "Cached result");
+            }
+
+            // Nothing new: nothing is written
+            size = Files.size(file);
+            cache.store(graph, worse);
+            assertEquals(size, Files.size(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void assertCached(ResultCache cache, List<Graph> graphs, int intact) {
+        for (int i = 0; i < graphs.size(); i++) {
+            ColoringResult hit = cache.lookup(graphs.get(i));
+            if (i < intact) {
+                assertNotNull(hit, "Intact record " + i + " missed");
+                assertProperColoring(graphs.get(i), hit, "Intact record " + i);
+            } else {
+                assertNull(hit, "Damaged record " + i + " was found");
+            }
+        }
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    /**
+     * @return The DSATUR coloring of the graph, with the given lower bound
+     */
+    private static ColoringResult dsaturResult(Graph graph, int lowerBound) {
+        int[] coloring = ChromaticNumber.dsaturColoring(graph.getAdjacency());
+        Map<Integer, Integer> colorMap = new HashMap<>();
+        int colors = 0;
+        for (int v = 0; v < coloring.length; v++) {
+            colorMap.put(v + 1, coloring[v] + 1);
+            colors = Math.max(colors, coloring[v] + 1);
+        }
+        return new ColoringResult(colorMap, colors, "DSATUR", lowerBound);
+    }
+
+    private static Map<Integer, Integer> oneColorPerVertex(Graph graph) {
+        Map<Integer, Integer> colorMap = new HashMap<>();
+        for (int v = 1; v <= graph.getVertexCount(); v++) {
+            colorMap.put(v, v);
+        }
+        return colorMap;
+    }
+
+    /**
+     * @return A graph with 5 to 40 vertices and an edge density drawn between 0.1 and 0.6
+     */
+    private static Graph randomGraph(Random random) {
+        int n = 5 + random.nextInt(36);
+        double density = 0.1 + 0.5 * random.nextDouble();
+        List<Integer> edges = new ArrayList<>();
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                if (random.nextDouble() < density) {
+                    edges.add(u);
+                    edges.add(v);
+                }
+            }
+        }
+        return new Graph(CsrGraph.fromEdgeList(n, edges.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * @return A copy of the graph with its vertices renamed by a random permutation
+     */
+    private static Graph relabel(Graph graph, Random random) {
+        CsrGraph adjacency = graph.getAdjacency();
+        List<Integer> permutation = new ArrayList<>();
+        for (int v = 0; v < adjacency.getOrder(); v++) {
+            permutation.add(v);
+        }
+        Collections.shuffle(permutation, random);
+        int[] edges = adjacency.toEdgeList();
+        int[] renamed = new int[2 * adjacency.getEdgeCount()];
+        for (int i = 0; i < renamed.length; i++) {
+            renamed[i] = permutation.get(edges[i]);
+        }
+        return new Graph(CsrGraph.fromEdgeList(adjacency.getOrder(), renamed));
+    }
+
+    private static void assertProperColoring(Graph graph, ColoringResult result, String name) {
+        Map<Integer, Integer> colors = result.getColorAssignments();
+        CsrGraph adjacency = graph.getAdjacency();
+        for (int v = 0; v < adjacency.getOrder(); v++) {
+            Integer color = colors.get(v + 1);
+            assertNotNull(color, name + ": vertex " + (v + 1) + " is not colored");
+            assertTrue(color >= 1 && color <= result.getChromaticNumber(), name + ": vertex " + (v + 1)
+                + " has color " + color + " of " + result.getChromaticNumber());
+            for (int u = 0; u < v; u++) {
+                if (adjacency.isAdjacent(u, v)) {
+                    assertNotEquals(colors.get(u + 1), color, name + ": adjacent vertices " + (u + 1) + " and "
+                        + (v + 1) + " share a color");
+                }
+            }
+        }
+    }
+}
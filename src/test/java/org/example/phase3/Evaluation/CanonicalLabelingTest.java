@@ -0,0 +1,220 @@
+package org.example.phase3.Evaluation;
+
+import org.example.phase3.Algorithms.ResultCache;
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the canonical labeling on random graphs: relabeled copies must get identical canonical edges, graphs that
+ * the result cache's fingerprint cannot tell apart must get different ones unless brute force finds them isomorphic,
+ * and every generator must be an automorphism.
+ */
+class CanonicalLabelingTest {
+    private static final int GRAPHS = 300;
+
+    /**
+     * Largest order of the regular graphs compared with brute force, which tries all n! bijections
+     */
+    private static final int BRUTE_FORCE_ORDER = 8;
+
+    @Test
+    void relabeledCopiesHaveIdenticalCanonicalEdges() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < GRAPHS; trial++) {
+            CsrGraph graph = trial % 2 == 0 ? randomGraph(random, 2 + random.nextInt(40))
+                : randomRegularGraph(random, 6 + 2 * random.nextInt(14), 2 + random.nextInt(3));
+            CanonicalLabeling labeling = labelingOf(graph, trial);
+            CsrGraph copy = relabel(graph, randomPermutation(random, graph.getOrder()));
+            CanonicalLabeling copyLabeling = labelingOf(copy, trial);
+            assertArrayEquals(labeling.getCanonicalEdges(), copyLabeling.getCanonicalEdges(),
+                "Graph " + trial + " and its relabeled copy");
+            assertEquals(canonicalGraph(graph, labeling.getLabeling()), keySet(labeling.getCanonicalEdges()),
+                "Graph " + trial + " relabeled by its canonical labeling");
+        }
+    }
+
+    @Test
+    void graphsWithEqualFingerprintsDifferUnlessIsomorphic() {
+        Random random = new Random(2);
+        int nonIsomorphic = 0;
+        for (int trial = 0; trial < GRAPHS; trial++) {
+            int n = 4 + random.nextInt(BRUTE_FORCE_ORDER - 3);
+            int degree = n % 2 == 0 ? 2 + random.nextInt(2) : 2;
+            CsrGraph a = randomRegularGraph(random, n, degree);
+            CsrGraph b = randomRegularGraph(random, n, degree);
+            // Regular graphs of one order and degree are never told apart by color refinement
+            assertEquals(ResultCache.fingerprint(a), ResultCache.fingerprint(b), "Pair " + trial);
+            boolean isomorphic = bruteForceIsomorphic(a, b);
+            if (!isomorphic) {
+                nonIsomorphic++;
+            }
+            assertEquals(isomorphic, Arrays.equals(labelingOf(a, trial).getCanonicalEdges(),
+                labelingOf(b, trial).getCanonicalEdges()), "Pair " + trial + " on " + n + " vertices");
+        }
+        assertTrue(nonIsomorphic > GRAPHS / 10, "Only " + nonIsomorphic + " pairs were not isomorphic");
+    }
+
+    @Test
+    void generatorsAreAutomorphisms() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < GRAPHS; trial++) {
+            CsrGraph graph = trial % 2 == 0 ? randomGraph(random, 2 + random.nextInt(40))
+                : randomRegularGraph(random, 6 + 2 * random.nextInt(14), 2 + random.nextInt(3));
+            Set<Long> edges = keySet(edgeKeys(graph));
+            for (int[] gamma : labelingOf(graph, trial).getGenerators()) {
+                assertTrue(isPermutation(gamma), "Generator of graph " + trial + " is not a permutation");
+                assertEquals(edges, canonicalGraph(graph, gamma), "Generator of graph " + trial + " moves an edge");
+            }
+        }
+    }
+
+    private static CanonicalLabeling labelingOf(CsrGraph graph, int trial) {
+        CanonicalLabeling labeling = CanonicalLabeling.of(graph);
+        assertNotNull(labeling, "Graph " + trial + " exceeded the search budget");
+        return labeling;
+    }
+
+    /**
+     * @return A graph with an edge density drawn between 0.05 and 0.5
+     */
+    private static CsrGraph randomGraph(Random random, int n) {
+        double density = 0.05 + 0.45 * random.nextDouble();
+        List<Integer> edges = new ArrayList<>();
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                if (random.nextDouble() < density) {
+                    edges.add(u);
+                    edges.add(v);
+                }
+            }
+        }
+        return CsrGraph.fromEdgeList(n, edges.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Pairs up degree copies of every vertex at random, retrying until no pair is a loop or repeats an edge.
+     */
+    private static CsrGraph randomRegularGraph(Random random, int n, int degree) {
+        while (true) {
+            List<Integer> points = new ArrayList<>();
+            for (int v = 0; v < n; v++) {
+                for (int d = 0; d < degree; d++) {
+                    points.add(v);
+                }
+            }
+            Collections.shuffle(points, random);
+            Set<Long> seen = new HashSet<>();
+            int[] edges = new int[points.size()];
+            boolean simple = true;
+            for (int i = 0; i < points.size() && simple; i += 2) {
+                int u = Math.min(points.get(i), points.get(i + 1));
+                int v = Math.max(points.get(i), points.get(i + 1));
+                simple = u != v && seen.add((long) u << 32 | v);
+                edges[i] = u;
+                edges[i + 1] = v;
+            }
+            if (simple) {
+                return CsrGraph.fromEdgeList(n, edges);
+            }
+        }
+    }
+
+    private static int[] randomPermutation(Random random, int n) {
+        List<Integer> order = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            order.add(v);
+        }
+        Collections.shuffle(order, random);
+        return order.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return The graph with every vertex v renamed to permutation[v]
+     */
+    private static CsrGraph relabel(CsrGraph graph, int[] permutation) {
+        int[] edges = graph.toEdgeList();
+        int[] renamed = new int[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            renamed[i] = permutation[edges[i]];
+        }
+        return CsrGraph.fromEdgeList(graph.getOrder(), renamed);
+    }
+
+    /**
+     * @return The edge keys of the graph with every vertex v renamed to permutation[v]
+     */
+    private static Set<Long> canonicalGraph(CsrGraph graph, int[] permutation) {
+        int[] edges = graph.toEdgeList();
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i < edges.length; i += 2) {
+            int u = permutation[edges[i]];
+            int v = permutation[edges[i + 1]];
+            keys.add((long) Math.min(u, v) << 32 | Math.max(u, v));
+        }
+        return keys;
+    }
+
+    private static long[] edgeKeys(CsrGraph graph) {
+        int[] identity = new int[graph.getOrder()];
+        for (int v = 0; v < identity.length; v++) {
+            identity[v] = v;
+        }
+        return canonicalGraph(graph, identity).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static Set<Long> keySet(long[] keys) {
+        Set<Long> set = new HashSet<>();
+        for (long key : keys) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    private static boolean isPermutation(int[] gamma) {
+        boolean[] hit = new boolean[gamma.length];
+        for (int image : gamma) {
+            if (image < 0 || image >= gamma.length || hit[image]) {
+                return false;
+            }
+            hit[image] = true;
+        }
+        return true;
+    }
+
+    private static boolean bruteForceIsomorphic(CsrGraph a, CsrGraph b) {
+        int[] map = new int[a.getOrder()];
+        Arrays.fill(map, -1);
+        return a.getEdgeCount() == b.getEdgeCount() && extend(a, b, 0, map, new boolean[b.getOrder()]);
+    }
+
+    /**
+     * Maps vertex v of a to every unused vertex of b in turn that keeps the edges to the vertices mapped so far.
+     */
+    private static boolean extend(CsrGraph a, CsrGraph b, int v, int[] map, boolean[] used) {
+        if (v == map.length) {
+            return true;
+        }
+        for (int image = 0; image < map.length; image++) {
+            if (used[image]) {
+                continue;
+            }
+            boolean consistent = true;
+            for (int u = 0; u < v && consistent; u++) {
+                consistent = a.isAdjacent(u, v) == b.isAdjacent(map[u], image);
+            }
+            if (consistent) {
+                map[v] = image;
+                used[image] = true;
+                if (extend(a, b, v + 1, map, used)) {
+                    return true;
+                }
+                used[image] = false;
+            }
+        }
+        map[v] = -1;
+        return false;
+    }
+}
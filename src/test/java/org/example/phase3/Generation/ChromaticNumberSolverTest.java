@@ -0,0 +1,95 @@
+package org.example.phase3.Generation;
+
+import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.Evaluation.Graph;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Colors graphs made of a special-case component and a general one, whose colorings come from different algorithms,
+ * and checks that the merged coloring is proper and uses exactly as many colors as the chromatic number it reports.
+ */
+class ChromaticNumberSolverTest {
+    /**
+     * K4 with a pendant vertex: planar, but neither complete nor a wheel, so it is colored by the planar greedy
+     */
+    private static final int[][] PLANAR = {{1, 2}, {1, 3}, {1, 4}, {2, 3}, {2, 4}, {3, 4}, {4, 5}};
+
+    /**
+     * K6 and K7 without one edge: too many edges to be planar and not complete, so they are left to the general
+     * engines, and they need more colors than the planar component
+     */
+    private static final int[][] ALMOST_K6 = almostComplete(6);
+    private static final int[][] ALMOST_K7 = almostComplete(7);
+
+    @Test
+    void mergedColoringUsesChromaticNumberColors() throws Exception {
+        assertMerged(union(PLANAR, ALMOST_K6), 5);
+        assertMerged(union(ALMOST_K7, PLANAR), 6);
+        assertMerged(union(ALMOST_K6, PLANAR, ALMOST_K7), 6);
+    }
+
+    @Test
+    void knownLowerBoundIsKept() throws Exception {
+        Graph graph = new Graph(union(PLANAR, ALMOST_K6));
+        ColoringResult known = new ColoringResult(new HashMap<>(), graph.getVertexCount(), "Earlier run", 5);
+        ColoringResult result = ChromaticNumberSolver.solveComponents(graph, known);
+        assertEquals(5, result.getChromaticNumber());
+        assertEquals(5, result.getLowerBound());
+        assertProperColoring(graph, result);
+    }
+
+    private static void assertMerged(List<ColEdge> edges, int chromaticNumber) throws Exception {
+        Graph graph = new Graph(edges);
+        ColoringResult result = ChromaticNumberSolver.solveComponents(graph);
+        assertEquals(chromaticNumber, result.getChromaticNumber(), result.getAlgorithmName());
+        assertProperColoring(graph, result);
+        Set<Integer> colors = new HashSet<>(result.getColorAssignments().values());
+        assertEquals(result.getChromaticNumber(), colors.size(), "Colors used: " + colors);
+        for (int color : colors) {
+            assertTrue(color >= 1 && color <= result.getChromaticNumber(), "Color " + color + " out of range");
+        }
+    }
+
+    private static void assertProperColoring(Graph graph, ColoringResult result) {
+        Map<Integer, Integer> colors = result.getColorAssignments();
+        for (int v = 1; v <= graph.getVertexCount(); v++) {
+            assertNotNull(colors.get(v), "Vertex " + v + " is not colored");
+        }
+        for (ColEdge edge : graph.getEdges()) {
+            assertNotEquals(colors.get(edge.u), colors.get(edge.v),
+                "Adjacent vertices " + edge.u + " and " + edge.v + " share a color");
+        }
+    }
+
+    /**
+     * @return The disjoint union of the graphs, each shifted past the vertices of the ones before it
+     */
+    private static List<ColEdge> union(int[][]... graphs) {
+        List<ColEdge> edges = new ArrayList<>();
+        int shift = 0;
+        for (int[][] graph : graphs) {
+            int max = 0;
+            for (int[] edge : graph) {
+                edges.add(new ColEdge(edge[0] + shift, edge[1] + shift));
+                max = Math.max(max, Math.max(edge[0], edge[1]));
+            }
+            shift += max;
+        }
+        return edges;
+    }
+
+    private static int[][] almostComplete(int n) {
+        List<int[]> edges = new ArrayList<>();
+        for (int u = 1; u <= n; u++) {
+            for (int v = u + 1; v <= n; v++) {
+                if (u != 1 || v != 2) {
+                    edges.add(new int[]{u, v});
+                }
+            }
+        }
+        return edges.toArray(new int[0][]);
+    }
+}
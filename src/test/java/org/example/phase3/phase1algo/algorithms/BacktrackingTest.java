@@ -0,0 +1,230 @@
+package org.example.phase3.phase1algo.algorithms;
+
+import org.example.phase3.Evaluation.CanonicalLabeling;
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import org.example.phase3.phase1algo.structures.Graph;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the chromatic number found by the backtracking search with brute force on small random graphs, on one
+ * thread and on several, with and without the automorphisms that let nogoods be reused under symmetry. A third of the
+ * graphs are blown up from smaller ones by replacing vertices with twins, so that they have automorphisms to use, and
+ * a third contain an odd cycle joined to a random graph, so that the largest clique is not a tight lower bound.
+ */
+class BacktrackingTest {
+    private static final int GRAPHS = 200;
+
+    private static final int[] PARALLELISM = {1, 3};
+
+    @Test
+    void findsChromaticNumberWithoutAutomorphisms() {
+        Random random = new Random(1);
+        int searched = 0;
+        for (int trial = 0; trial < GRAPHS; trial++) {
+            CsrGraph adjacency = testGraph(random, trial);
+            int chromaticNumber = bruteForceChromaticNumber(adjacency);
+            for (int threads : PARALLELISM) {
+                if (assertSolves(adjacency, chromaticNumber, threads, null,
+                    "Graph " + trial + " on " + threads + " threads")) {
+                    searched++;
+                }
+            }
+        }
+        assertTrue(searched > GRAPHS / 10, "Only " + searched + " runs had to prove a bound above the clique");
+    }
+
+    @Test
+    void findsChromaticNumberWithAutomorphisms() {
+        Random random = new Random(2);
+        int symmetric = 0;
+        for (int trial = 0; trial < GRAPHS; trial++) {
+            CsrGraph adjacency = testGraph(random, trial);
+            int chromaticNumber = bruteForceChromaticNumber(adjacency);
+            CanonicalLabeling labeling = CanonicalLabeling.of(adjacency);
+            assertNotNull(labeling, "Graph " + trial + " exceeded the labeling budget");
+            List<int[]> automorphisms = new ArrayList<>(labeling.getGenerators());
+            symmetric += automorphisms.isEmpty() ? 0 : 1;
+            for (int threads : PARALLELISM) {
+                assertSolves(adjacency, chromaticNumber, threads, automorphisms,
+                    "Graph " + trial + " with " + automorphisms.size() + " automorphisms on " + threads + " threads");
+            }
+        }
+        assertTrue(symmetric > GRAPHS / 4, "Only " + symmetric + " graphs had automorphisms");
+    }
+
+    /**
+     * Runs the search from the largest clique, as the exact stage does, but from the coloring that gives every vertex
+     * a color of its own instead of the DSATUR one, so that it has to find the better colorings itself.
+     *
+     * @return True if the clique does not prove the chromatic number, so the search had to
+     */
+    private static boolean assertSolves(CsrGraph adjacency, int chromaticNumber, int threads, List<int[]> automorphisms,
+                                     String name) {
+        Graph graph = new Graph(adjacency);
+        Bounds.LowerBound.lowerBoundLargestClique(graph);
+        int lowerBound = graph.getLowerBound();
+        int upperBound = adjacency.getOrder();
+        int[] incumbent = new int[upperBound];
+        for (int v = 0; v < upperBound; v++) {
+            incumbent[v] = v;
+        }
+
+        AtomicInteger best = new AtomicInteger(upperBound);
+        TimerCheck timer = new TimerCheck(60000);
+        timer.start();
+        Backtracking backtracking = new Backtracking(timer, best);
+        backtracking.setParallelism(threads);
+        if (automorphisms != null) {
+            backtracking.setAutomorphisms(automorphisms);
+        }
+        backtracking.runBacktracking(graph, upperBound, lowerBound, incumbent);
+
+        assertEquals(chromaticNumber, best.get(), name);
+        assertTrue(backtracking.isOptimal(), name + " was not proven optimal");
+        assertEquals(chromaticNumber, backtracking.getLowerBound(), name);
+        assertProperColoring(adjacency, backtracking.getBestColoring(), chromaticNumber, name);
+        return chromaticNumber > lowerBound;
+    }
+
+    private static CsrGraph testGraph(Random random, int trial) {
+        switch (trial % 3) {
+            case 0:
+                return randomGraph(random);
+            case 1:
+                return blownUpGraph(random);
+            default:
+                return oddCycleJoin(random);
+        }
+    }
+
+    /**
+     * @return A graph with 2 to 12 vertices and an edge density drawn between 0.1 and 0.9
+     */
+    private static CsrGraph randomGraph(Random random) {
+        int n = 2 + random.nextInt(11);
+        double density = 0.1 + 0.8 * random.nextDouble();
+        List<Integer> edges = new ArrayList<>();
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                if (random.nextDouble() < density) {
+                    edges.add(u);
+                    edges.add(v);
+                }
+            }
+        }
+        return CsrGraph.fromEdgeList(n, edges.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Replaces every vertex of a random graph on 2 to 5 vertices with 1 to 3 twins, adjacent to each other or not,
+     * each adjacent to all twins of the vertex's neighbours; at most 12 vertices in all.
+     */
+    private static CsrGraph blownUpGraph(Random random) {
+        CsrGraph base = randomGraph(random, 2 + random.nextInt(4));
+        int[] first = new int[base.getOrder() + 1];
+        boolean[] cliqueTwins = new boolean[base.getOrder()];
+        for (int v = 0; v < base.getOrder(); v++) {
+            first[v + 1] = first[v] + 1 + random.nextInt(Math.min(3, 12 / base.getOrder()));
+            cliqueTwins[v] = random.nextBoolean();
+        }
+        List<Integer> edges = new ArrayList<>();
+        for (int u = 0; u < base.getOrder(); u++) {
+            for (int v = u; v < base.getOrder(); v++) {
+                if (u == v ? !cliqueTwins[u] : !base.isAdjacent(u, v)) {
+                    continue;
+                }
+                for (int a = first[u]; a < first[u + 1]; a++) {
+                    for (int b = Math.max(first[v], a + 1); b < first[v + 1]; b++) {
+                        edges.add(a);
+                        edges.add(b);
+                    }
+                }
+            }
+        }
+        return CsrGraph.fromEdgeList(first[base.getOrder()], edges.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Joins C5 or C7 to a random graph on 1 to 5 vertices: every cycle vertex is adjacent to every other vertex, so
+     * the chromatic number is 3 more than the random graph's while the largest clique is only 2 more.
+     */
+    private static CsrGraph oddCycleJoin(Random random) {
+        int cycle = random.nextBoolean() ? 5 : 7;
+        CsrGraph rest = randomGraph(random, 1 + random.nextInt(12 - cycle));
+        List<Integer> edges = new ArrayList<>();
+        for (int v = 0; v < cycle; v++) {
+            edges.add(v);
+            edges.add((v + 1) % cycle);
+            for (int u = 0; u < rest.getOrder(); u++) {
+                edges.add(v);
+                edges.add(cycle + u);
+            }
+        }
+        int[] restEdges = rest.toEdgeList();
+        for (int i = 0; i < 2 * rest.getEdgeCount(); i++) {
+            edges.add(cycle + restEdges[i]);
+        }
+        return CsrGraph.fromEdgeList(cycle + rest.getOrder(), edges.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static CsrGraph randomGraph(Random random, int n) {
+        double density = 0.3 + 0.6 * random.nextDouble();
+        List<Integer> edges = new ArrayList<>();
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                if (random.nextDouble() < density) {
+                    edges.add(u);
+                    edges.add(v);
+                }
+            }
+        }
+        return CsrGraph.fromEdgeList(n, edges.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static int bruteForceChromaticNumber(CsrGraph graph) {
+        int[] colors = new int[graph.getOrder()];
+        for (int k = 1; ; k++) {
+            Arrays.fill(colors, -1);
+            if (colorFrom(graph, 0, k, colors)) {
+                return k;
+            }
+        }
+    }
+
+    private static boolean colorFrom(CsrGraph graph, int vertex, int k, int[] colors) {
+        if (vertex == colors.length) {
+            return true;
+        }
+        for (int color = 0; color < k; color++) {
+            boolean free = true;
+            for (int u = 0; u < vertex && free; u++) {
+                free = colors[u] != color || !graph.isAdjacent(u, vertex);
+            }
+            if (free) {
+                colors[vertex] = color;
+                if (colorFrom(graph, vertex + 1, k, colors)) {
+                    return true;
+                }
+            }
+        }
+        colors[vertex] = -1;
+        return false;
+    }
+
+    private static void assertProperColoring(CsrGraph graph, int[] coloring, int k, String name) {
+        assertEquals(graph.getOrder(), coloring.length, name);
+        for (int v = 0; v < coloring.length; v++) {
+            assertTrue(coloring[v] >= 0 && coloring[v] < k, name + ": vertex " + v + " has color " + coloring[v]);
+            for (int u = 0; u < v; u++) {
+                if (graph.isAdjacent(u, v)) {
+                    assertNotEquals(coloring[u], coloring[v], name + ": adjacent vertices " + u + " and " + v
+                        + " share a color");
+                }
+            }
+        }
+    }
+}
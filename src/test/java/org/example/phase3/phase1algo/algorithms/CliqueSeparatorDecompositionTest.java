@@ -0,0 +1,208 @@
+package org.example.phase3.phase1algo.algorithms;
+
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import org.example.phase3.phase1algo.structures.Graph;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the decomposition on random graphs built by gluing chordal vertices and small random blocks onto cliques,
+ * so that every glue clique is a clique separator the decomposition may split along.
+ */
+class CliqueSeparatorDecompositionTest {
+    private static final int GRAPHS = 200;
+
+    @Test
+    void atomsMeetEarlierAtomsInCliques() {
+        Random random = new Random(1);
+        int split = 0;
+        for (int trial = 0; trial < GRAPHS; trial++) {
+            CsrGraph adjacency = chordalPlusBlocks(random, 5 + random.nextInt(20));
+            CliqueSeparatorDecomposition decomposition = new CliqueSeparatorDecomposition(new Graph(adjacency));
+            int atomCount = decomposition.getAtomCount();
+            int[] blockStarts = decomposition.getBlockStarts();
+            split += atomCount > 1 ? 1 : 0;
+
+            boolean[] inEarlierBlocks = new boolean[adjacency.getOrder()];
+            for (int b = 0; b < blockStarts.length; b++) {
+                int end = b + 1 < blockStarts.length ? blockStarts[b + 1] : atomCount;
+                boolean[] inEarlierAtoms = new boolean[adjacency.getOrder()];
+                Set<Integer> block = new TreeSet<>();
+                for (int a = blockStarts[b]; a < end; a++) {
+                    int[] atom = decomposition.getAtom(a);
+                    List<Integer> meet = new ArrayList<>();
+                    for (int v : atom) {
+                        if (inEarlierAtoms[v]) {
+                            meet.add(v);
+                        }
+                    }
+                    assertTrue(isClique(adjacency, meet),
+                        "Atom " + a + " meets the earlier atoms of its block in " + meet + ", which is no clique");
+                    for (int v : atom) {
+                        inEarlierAtoms[v] = true;
+                        block.add(v);
+                    }
+                }
+                int meet = 0;
+                for (int v : block) {
+                    meet += inEarlierBlocks[v] ? 1 : 0;
+                }
+                assertTrue(meet <= 1, "Block " + b + " meets the earlier blocks in " + meet + " vertices");
+                for (int v : block) {
+                    inEarlierBlocks[v] = true;
+                }
+            }
+
+            for (int v = 0; v < adjacency.getOrder(); v++) {
+                assertTrue(inEarlierBlocks[v], "Vertex " + v + " is in no atom");
+            }
+            assertTrue(everyEdgeInAnAtom(adjacency, decomposition), "An edge lies in no atom");
+        }
+        assertTrue(split > GRAPHS / 2, "Only " + split + " of " + GRAPHS + " graphs were split");
+    }
+
+    @Test
+    void atomGraphsAreInducedSubgraphs() {
+        Random random = new Random(2);
+        for (int trial = 0; trial < GRAPHS; trial++) {
+            CsrGraph adjacency = chordalPlusBlocks(random, 5 + random.nextInt(20));
+            CliqueSeparatorDecomposition decomposition = new CliqueSeparatorDecomposition(new Graph(adjacency));
+            for (int a = 0; a < decomposition.getAtomCount(); a++) {
+                int[] atom = decomposition.getAtom(a);
+                CsrGraph atomGraph = decomposition.getAtomGraph(a).getAdjacency();
+                assertEquals(atom.length, atomGraph.getOrder());
+                for (int i = 0; i < atom.length; i++) {
+                    for (int j = 0; j < atom.length; j++) {
+                        assertEquals(adjacency.isAdjacent(atom[i], atom[j]), atomGraph.isAdjacent(i, j),
+                            "Atom " + a + " vertices " + i + " and " + j);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void glueKeepsTheLargestAtomColorCount() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < GRAPHS; trial++) {
+            CsrGraph adjacency = chordalPlusBlocks(random, 5 + random.nextInt(20));
+            CliqueSeparatorDecomposition decomposition = new CliqueSeparatorDecomposition(new Graph(adjacency));
+            int[][] atomColorings = new int[decomposition.getAtomCount()][];
+            int largest = 0;
+            for (int a = 0; a < atomColorings.length; a++) {
+                atomColorings[a] = ChromaticNumber.dsaturColoring(decomposition.getAtomGraph(a).getAdjacency());
+                largest = Math.max(largest, Arrays.stream(atomColorings[a]).max().orElse(-1) + 1);
+            }
+
+            int[] coloring = decomposition.glue(atomColorings);
+            int[] offsets = adjacency.getOffsets();
+            int[] neighbours = adjacency.getNeighbours();
+            for (int v = 0; v < adjacency.getOrder(); v++) {
+                assertTrue(coloring[v] >= 0 && coloring[v] < largest,
+                    "Vertex " + v + " has color " + coloring[v] + " outside 0.." + (largest - 1));
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    assertNotEquals(coloring[v], coloring[neighbours[i]],
+                        "Adjacent vertices " + v + " and " + neighbours[i] + " share a color");
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts from a small random block and repeatedly picks a clique of the graph, then glues onto part of it either
+     * a new vertex adjacent to all of that part, which keeps the graph chordal around it, or a small random block.
+     *
+     * @param steps Number of vertices or blocks glued on
+     */
+    private static CsrGraph chordalPlusBlocks(Random random, int steps) {
+        List<Integer> edges = new ArrayList<>();
+        List<int[]> cliques = new ArrayList<>();
+        int n = addBlock(random, 0, new int[0], edges, cliques);
+        for (int step = 0; step < steps; step++) {
+            int[] clique = cliques.get(random.nextInt(cliques.size())).clone();
+            for (int i = clique.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = clique[i];
+                clique[i] = clique[j];
+                clique[j] = swap;
+            }
+            int[] part = Arrays.copyOf(clique, 1 + random.nextInt(clique.length));
+            if (random.nextBoolean()) {
+                int[] grown = Arrays.copyOf(part, part.length + 1);
+                grown[part.length] = n;
+                for (int u : part) {
+                    edges.add(u);
+                    edges.add(n);
+                }
+                cliques.add(grown);
+                n++;
+            } else {
+                n = addBlock(random, n, part, edges, cliques);
+            }
+        }
+        int[] edgeList = edges.stream().mapToInt(Integer::intValue).toArray();
+        return CsrGraph.fromEdgeList(n, edgeList);
+    }
+
+    /**
+     * Adds 3 to 6 new vertices with random edges among them and to the given clique, recording the new vertices and
+     * edges as cliques.
+     *
+     * @return The new number of vertices
+     */
+    private static int addBlock(Random random, int n, int[] clique, List<Integer> edges, List<int[]> cliques) {
+        int size = 3 + random.nextInt(4);
+        for (int v = n; v < n + size; v++) {
+            cliques.add(new int[]{v});
+            for (int u = n; u < v; u++) {
+                if (random.nextDouble() < 0.6) {
+                    edges.add(u);
+                    edges.add(v);
+                    cliques.add(new int[]{u, v});
+                }
+            }
+            for (int u : clique) {
+                if (random.nextBoolean()) {
+                    edges.add(u);
+                    edges.add(v);
+                }
+            }
+        }
+        return n + size;
+    }
+
+    private static boolean isClique(CsrGraph graph, List<Integer> vertices) {
+        for (int i = 0; i < vertices.size(); i++) {
+            for (int j = i + 1; j < vertices.size(); j++) {
+                if (!graph.isAdjacent(vertices.get(i), vertices.get(j))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean everyEdgeInAnAtom(CsrGraph graph, CliqueSeparatorDecomposition decomposition) {
+        Set<Long> covered = new HashSet<>();
+        for (int a = 0; a < decomposition.getAtomCount(); a++) {
+            int[] atom = decomposition.getAtom(a);
+            for (int u : atom) {
+                for (int v : atom) {
+                    covered.add((long) u * graph.getOrder() + v);
+                }
+            }
+        }
+        int[] offsets = graph.getOffsets();
+        int[] neighbours = graph.getNeighbours();
+        for (int v = 0; v < graph.getOrder(); v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                if (!covered.contains((long) v * graph.getOrder() + neighbours[i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
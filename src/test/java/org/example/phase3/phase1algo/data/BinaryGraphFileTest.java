@@ -0,0 +1,127 @@
+package org.example.phase3.phase1algo.data;
+
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Converts the example graphs and random ones to binary graph files and reads them back, which must give the CSR
+ * arrays of the graph parsed from text, and checks that files with a flipped byte or cut short are rejected.
+ */
+class BinaryGraphFileTest {
+    private static final int GRAPHS = 100;
+
+    @Test
+    void convertedExampleGraphsMatchTextParsing() throws IOException, URISyntaxException {
+        Path dir = Paths.get(BinaryGraphFileTest.class.getResource("/2425_exampleGraphs").toURI());
+        List<Path> files;
+        try (Stream<Path> entries = Files.list(dir)) {
+            files = entries.filter(path -> path.toString().endsWith(".txt")).sorted().toList();
+        }
+        assertFalse(files.isEmpty(), "No example graphs found");
+        Path binary = Files.createTempFile("graph", ".csrg");
+        try {
+            for (Path file : files) {
+                BinaryGraphFile.convert(file, binary);
+                assertTrue(BinaryGraphFile.isBinaryGraphFile(binary), file.toString());
+                assertFalse(BinaryGraphFile.isBinaryGraphFile(file), file.toString());
+                assertSameGraph(parseText(file), BinaryGraphFile.read(binary), file.toString());
+            }
+        } finally {
+            Files.delete(binary);
+        }
+    }
+
+    @Test
+    void randomGraphsRoundTrip() throws IOException {
+        Random random = new Random(1);
+        Path binary = Files.createTempFile("graph", ".csrg");
+        try {
+            for (int trial = 0; trial < GRAPHS; trial++) {
+                CsrGraph graph = randomGraph(random, random.nextInt(60));
+                BinaryGraphFile.write(binary, graph);
+                assertSameGraph(graph, BinaryGraphFile.read(binary), "Graph " + trial);
+            }
+        } finally {
+            Files.delete(binary);
+        }
+    }
+
+    @Test
+    void rejectsFlippedBytes() throws IOException {
+        Random random = new Random(2);
+        Path binary = Files.createTempFile("graph", ".csrg");
+        try {
+            CsrGraph graph = randomGraph(random, 30);
+            BinaryGraphFile.write(binary, graph);
+            byte[] intact = Files.readAllBytes(binary);
+            // Every byte of the header, the arrays and the checksum is covered
+            for (int position = 0; position < intact.length; position++) {
+                byte[] damaged = intact.clone();
+                damaged[position] ^= (byte) (1 << random.nextInt(8));
+                Files.write(binary, damaged);
+                int at = position;
+                assertThrows(IOException.class, () -> BinaryGraphFile.read(binary), "Flipped bit in byte " + at);
+            }
+        } finally {
+            Files.delete(binary);
+        }
+    }
+
+    @Test
+    void rejectsTruncatedFiles() throws IOException {
+        Path binary = Files.createTempFile("graph", ".csrg");
+        try {
+            BinaryGraphFile.write(binary, randomGraph(new Random(3), 20));
+            long size = Files.size(binary);
+            for (long length = size - 1; length >= 0; length--) {
+                try (FileChannel channel = FileChannel.open(binary, StandardOpenOption.WRITE)) {
+                    channel.truncate(length);
+                }
+                long at = length;
+                assertThrows(IOException.class, () -> BinaryGraphFile.read(binary), "Cut to " + at + " bytes");
+            }
+        } finally {
+            Files.delete(binary);
+        }
+    }
+
+    private static CsrGraph parseText(Path file) throws IOException {
+        ReadGraph.EdgeList edgeList = ReadGraph.read(file);
+        int[] edges = Arrays.copyOf(edgeList.getEdges(), 2 * edgeList.getEdgeCount());
+        for (int i = 0; i < edges.length; i++) {
+            edges[i]--;
+        }
+        return CsrGraph.fromEdgeList(edgeList.getVertexCount(), edges);
+    }
+
+    /**
+     * @return A graph with an edge density drawn between 0 and 0.5, so that some have isolated vertices or no edges
+     */
+    private static CsrGraph randomGraph(Random random, int n) {
+        double density = 0.5 * random.nextDouble();
+        List<Integer> edges = new ArrayList<>();
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                if (random.nextDouble() < density) {
+                    edges.add(u);
+                    edges.add(v);
+                }
+            }
+        }
+        return CsrGraph.fromEdgeList(n, edges.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static void assertSameGraph(CsrGraph expected, CsrGraph actual, String name) {
+        assertEquals(expected.getOrder(), actual.getOrder(), name);
+        assertArrayEquals(expected.getOffsets(), actual.getOffsets(), name);
+        assertArrayEquals(expected.getNeighbours(), actual.getNeighbours(), name);
+    }
+}
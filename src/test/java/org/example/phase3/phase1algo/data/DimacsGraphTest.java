@@ -0,0 +1,147 @@
+package org.example.phase3.phase1algo.data;
+
+import org.example.phase3.Algorithms.ColoringResult;
+import org.example.phase3.phase1algo.structures.CsrGraph;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writes random graphs as DIMACS instances with repeated and reversed edges, comments and mixed line endings, which
+ * must parse to the graph itself, and checks that solutions are only written for proper colorings.
+ */
+class DimacsGraphTest {
+    private static final int GRAPHS = 100;
+
+    @Test
+    void parsesRepeatedEdgesCommentsAndLineEndings() throws IOException {
+        Random random = new Random(1);
+        for (int trial = 0; trial < GRAPHS; trial++) {
+            int n = 1 + random.nextInt(40);
+            CsrGraph graph = randomGraph(random, n);
+            String newline = random.nextBoolean() ? "\r\n" : "\n";
+            StringBuilder text = new StringBuilder("c random graph " + trial + newline);
+            List<String> lines = new ArrayList<>();
+            int[] edges = graph.toEdgeList();
+            for (int i = 0; i < 2 * graph.getEdgeCount(); i += 2) {
+                int u = edges[i] + 1;
+                int v = edges[i + 1] + 1;
+                lines.add(random.nextBoolean() ? "e " + u + " " + v : "e " + v + " " + u);
+                if (random.nextInt(4) == 0) {
+                    lines.add(random.nextBoolean() ? "e " + u + " " + v : "e\t" + v + "  " + u + " ");
+                }
+                if (random.nextInt(8) == 0) {
+                    lines.add("c edge " + u + " " + v + " again");
+                }
+            }
+            Collections.shuffle(lines, random);
+            text.append(random.nextBoolean() ? "p edge " : "p col ").append(n).append(' ')
+                .append(graph.getEdgeCount()).append(newline).append(newline);
+            for (String line : lines) {
+                text.append(line).append(random.nextInt(10) == 0 ? "\n" : newline);
+            }
+            Path file = write(text.toString());
+            try {
+                assertTrue(DimacsGraph.isDimacsFile(file), "Graph " + trial);
+                CsrGraph parsed = DimacsGraph.read(file);
+                assertEquals(n, parsed.getOrder(), "Graph " + trial);
+                assertArrayEquals(graph.getOffsets(), parsed.getOffsets(), "Graph " + trial);
+                assertArrayEquals(graph.getNeighbours(), parsed.getNeighbours(), "Graph " + trial);
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void rejectsMalformedInstances() throws IOException {
+        for (String text : new String[]{
+            "e 1 2\np edge 2 1\n",
+            "c no problem line\n",
+            "p edge 3 1\ne 1 4\n",
+            "p edge 3 1\ne 0 2\n",
+            "p edge 3 2\ne 1 2\np edge 3 1\n",
+            "p edge 3 1\ne 1 x\n"}) {
+            Path file = write(text);
+            try {
+                assertThrows(IllegalArgumentException.class, () -> DimacsGraph.read(file), text);
+            } finally {
+                Files.delete(file);
+            }
+        }
+        Path plain = write("VERTICES = 2\nEDGES = 1\n1 2\n");
+        try {
+            assertFalse(DimacsGraph.isDimacsFile(plain));
+        } finally {
+            Files.delete(plain);
+        }
+    }
+
+    @Test
+    void writesSolutionOnlyForProperColorings() throws IOException {
+        // A 5-cycle with a chord: 1-2-3-4-5-1 and 1-3
+        CsrGraph graph = CsrGraph.fromEdgeList(5, new int[]{0, 1, 1, 2, 2, 3, 3, 4, 4, 0, 0, 2});
+        Path file = Files.createTempFile("graph", ".sol");
+        try {
+            ColoringResult proper = result(new int[]{1, 2, 3, 1, 2}, 3);
+            DimacsGraph.writeSolution(file, graph, proper, new int[]{0, 1, 2});
+            List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+            assertTrue(lines.contains("c lower bound 3"), lines.toString());
+            assertTrue(lines.contains("c clique 3 1 2 3"), lines.toString());
+            assertTrue(lines.contains("s col 3"), lines.toString());
+            for (int v = 1; v <= 5; v++) {
+                assertTrue(lines.contains("l " + v + " " + proper.getColorAssignments().get(v)), lines.toString());
+            }
+
+            String written = Files.readString(file);
+            ColoringResult improper = result(new int[]{1, 2, 1, 2, 3}, 3);
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> DimacsGraph.writeSolution(file, graph, improper, null));
+            assertTrue(e.getMessage().contains("adjacent"), e.getMessage());
+            Map<Integer, Integer> partial = new HashMap<>(proper.getColorAssignments());
+            partial.remove(4);
+            assertThrows(IllegalArgumentException.class,
+                () -> DimacsGraph.writeSolution(file, graph, new ColoringResult(partial, 3, "Partial"), null));
+            assertThrows(IllegalArgumentException.class,
+                () -> DimacsGraph.writeSolution(file, graph, proper, new int[]{0, 2, 3}));
+            assertEquals(written, Files.readString(file), "A rejected solution replaced the written one");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static ColoringResult result(int[] colors, int chromaticNumber) {
+        Map<Integer, Integer> colorMap = new HashMap<>();
+        for (int v = 0; v < colors.length; v++) {
+            colorMap.put(v + 1, colors[v]);
+        }
+        return new ColoringResult(colorMap, chromaticNumber, "Test coloring");
+    }
+
+    private static Path write(String text) throws IOException {
+        Path file = Files.createTempFile("graph", ".col");
+        Files.writeString(file, text, StandardCharsets.US_ASCII);
+        return file;
+    }
+
+    /**
+     * @return A graph with an edge density drawn between 0 and 0.5
+     */
+    private static CsrGraph randomGraph(Random random, int n) {
+        double density = 0.5 * random.nextDouble();
+        List<Integer> edges = new ArrayList<>();
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                if (random.nextDouble() < density) {
+                    edges.add(u);
+                    edges.add(v);
+                }
+            }
+        }
+        return CsrGraph.fromEdgeList(n, edges.stream().mapToInt(Integer::intValue).toArray());
+    }
+}
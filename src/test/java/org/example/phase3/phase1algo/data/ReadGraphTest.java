@@ -0,0 +1,100 @@
+package org.example.phase3.phase1algo.data;
+
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parses the example graphs in one chunk and in several, which must give the same edges in the same order no matter
+ * where the chunk boundaries fall, and checks that vertices that are not positive are rejected with their offset.
+ */
+class ReadGraphTest {
+    private static final int[] CHUNK_COUNTS = {2, 3, 7, 64};
+
+    @Test
+    void chunkedParsingMatchesSingleChunk() throws IOException, URISyntaxException {
+        List<Path> files = exampleGraphs();
+        assertFalse(files.isEmpty(), "No example graphs found");
+        for (Path file : files) {
+            ReadGraph.EdgeList whole = ReadGraph.read(file, 1);
+            for (int chunks : CHUNK_COUNTS) {
+                ReadGraph.EdgeList split = ReadGraph.read(file, chunks);
+                String name = file.getFileName() + " in " + chunks + " chunks";
+                assertEquals(whole.getVertexCount(), split.getVertexCount(), name);
+                assertEquals(whole.getEdgeCount(), split.getEdgeCount(), name);
+                assertArrayEquals(Arrays.copyOf(whole.getEdges(), 2 * whole.getEdgeCount()),
+                    Arrays.copyOf(split.getEdges(), 2 * split.getEdgeCount()), name);
+            }
+        }
+    }
+
+    @Test
+    void fileParsingMatchesTextParsing() throws IOException, URISyntaxException {
+        for (Path file : exampleGraphs()) {
+            ReadGraph.EdgeList edgeList = ReadGraph.read(file, 3);
+            int[][] rows = ReadGraph.read(Files.readString(file, StandardCharsets.US_ASCII));
+            assertEquals(edgeList.getVertexCount(), rows[0][0], file.toString());
+            assertEquals(edgeList.getEdgeCount(), rows.length - 1, file.toString());
+            for (int i = 1; i < rows.length; i++) {
+                assertEquals(edgeList.getEdges()[2 * i - 2], rows[i][0] + 1, file + " edge " + i);
+                assertEquals(edgeList.getEdges()[2 * i - 1], rows[i][1] + 1, file + " edge " + i);
+            }
+        }
+    }
+
+    @Test
+    void rejectsVertexZeroWithItsOffset() throws IOException {
+        String text = "VERTICES = 3\nEDGES = 2\n1 2\n2 0\n";
+        int offset = text.indexOf("2 0") + 2;
+        for (int chunks = 1; chunks <= 4; chunks++) {
+            assertRejectedAt(text, chunks, offset);
+        }
+    }
+
+    @Test
+    void rejectsNegativeVertexWithItsOffset() throws IOException {
+        String text = "VERTICES = 3\nEDGES = 2\n1 2\n-1 3\n";
+        int offset = text.indexOf("-1");
+        for (int chunks = 1; chunks <= 4; chunks++) {
+            assertRejectedAt(text, chunks, offset);
+        }
+        assertThrows(IllegalArgumentException.class, () -> ReadGraph.read("1 2\n3 -4\n"));
+    }
+
+    @Test
+    void skipsCommentsAndHeaders() {
+        int[][] rows = ReadGraph.read("// comment with 0 and -1\nVERTICES = 4\nEDGES = 2\nedges:\n1 2\n3 4 weight\n");
+        assertEquals(4, rows[0][0]);
+        assertEquals(3, rows.length);
+        assertArrayEquals(new int[]{2, 3}, rows[2]);
+    }
+
+    private static void assertRejectedAt(String text, int chunks, int offset) throws IOException {
+        Path file = Files.createTempFile("graph", ".txt");
+        try {
+            Files.writeString(file, text, StandardCharsets.US_ASCII);
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ReadGraph.read(file, chunks));
+            assertTrue(e.getMessage().contains("byte " + offset),
+                "Expected offset " + offset + " with " + chunks + " chunks: " + e.getMessage());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<Path> exampleGraphs() throws IOException, URISyntaxException {
+        List<Path> files = new ArrayList<>();
+        for (String directory : new String[]{"/2425_exampleGraphs", "/test_graphs_gui"}) {
+            Path dir = Paths.get(ReadGraphTest.class.getResource(directory).toURI());
+            try (Stream<Path> entries = Files.list(dir)) {
+                entries.filter(path -> path.toString().endsWith(".txt")).sorted().forEach(files::add);
+            }
+        }
+        return files;
+    }
+}
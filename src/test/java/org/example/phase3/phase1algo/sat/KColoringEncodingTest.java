@@ -0,0 +1,144 @@
+package org.example.phase3.phase1algo.sat;
+
+import org.example.phase3.phase1algo.algorithms.TimerCheck;
+import org.example.phase3.phase1algo.structures.Graph;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the SAT answers with the chromatic number found by brute force on small random graphs, both with a fresh
+ * encoding per k and with one encoding asked for decreasing k through the color selectors, as the exact search does.
+ */
+class KColoringEncodingTest {
+    private static final int GRAPHS = 300;
+
+    @Test
+    void freshEncodingDecidesEveryK() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < GRAPHS; trial++) {
+            Graph graph = randomGraph(random);
+            int n = graph.getOrder();
+            int chromaticNumber = bruteForceChromaticNumber(graph);
+            for (int k = 1; k <= n; k++) {
+                KColoringEncoding encoding = new KColoringEncoding(graph, k, new int[0]);
+                Boolean colorable = encoding.isColorable(k, new TimerCheck());
+                assertEquals(k >= chromaticNumber, colorable,
+                    "Graph " + trial + " with chromatic number " + chromaticNumber + " asked for " + k + " colors");
+                if (colorable) {
+                    assertProperColoring(graph, encoding.getColoring(), k);
+                }
+            }
+        }
+    }
+
+    @Test
+    void selectorsDecideDecreasingK() {
+        Random random = new Random(2);
+        for (int trial = 0; trial < GRAPHS; trial++) {
+            Graph graph = randomGraph(random);
+            int n = graph.getOrder();
+            int chromaticNumber = bruteForceChromaticNumber(graph);
+            int[] clique = randomClique(graph, random);
+            KColoringEncoding encoding = new KColoringEncoding(graph, n, clique);
+            for (int k = n; k >= 1; k--) {
+                Boolean colorable = encoding.isColorable(k, new TimerCheck());
+                assertEquals(k >= chromaticNumber, colorable,
+                    "Graph " + trial + " with chromatic number " + chromaticNumber + " asked for " + k
+                        + " colors after " + (n - k) + " larger k");
+                if (colorable) {
+                    int[] coloring = encoding.getColoring();
+                    assertProperColoring(graph, coloring, k);
+                    for (int i = 0; i < clique.length; i++) {
+                        assertEquals(i, coloring[clique[i]], "Clique vertex " + clique[i] + " is not pre-colored");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsCliqueLargerThanMaxColors() {
+        Graph triangle = new Graph(3, new int[]{0, 1, 1, 2, 0, 2});
+        assertThrows(IllegalArgumentException.class, () -> new KColoringEncoding(triangle, 2, new int[]{0, 1, 2}));
+    }
+
+    /**
+     * @return A graph with 2 to 9 vertices and an edge density drawn between 0.1 and 0.9
+     */
+    private static Graph randomGraph(Random random) {
+        int n = 2 + random.nextInt(8);
+        double density = 0.1 + 0.8 * random.nextDouble();
+        List<Integer> edges = new ArrayList<>();
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                if (random.nextDouble() < density) {
+                    edges.add(u);
+                    edges.add(v);
+                }
+            }
+        }
+        return new Graph(n, edges.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Grows a clique greedily from a random vertex, visiting the others in random order.
+     */
+    private static int[] randomClique(Graph graph, Random random) {
+        List<Integer> order = new ArrayList<>();
+        for (int v = 0; v < graph.getOrder(); v++) {
+            order.add(v);
+        }
+        Collections.shuffle(order, random);
+        List<Integer> clique = new ArrayList<>();
+        for (int v : order) {
+            if (clique.stream().allMatch(u -> graph.isAdjacent(u, v))) {
+                clique.add(v);
+            }
+        }
+        return clique.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int bruteForceChromaticNumber(Graph graph) {
+        int[] colors = new int[graph.getOrder()];
+        for (int k = 1; ; k++) {
+            Arrays.fill(colors, -1);
+            if (colorFrom(graph, 0, k, colors)) {
+                return k;
+            }
+        }
+    }
+
+    private static boolean colorFrom(Graph graph, int vertex, int k, int[] colors) {
+        if (vertex == colors.length) {
+            return true;
+        }
+        for (int color = 0; color < k; color++) {
+            boolean free = true;
+            for (int u = 0; u < vertex && free; u++) {
+                free = colors[u] != color || !graph.isAdjacent(u, vertex);
+            }
+            if (free) {
+                colors[vertex] = color;
+                if (colorFrom(graph, vertex + 1, k, colors)) {
+                    return true;
+                }
+            }
+        }
+        colors[vertex] = -1;
+        return false;
+    }
+
+    private static void assertProperColoring(Graph graph, int[] coloring, int k) {
+        assertEquals(graph.getOrder(), coloring.length);
+        for (int v = 0; v < coloring.length; v++) {
+            assertTrue(coloring[v] >= 0 && coloring[v] < k, "Vertex " + v + " has color " + coloring[v] + " of " + k);
+            for (int u = 0; u < v; u++) {
+                if (graph.isAdjacent(u, v)) {
+                    assertNotEquals(coloring[u], coloring[v], "Adjacent vertices " + u + " and " + v + " share a color");
+                }
+            }
+        }
+    }
+}